@@ -0,0 +1,135 @@
+package com.rentesla.mobilebackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Size limit for the JSON body of POST /documents/upload/base64, applied before the body is read.
+ * The image travels base64-encoded inside the JSON, so the body may be 4/3 of max-upload-bytes plus
+ * the other fields. A declared Content-Length over the limit is refused with 413 right away; a body
+ * without one (chunked) is cut off as soon as the limit is crossed while it is being parsed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class Base64UploadSizeFilter extends OncePerRequestFilter {
+
+    private static final String BASE64_UPLOAD_PATH = "/documents/upload/base64";
+
+    @Value("${app.storage.documents.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    @Value("${app.storage.documents.base64-body-overhead-bytes:65536}")
+    private long bodyOverheadBytes;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !BASE64_UPLOAD_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long limit = getMaxBodyBytes();
+        if (request.getContentLengthLong() > limit) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"success\":false,\"message\":\"Image exceeds the maximum upload size of "
+                + maxUploadBytes + " bytes\"}");
+            return;
+        }
+
+        filterChain.doFilter(new LimitedBodyRequest(request, limit), response);
+    }
+
+    long getMaxBodyBytes() {
+        return (maxUploadBytes + 2) / 3 * 4 + bodyOverheadBytes;
+    }
+
+    private static class LimitedBodyRequest extends HttpServletRequestWrapper {
+        private final long limit;
+        private ServletInputStream limited;
+
+        LimitedBodyRequest(HttpServletRequest request, long limit) {
+            super(request);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (limited == null) {
+                limited = new LimitedServletInputStream(super.getInputStream(), limit);
+            }
+            return limited;
+        }
+    }
+
+    private static class LimitedServletInputStream extends ServletInputStream {
+        private final ServletInputStream in;
+        private final long limit;
+        private long count;
+
+        LimitedServletInputStream(ServletInputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Request body exceeds " + limit + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+    }
+}
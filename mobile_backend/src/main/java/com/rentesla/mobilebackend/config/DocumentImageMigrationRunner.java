@@ -0,0 +1,117 @@
+package com.rentesla.mobilebackend.config;
+
+import com.rentesla.mobilebackend.service.DocumentStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves legacy documents.image_base64 payloads into the blob store.
+ * Rows are processed in small keyset batches so only a handful of images are in memory at once.
+ */
+@Component
+public class DocumentImageMigrationRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentImageMigrationRunner.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Value("${app.storage.documents.migrate-legacy:true}")
+    private boolean migrateLegacy;
+
+    @Value("${app.storage.documents.migration-batch-size:20}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        if (!migrateLegacy) {
+            logger.info("ℹ️ Legacy document image migration disabled");
+            return;
+        }
+
+        try {
+            if (!legacyColumnExists()) {
+                logger.info("ℹ️ No legacy image_base64 column found - nothing to migrate");
+                return;
+            }
+
+            logger.info("🔄 Migrating legacy document images to blob storage...");
+
+            long lastId = 0;
+            int migrated = 0;
+            int failed = 0;
+
+            while (true) {
+                List<LegacyImage> batch = jdbcTemplate.query(
+                    "SELECT id, image_base64 FROM documents " +
+                    "WHERE image_base64 IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new LegacyImage(rs.getLong("id"), rs.getString("image_base64")),
+                    lastId, batchSize);
+
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                for (LegacyImage legacy : batch) {
+                    lastId = legacy.id;
+                    try {
+                        migrate(legacy);
+                        migrated++;
+                    } catch (Exception e) {
+                        failed++;
+                        logger.error("❌ Failed to migrate image of document {}: {}", legacy.id, e.getMessage());
+                    }
+                }
+            }
+
+            logger.info("✅ Legacy document image migration finished. Migrated: {}, Failed: {}", migrated, failed);
+
+        } catch (Exception e) {
+            logger.error("❌ Legacy document image migration failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void migrate(LegacyImage legacy) throws Exception {
+        if (legacy.base64.isBlank()) {
+            jdbcTemplate.update("UPDATE documents SET image_base64 = NULL WHERE id = ?", legacy.id);
+            return;
+        }
+
+        DocumentStorageService.StoredImage storedImage = documentStorageService.storeBase64(legacy.base64);
+
+        jdbcTemplate.update(
+            "UPDATE documents SET image_key = ?, file_size = ?, file_type = COALESCE(file_type, ?), " +
+            "image_base64 = NULL WHERE id = ?",
+            storedImage.getKey(), storedImage.getSize(), storedImage.getMimeType(), legacy.id);
+
+        logger.debug("   - Document {} migrated to blob {}", legacy.id, storedImage.getKey());
+    }
+
+    private boolean legacyColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE table_name = 'documents' AND column_name = 'image_base64'",
+            Integer.class);
+        return count != null && count > 0;
+    }
+
+    private static class LegacyImage {
+        private final long id;
+        private final String base64;
+
+        LegacyImage(long id, String base64) {
+            this.id = id;
+            this.base64 = base64;
+        }
+    }
+}
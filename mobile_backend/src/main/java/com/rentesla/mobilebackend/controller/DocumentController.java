@@ -1,20 +1,30 @@
 package com.rentesla.mobilebackend.controller;
 
+import com.rentesla.mobilebackend.dto.DocumentPage;
+import com.rentesla.mobilebackend.dto.DocumentSummary;
 import com.rentesla.mobilebackend.entity.Document;
 import com.rentesla.mobilebackend.service.DocumentService;
+import com.rentesla.mobilebackend.service.DocumentStorageService;
+import com.rentesla.mobilebackend.service.ImageQualityAnalyzer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/documents")
@@ -22,9 +32,15 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class DocumentController {
 
+    // Only the data URI header is checked; the payload itself is validated while it is decoded
+    private static final Pattern BASE64_IMAGE_PREFIX = Pattern.compile("data:image/[a-zA-Z]+;base64,");
+
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
     @PostMapping("/upload")
     @Operation(summary = "Upload document", description = "Upload document for verification")
     public ResponseEntity<?> uploadDocument(
@@ -73,7 +89,7 @@ public class DocumentController {
             }
 
             // Validate base64 format
-            if (!request.getImageBase64().matches("^data:image\\/[a-zA-Z]+;base64,.*")) {
+            if (!BASE64_IMAGE_PREFIX.matcher(request.getImageBase64()).lookingAt()) {
                 System.err.println("❌ Invalid base64 format");
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -81,6 +97,15 @@ public class DocumentController {
                 ));
             }
 
+            // Validate size before anything is decoded or existing documents are replaced
+            if (documentStorageService.exceedsUploadLimit(request.getImageBase64())) {
+                System.err.println("❌ Image exceeds upload limit");
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                    "success", false,
+                    "message", "Image exceeds the maximum upload size of " + documentStorageService.getMaxUploadBytes() + " bytes"
+                ));
+            }
+
             // Process document upload
             Document document = documentService.uploadDocumentBase64(
                 request.getUserId(),
@@ -102,6 +127,13 @@ public class DocumentController {
             
             return ResponseEntity.ok(response);
             
+        } catch (ImageQualityAnalyzer.ImageRejectedException e) {
+            System.err.println("❌ Document rejected by quality check: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                "success", false,
+                "reasonCode", e.getReport().getIssue().name(),
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             System.err.println("❌ Document upload failed: " + e.getMessage());
             e.printStackTrace();
@@ -115,47 +147,42 @@ public class DocumentController {
     }
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get user documents", description = "Get all documents for a specific user")
-    public ResponseEntity<List<DocumentResponse>> getUserDocuments(
+    @Operation(summary = "Get user documents", description = "Get all documents for a specific user, with thumbnails instead of full images")
+    public ResponseEntity<List<DocumentSummary>> getUserDocuments(
             @Parameter(description = "User ID") @PathVariable Long userId) {
         try {
-        List<Document> documents = documentService.getUserDocuments(userId);
-            List<DocumentResponse> response = documents.stream()
-                .map(this::convertToDocumentResponse)
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(documentService.getUserDocuments(userId));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    private DocumentResponse convertToDocumentResponse(Document document) {
-        DocumentResponse response = new DocumentResponse();
-        response.setId(document.getId());
-        response.setUserId(document.getUserId());
-        response.setType(document.getType());
-        response.setFace(document.getFace());
-        response.setStatus(document.getStatus());
-        response.setFileName(document.getFileName());
-        response.setFileType(document.getFileType());
-        response.setFileSize(document.getFileSize());
-        response.setOcrConfidence(document.getOcrConfidence());
-        response.setRejectionReason(document.getRejectionReason());
-        response.setReviewedBy(document.getReviewedBy());
-        response.setAutoApproved(document.getAutoApproved());
-        response.setExtractedName(document.getExtractedName());
-        response.setExtractedSurname(document.getExtractedSurname());
-        response.setExtractedIdNumber(document.getExtractedIdNumber());
-        response.setExtractedLicenseNumber(document.getExtractedLicenseNumber());
-        response.setExtractedBirthDate(document.getExtractedBirthDate());
-        response.setExtractedExpiryDate(document.getExtractedExpiryDate());
-        response.setCreatedAt(document.getCreatedAt());
-        response.setUpdatedAt(document.getUpdatedAt());
-        
-        // Manually include imageBase64 data
-        response.setImageBase64(document.getImageBase64());
-        
-        return response;
+    @GetMapping("/{documentId}/image")
+    @Operation(summary = "Get document image", description = "Full document image; supports If-None-Match and Range requests")
+    public ResponseEntity<Resource> getDocumentImage(
+            @Parameter(description = "Document ID") @PathVariable Long documentId) {
+        Optional<Document> document = documentService.getDocument(documentId);
+        if (document.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Resource image = documentService.getImageResource(document.get());
+        if (image == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        MediaType contentType = document.get().getFileType() != null
+            ? MediaType.parseMediaType(document.get().getFileType())
+            : MediaType.IMAGE_JPEG;
+
+        // The image key is the SHA-256 of the content, so it doubles as a strong ETag.
+        // Spring answers If-None-Match with 304 and Range requests with 206 for Resource bodies.
+        return ResponseEntity.ok()
+            .eTag(document.get().getImageKey())
+            .cacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePrivate())
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .contentType(contentType)
+            .body(image);
     }
 
     @GetMapping("/{documentId}")
@@ -168,17 +195,27 @@ public class DocumentController {
     }
 
     @GetMapping("/pending")
-    @Operation(summary = "Get pending documents", description = "Get documents pending manual review (Admin only)")
-    public ResponseEntity<List<Document>> getPendingDocuments() {
-        List<Document> documents = documentService.getPendingDocuments();
-        return ResponseEntity.ok(documents);
+    @Operation(summary = "Get pending documents", description = "Get documents pending manual review, oldest first, one page at a time (Admin only)")
+    public ResponseEntity<DocumentPage> getPendingDocuments(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "${app.documents.review.default-page-size:50}") int limit) {
+        try {
+            return ResponseEntity.ok(documentService.getPendingDocuments(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/low-confidence")
-    @Operation(summary = "Get low confidence documents", description = "Get documents with low OCR confidence (Admin only)")
-    public ResponseEntity<List<Document>> getLowConfidenceDocuments() {
-        List<Document> documents = documentService.getDocumentsWithLowConfidence();
-        return ResponseEntity.ok(documents);
+    @Operation(summary = "Get low confidence documents", description = "Get documents with low OCR confidence, one page at a time (Admin only)")
+    public ResponseEntity<DocumentPage> getLowConfidenceDocuments(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "${app.documents.review.default-page-size:50}") int limit) {
+        try {
+            return ResponseEntity.ok(documentService.getDocumentsWithLowConfidence(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/{documentId}/review")
@@ -210,10 +247,15 @@ public class DocumentController {
     // === ADMIN ENDPOINTS ===
 
     @GetMapping("/admin/pending-review")
-    @Operation(summary = "Get documents needing manual review", description = "Get all documents that failed automatic verification (Admin only)")
-    public ResponseEntity<List<Document>> getDocumentsNeedingReview() {
-        List<Document> documents = documentService.getDocumentsNeedingReview();
-        return ResponseEntity.ok(documents);
+    @Operation(summary = "Get documents needing manual review", description = "Get documents that failed automatic verification, oldest first, one page at a time (Admin only)")
+    public ResponseEntity<DocumentPage> getDocumentsNeedingReview(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "${app.documents.review.default-page-size:50}") int limit) {
+        try {
+            return ResponseEntity.ok(documentService.getDocumentsNeedingReview(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/admin/stats")
@@ -259,6 +301,19 @@ public class DocumentController {
         }
     }
 
+    @PostMapping("/admin/{documentId}/rerun-ocr")
+    @Operation(summary = "Admin re-run OCR", description = "Queue OCR for a document again at admin re-run priority (Admin only)")
+    public ResponseEntity<Document> adminRerunOCR(
+            @Parameter(description = "Document ID") @PathVariable Long documentId,
+            @RequestBody AdminDocumentActionRequest request) {
+        try {
+            Document document = documentService.rerunOCR(documentId, request.getAdminId());
+            return ResponseEntity.ok(document);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/admin/bulk-action")
     @Operation(summary = "Bulk document action", description = "Perform bulk approve/reject on multiple documents (Admin only)")
     public ResponseEntity<DocumentService.BulkActionResponse> bulkDocumentAction(@RequestBody BulkDocumentActionRequest request) {
@@ -477,92 +532,4 @@ public class DocumentController {
             this.verificationDetails = verificationDetails;
         }
     }
-    
-    public static class DocumentResponse {
-        private Long id;
-        private Long userId;
-        private Document.DocumentType type;
-        private Document.DocumentFace face;
-        private Document.DocumentStatus status;
-        private String imageBase64; // This will be included in JSON response
-        private String fileName;
-        private String fileType;
-        private Long fileSize;
-        private Double ocrConfidence;
-        private String rejectionReason;
-        private Long reviewedBy;
-        private Boolean autoApproved;
-        private String extractedName;
-        private String extractedSurname;
-        private String extractedIdNumber;
-        private String extractedLicenseNumber;
-        private String extractedBirthDate;
-        private String extractedExpiryDate;
-        private java.time.LocalDateTime createdAt;
-        private java.time.LocalDateTime updatedAt;
-
-        // Getters and Setters
-        public Long getId() { return id; }
-        public void setId(Long id) { this.id = id; }
-
-        public Long getUserId() { return userId; }
-        public void setUserId(Long userId) { this.userId = userId; }
-
-        public Document.DocumentType getType() { return type; }
-        public void setType(Document.DocumentType type) { this.type = type; }
-
-        public Document.DocumentFace getFace() { return face; }
-        public void setFace(Document.DocumentFace face) { this.face = face; }
-
-        public Document.DocumentStatus getStatus() { return status; }
-        public void setStatus(Document.DocumentStatus status) { this.status = status; }
-
-        public String getImageBase64() { return imageBase64; }
-        public void setImageBase64(String imageBase64) { this.imageBase64 = imageBase64; }
-
-        public String getFileName() { return fileName; }
-        public void setFileName(String fileName) { this.fileName = fileName; }
-
-        public String getFileType() { return fileType; }
-        public void setFileType(String fileType) { this.fileType = fileType; }
-
-        public Long getFileSize() { return fileSize; }
-        public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
-
-        public Double getOcrConfidence() { return ocrConfidence; }
-        public void setOcrConfidence(Double ocrConfidence) { this.ocrConfidence = ocrConfidence; }
-
-        public String getRejectionReason() { return rejectionReason; }
-        public void setRejectionReason(String rejectionReason) { this.rejectionReason = rejectionReason; }
-
-        public Long getReviewedBy() { return reviewedBy; }
-        public void setReviewedBy(Long reviewedBy) { this.reviewedBy = reviewedBy; }
-
-        public Boolean getAutoApproved() { return autoApproved; }
-        public void setAutoApproved(Boolean autoApproved) { this.autoApproved = autoApproved; }
-
-        public String getExtractedName() { return extractedName; }
-        public void setExtractedName(String extractedName) { this.extractedName = extractedName; }
-
-        public String getExtractedSurname() { return extractedSurname; }
-        public void setExtractedSurname(String extractedSurname) { this.extractedSurname = extractedSurname; }
-
-        public String getExtractedIdNumber() { return extractedIdNumber; }
-        public void setExtractedIdNumber(String extractedIdNumber) { this.extractedIdNumber = extractedIdNumber; }
-
-        public String getExtractedLicenseNumber() { return extractedLicenseNumber; }
-        public void setExtractedLicenseNumber(String extractedLicenseNumber) { this.extractedLicenseNumber = extractedLicenseNumber; }
-
-        public String getExtractedBirthDate() { return extractedBirthDate; }
-        public void setExtractedBirthDate(String extractedBirthDate) { this.extractedBirthDate = extractedBirthDate; }
-
-        public String getExtractedExpiryDate() { return extractedExpiryDate; }
-        public void setExtractedExpiryDate(String extractedExpiryDate) { this.extractedExpiryDate = extractedExpiryDate; }
-
-        public java.time.LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(java.time.LocalDateTime createdAt) { this.createdAt = createdAt; }
-
-        public java.time.LocalDateTime getUpdatedAt() { return updatedAt; }
-        public void setUpdatedAt(java.time.LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-    }
-} 
\ No newline at end of file
+}
@@ -1,6 +1,9 @@
 package com.rentesla.mobilebackend.controller;
 
+import com.rentesla.mobilebackend.dto.NearestVehicle;
+import com.rentesla.mobilebackend.dto.VehicleCluster;
 import com.rentesla.mobilebackend.entity.Vehicle;
+import com.rentesla.mobilebackend.service.VehicleClusterService;
 import com.rentesla.mobilebackend.service.VehicleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +25,9 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
 
+    @Autowired
+    private VehicleClusterService vehicleClusterService;
+
     @GetMapping
     @Operation(summary = "Get all available vehicles", description = "Returns list of all available vehicles")
     public ResponseEntity<List<Vehicle>> getAllAvailableVehicles() {
@@ -39,13 +45,27 @@ public class VehicleController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search vehicles", description = "Search vehicles by name, model, color, or make")
+    @Operation(summary = "Search vehicles", description = "Search vehicles by name, model, color, or make. The term matches anywhere in a field, ignoring case, Turkish letters (ş = s) and punctuation; all matches are returned, best first")
     public ResponseEntity<List<Vehicle>> searchVehicles(
             @Parameter(description = "Search term") @RequestParam String q) {
         List<Vehicle> vehicles = vehicleService.searchVehicles(q);
         return ResponseEntity.ok(vehicles);
     }
 
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete vehicle search", description = "Suggestions (names, models, makes, colors) for a partially typed search")
+    public ResponseEntity<List<String>> autocompleteVehicles(
+            @Parameter(description = "Partial search term") @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+        
+        try {
+            List<String> suggestions = vehicleService.autocompleteVehicles(q, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/nearby")
     @Operation(summary = "Find nearby vehicles", description = "Find vehicles within specified radius from user location")
     public ResponseEntity<List<Vehicle>> getNearbyVehicles(
@@ -61,6 +81,21 @@ public class VehicleController {
         }
     }
 
+    @GetMapping("/nearest")
+    @Operation(summary = "Find nearest vehicles", description = "Find the k closest available vehicles (up to 100 km) with their distances")
+    public ResponseEntity<List<NearestVehicle>> getNearestVehicles(
+            @Parameter(description = "User latitude") @RequestParam Double latitude,
+            @Parameter(description = "User longitude") @RequestParam Double longitude,
+            @Parameter(description = "Number of vehicles", example = "5") @RequestParam(defaultValue = "5") Integer k) {
+        
+        try {
+            List<NearestVehicle> vehicles = vehicleService.findNearestVehicles(latitude, longitude, k);
+            return ResponseEntity.ok(vehicles);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/in-bounds")
     @Operation(summary = "Find vehicles in bounds", description = "Find vehicles within geographical bounds")
     public ResponseEntity<List<Vehicle>> getVehiclesInBounds(
@@ -73,6 +108,23 @@ public class VehicleController {
         return ResponseEntity.ok(vehicles);
     }
 
+    @GetMapping("/clusters")
+    @Operation(summary = "Get vehicle clusters", description = "Cluster centroids with vehicle counts for the map viewport at the given zoom")
+    public ResponseEntity<List<VehicleCluster>> getVehicleClusters(
+            @Parameter(description = "Minimum latitude") @RequestParam Double minLat,
+            @Parameter(description = "Maximum latitude") @RequestParam Double maxLat,
+            @Parameter(description = "Minimum longitude") @RequestParam Double minLng,
+            @Parameter(description = "Maximum longitude") @RequestParam Double maxLng,
+            @Parameter(description = "Map zoom level (0-20)", example = "12") @RequestParam Integer zoom) {
+        
+        try {
+            List<VehicleCluster> clusters = vehicleClusterService.getClusters(minLat, maxLat, minLng, maxLng, zoom);
+            return ResponseEntity.ok(clusters);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/qr-scan")
     @Operation(summary = "Get vehicle by QR code", description = "Get vehicle information by scanning QR code")
     public ResponseEntity<Vehicle> getVehicleByQRCode(
@@ -0,0 +1,144 @@
+package com.rentesla.mobilebackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rentesla.mobilebackend.entity.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image-free view of a document for listings.
+ * Filled directly by a JPQL constructor query, so the documents row is never loaded as an
+ * entity; the full image is fetched separately from GET /documents/{id}/image.
+ */
+public class DocumentSummary {
+
+    private Long id;
+    private Long userId;
+    private Document.DocumentType type;
+    private Document.DocumentFace face;
+    private Document.DocumentStatus status;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private Double ocrConfidence;
+    private String rejectionReason;
+    private Long reviewedBy;
+    private Boolean autoApproved;
+    private String extractedName;
+    private String extractedSurname;
+    private String extractedIdNumber;
+    private String extractedLicenseNumber;
+    private String extractedBirthDate;
+    private String extractedExpiryDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @JsonIgnore
+    private String imageKey;
+
+    private String thumbnailBase64; // Small JPEG preview, filled in by DocumentService
+    private String imageUrl;        // Relative URL of the full image
+
+    // Constructors
+    public DocumentSummary() {}
+
+    public DocumentSummary(Long id, Long userId, Document.DocumentType type, Document.DocumentFace face,
+                           Document.DocumentStatus status, String imageKey, String fileName, String fileType,
+                           Long fileSize, Double ocrConfidence, String rejectionReason, Long reviewedBy,
+                           Boolean autoApproved, String extractedName, String extractedSurname,
+                           String extractedIdNumber, String extractedLicenseNumber, String extractedBirthDate,
+                           String extractedExpiryDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.face = face;
+        this.status = status;
+        this.imageKey = imageKey;
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.ocrConfidence = ocrConfidence;
+        this.rejectionReason = rejectionReason;
+        this.reviewedBy = reviewedBy;
+        this.autoApproved = autoApproved;
+        this.extractedName = extractedName;
+        this.extractedSurname = extractedSurname;
+        this.extractedIdNumber = extractedIdNumber;
+        this.extractedLicenseNumber = extractedLicenseNumber;
+        this.extractedBirthDate = extractedBirthDate;
+        this.extractedExpiryDate = extractedExpiryDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.imageUrl = imageKey != null ? "/documents/" + id + "/image" : null;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Document.DocumentType getType() { return type; }
+    public void setType(Document.DocumentType type) { this.type = type; }
+
+    public Document.DocumentFace getFace() { return face; }
+    public void setFace(Document.DocumentFace face) { this.face = face; }
+
+    public Document.DocumentStatus getStatus() { return status; }
+    public void setStatus(Document.DocumentStatus status) { this.status = status; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getFileType() { return fileType; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Double getOcrConfidence() { return ocrConfidence; }
+    public void setOcrConfidence(Double ocrConfidence) { this.ocrConfidence = ocrConfidence; }
+
+    public String getRejectionReason() { return rejectionReason; }
+    public void setRejectionReason(String rejectionReason) { this.rejectionReason = rejectionReason; }
+
+    public Long getReviewedBy() { return reviewedBy; }
+    public void setReviewedBy(Long reviewedBy) { this.reviewedBy = reviewedBy; }
+
+    public Boolean getAutoApproved() { return autoApproved; }
+    public void setAutoApproved(Boolean autoApproved) { this.autoApproved = autoApproved; }
+
+    public String getExtractedName() { return extractedName; }
+    public void setExtractedName(String extractedName) { this.extractedName = extractedName; }
+
+    public String getExtractedSurname() { return extractedSurname; }
+    public void setExtractedSurname(String extractedSurname) { this.extractedSurname = extractedSurname; }
+
+    public String getExtractedIdNumber() { return extractedIdNumber; }
+    public void setExtractedIdNumber(String extractedIdNumber) { this.extractedIdNumber = extractedIdNumber; }
+
+    public String getExtractedLicenseNumber() { return extractedLicenseNumber; }
+    public void setExtractedLicenseNumber(String extractedLicenseNumber) { this.extractedLicenseNumber = extractedLicenseNumber; }
+
+    public String getExtractedBirthDate() { return extractedBirthDate; }
+    public void setExtractedBirthDate(String extractedBirthDate) { this.extractedBirthDate = extractedBirthDate; }
+
+    public String getExtractedExpiryDate() { return extractedExpiryDate; }
+    public void setExtractedExpiryDate(String extractedExpiryDate) { this.extractedExpiryDate = extractedExpiryDate; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public String getImageKey() { return imageKey; }
+    public void setImageKey(String imageKey) { this.imageKey = imageKey; }
+
+    public String getThumbnailBase64() { return thumbnailBase64; }
+    public void setThumbnailBase64(String thumbnailBase64) { this.thumbnailBase64 = thumbnailBase64; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+}
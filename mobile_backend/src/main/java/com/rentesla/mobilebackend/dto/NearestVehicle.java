@@ -0,0 +1,27 @@
+package com.rentesla.mobilebackend.dto;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+
+/**
+ * A vehicle returned by GET /vehicles/nearest with its great-circle distance from the caller
+ */
+public class NearestVehicle {
+
+    private Vehicle vehicle;
+    private double distanceKm;
+
+    // Constructors
+    public NearestVehicle() {}
+
+    public NearestVehicle(Vehicle vehicle, double distanceKm) {
+        this.vehicle = vehicle;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters and Setters
+    public Vehicle getVehicle() { return vehicle; }
+    public void setVehicle(Vehicle vehicle) { this.vehicle = vehicle; }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+}
@@ -0,0 +1,36 @@
+package com.rentesla.mobilebackend.dto;
+
+/**
+ * Map marker for GET /vehicles/clusters: the centroid and size of a group of available vehicles.
+ * vehicleUuid is set when the cluster is a single vehicle, so the app can open it directly.
+ */
+public class VehicleCluster {
+
+    private double latitude;
+    private double longitude;
+    private int count;
+    private String vehicleUuid;
+
+    // Constructors
+    public VehicleCluster() {}
+
+    public VehicleCluster(double latitude, double longitude, int count, String vehicleUuid) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.vehicleUuid = vehicleUuid;
+    }
+
+    // Getters and Setters
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public String getVehicleUuid() { return vehicleUuid; }
+    public void setVehicleUuid(String vehicleUuid) { this.vehicleUuid = vehicleUuid; }
+}
@@ -5,9 +5,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rentesla.mobilebackend.service.DocumentStatisticsListener;
 
 @Entity
 @Table(name = "documents")
+@EntityListeners(DocumentStatisticsListener.class)
 public class Document extends BaseEntity {
 
     @Id
@@ -35,9 +37,17 @@ public class Document extends BaseEntity {
     @Column(name = "status", nullable = false)
     private DocumentStatus status = DocumentStatus.PENDING;
 
-    @Column(name = "image_base64", columnDefinition = "LONGTEXT")
+    // SHA-256 key of the image in the document blob store (see DocumentStorageService)
+    @Size(max = 64)
+    @Column(name = "image_key", length = 64)
     @JsonIgnore
-    private String imageBase64;
+    private String imageKey;
+
+    // Blob key of the image as uploaded, only kept when pre-processing changed it and originals are retained
+    @Size(max = 64)
+    @Column(name = "original_image_key", length = 64)
+    @JsonIgnore
+    private String originalImageKey;
 
     @Size(max = 255)
     @Column(name = "file_name")
@@ -88,13 +98,22 @@ public class Document extends BaseEntity {
     @Column(name = "extracted_expiry_date")
     private String extractedExpiryDate;
 
+    // Status as last read from / written to the database, for statistics deltas
+    @Transient
+    @JsonIgnore
+    private DocumentStatus persistedStatus;
+
+    @Transient
+    @JsonIgnore
+    private Boolean persistedAutoApproved;
+
     // Constructors
     public Document() {}
 
-    public Document(Long userId, DocumentType type, String imageBase64) {
+    public Document(Long userId, DocumentType type, String imageKey) {
         this.userId = userId;
         this.type = type;
-        this.imageBase64 = imageBase64;
+        this.imageKey = imageKey;
         this.status = DocumentStatus.PENDING;
     }
 
@@ -147,12 +166,20 @@ public class Document extends BaseEntity {
         this.status = status;
     }
 
-    public String getImageBase64() {
-        return imageBase64;
+    public String getImageKey() {
+        return imageKey;
+    }
+
+    public void setImageKey(String imageKey) {
+        this.imageKey = imageKey;
+    }
+
+    public String getOriginalImageKey() {
+        return originalImageKey;
     }
 
-    public void setImageBase64(String imageBase64) {
-        this.imageBase64 = imageBase64;
+    public void setOriginalImageKey(String originalImageKey) {
+        this.originalImageKey = originalImageKey;
     }
 
     public String getFileName() {
@@ -259,6 +286,24 @@ public class Document extends BaseEntity {
         this.extractedExpiryDate = extractedExpiryDate;
     }
 
+    @JsonIgnore
+    public DocumentStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    @JsonIgnore
+    public Boolean getPersistedAutoApproved() {
+        return persistedAutoApproved;
+    }
+
+    /**
+     * Remember the current status as the one stored in the database
+     */
+    public void markPersistedState() {
+        this.persistedStatus = status;
+        this.persistedAutoApproved = autoApproved;
+    }
+
     // Enums
     public enum DocumentType {
         DRIVING_LICENSE,
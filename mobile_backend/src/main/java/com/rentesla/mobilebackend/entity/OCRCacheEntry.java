@@ -0,0 +1,129 @@
+package com.rentesla.mobilebackend.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cached OCR result for an image a user has already uploaded.
+ * Keyed by (user, document type, image content hash); the perceptual hash is used
+ * to recognise near-identical photos of the same document.
+ */
+@Entity
+@Table(name = "ocr_result_cache",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uk_ocr_result_cache_key", columnNames = {"user_id", "document_type", "content_hash"}),
+       indexes = @Index(name = "idx_ocr_result_cache_last_used", columnList = "last_used_at"))
+public class OCRCacheEntry extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false)
+    private Document.DocumentType documentType;
+
+    // SHA-256 of the image bytes (same value as documents.image_key)
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // 64-bit difference hash of the image, null when perceptual matching is disabled
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+
+    @NotNull
+    @Column(name = "result_json", nullable = false, columnDefinition = "TEXT")
+    private String resultJson;
+
+    @Column(name = "hit_count", nullable = false)
+    private Integer hitCount = 0;
+
+    @NotNull
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    // Constructors
+    public OCRCacheEntry() {}
+
+    public OCRCacheEntry(Long userId, Document.DocumentType documentType, String contentHash) {
+        this.userId = userId;
+        this.documentType = documentType;
+        this.contentHash = contentHash;
+        this.lastUsedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Document.DocumentType getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(Document.DocumentType documentType) {
+        this.documentType = documentType;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getPerceptualHash() {
+        return perceptualHash;
+    }
+
+    public void setPerceptualHash(Long perceptualHash) {
+        this.perceptualHash = perceptualHash;
+    }
+
+    public String getResultJson() {
+        return resultJson;
+    }
+
+    public void setResultJson(String resultJson) {
+        this.resultJson = resultJson;
+    }
+
+    public Integer getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(Integer hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
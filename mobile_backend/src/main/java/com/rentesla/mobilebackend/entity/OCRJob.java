@@ -0,0 +1,194 @@
+package com.rentesla.mobilebackend.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable OCR work item for a document.
+ * Backend instances claim jobs with SELECT ... FOR UPDATE SKIP LOCKED and hold them under a
+ * time-limited lease; a job whose lease runs out (e.g. the node died) is claimed again.
+ * Each job belongs to a priority class; classes share the OCR capacity by weight.
+ */
+@Entity
+@Table(name = "ocr_jobs",
+       indexes = {
+           @Index(name = "idx_ocr_jobs_document_id", columnList = "document_id", unique = true),
+           @Index(name = "idx_ocr_jobs_priority_status_next_attempt", columnList = "priority, status, next_attempt_at")
+       })
+public class OCRJob extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private JobStatus status = JobStatus.QUEUED;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false, length = 30)
+    private JobPriority priority = JobPriority.FIRST_SIGNUP;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @NotNull
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // When the job was (re-)queued; OCR latency per priority class is measured from here
+    @NotNull
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+
+    // First handed to a worker since queued_at; null until then
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @Size(max = 100)
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Size(max = 1000)
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Constructors
+    public OCRJob() {}
+
+    public OCRJob(Long documentId, Long userId, JobPriority priority) {
+        this.documentId = documentId;
+        this.userId = userId;
+        this.priority = priority;
+        this.nextAttemptAt = LocalDateTime.now();
+        this.queuedAt = this.nextAttemptAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public JobPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(JobPriority priority) {
+        this.priority = priority;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getQueuedAt() {
+        return queuedAt;
+    }
+
+    public void setQueuedAt(LocalDateTime queuedAt) {
+        this.queuedAt = queuedAt;
+    }
+
+    public LocalDateTime getDispatchedAt() {
+        return dispatchedAt;
+    }
+
+    public void setDispatchedAt(LocalDateTime dispatchedAt) {
+        this.dispatchedAt = dispatchedAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    // Enums
+    public enum JobStatus {
+        QUEUED,     // waiting for next_attempt_at
+        RUNNING,    // claimed by lease_owner until lease_expires_at
+        SUCCEEDED,
+        DEAD        // gave up after max attempts (dead-letter)
+    }
+
+    public enum JobPriority {
+        ACTIVE_RESERVATION,   // user has an open reservation and is waiting to drive
+        FIRST_SIGNUP,         // first upload of this document
+        REUPLOAD,             // replaces an earlier upload of the same document
+        ADMIN_RERUN           // re-run requested by an admin
+    }
+}
@@ -1,10 +1,13 @@
 package com.rentesla.mobilebackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "users")
 public class User extends BaseEntity {
@@ -50,6 +53,11 @@ public class User extends BaseEntity {
     @Column(name = "document_verified", nullable = false)
     private Boolean documentVerified = false;
 
+    // When documentVerified last changed; other nodes poll it to invalidate their verification caches
+    @JsonIgnore
+    @Column(name = "verification_updated_at")
+    private LocalDateTime verificationUpdatedAt;
+
     @Column(name = "latitude")
     private Double latitude;
 
@@ -193,6 +201,14 @@ public class User extends BaseEntity {
         this.documentVerified = documentVerified;
     }
 
+    public LocalDateTime getVerificationUpdatedAt() {
+        return verificationUpdatedAt;
+    }
+
+    public void setVerificationUpdatedAt(LocalDateTime verificationUpdatedAt) {
+        this.verificationUpdatedAt = verificationUpdatedAt;
+    }
+
     public Double getLatitude() {
         return latitude;
     }
@@ -4,12 +4,14 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import com.rentesla.mobilebackend.service.VehicleIndexListener;
 
 import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
 @Table(name = "vehicles")
+@EntityListeners(VehicleIndexListener.class)
 public class Vehicle extends BaseEntity {
 
     @Id
@@ -1,18 +1,29 @@
 package com.rentesla.mobilebackend.repository;
 
+import com.rentesla.mobilebackend.dto.DocumentSummary;
 import com.rentesla.mobilebackend.entity.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
+    // Listing projection: no entity is loaded and the image is not touched
+    String SUMMARY_SELECT = "SELECT new com.rentesla.mobilebackend.dto.DocumentSummary(" +
+           "d.id, d.userId, d.type, d.face, d.status, d.imageKey, d.fileName, d.fileType, d.fileSize, " +
+           "d.ocrConfidence, d.rejectionReason, d.reviewedBy, d.autoApproved, d.extractedName, d.extractedSurname, " +
+           "d.extractedIdNumber, d.extractedLicenseNumber, d.extractedBirthDate, d.extractedExpiryDate, " +
+           "d.createdAt, d.updatedAt) ";
+
     List<Document> findByUserId(Long userId);
 
     List<Document> findByUserIdAndType(Long userId, Document.DocumentType type);
@@ -32,23 +43,34 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     Optional<Document> findLatestDocumentByUserAndType(@Param("userId") Long userId, 
                                                        @Param("type") Document.DocumentType type);
 
-    @Query("SELECT d FROM Document d WHERE d.status = 'PENDING' ORDER BY d.createdAt ASC")
-    List<Document> findPendingDocumentsForReview();
-
     @Query("SELECT d FROM Document d WHERE d.reviewedBy = :adminId ORDER BY d.updatedAt DESC")
     List<Document> findDocumentsReviewedByAdmin(@Param("adminId") Long adminId);
 
     @Query("SELECT COUNT(d) FROM Document d WHERE d.status = :status")
     long countByStatus(@Param("status") Document.DocumentStatus status);
 
-    @Query("SELECT COUNT(d) FROM Document d WHERE d.autoApproved = :autoApproved")
-    long countByAutoApproved(@Param("autoApproved") Boolean autoApproved);
+    // Rows of [status, autoApproved, count] - all dashboard counters in one pass
+    @Query("SELECT d.status, d.autoApproved, COUNT(d) FROM Document d GROUP BY d.status, d.autoApproved")
+    List<Object[]> countGroupedByStatusAndAutoApproved();
 
     @Query("SELECT COUNT(d) FROM Document d WHERE d.type = :type AND d.status = 'APPROVED'")
     long countApprovedByType(@Param("type") Document.DocumentType type);
 
-    @Query("SELECT d FROM Document d WHERE d.status = 'PENDING' AND d.createdAt < :cutoffDate")
-    List<Document> findExpiredPendingDocuments(@Param("cutoffDate") LocalDateTime cutoffDate);
+    /**
+     * Next batch of PENDING documents created before :cutoffDate, after the keyset position
+     * (:afterCreatedAt, :afterId). Rows locked by another node's maintenance run are skipped.
+     */
+    @Query(value = "SELECT * FROM documents " +
+                   "WHERE status = 'PENDING' AND created_at < :cutoffDate " +
+                   "  AND (created_at, id) > (:afterCreatedAt, :afterId) " +
+                   "ORDER BY created_at, id " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Document> lockExpiredPendingDocuments(@Param("cutoffDate") LocalDateTime cutoffDate,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") Long afterId,
+                                               @Param("limit") int limit);
 
     boolean existsByUserIdAndTypeAndStatus(
             Long userId, 
@@ -65,8 +87,61 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
            "WHERE d.userId = :userId AND d.status = 'APPROVED'")
     boolean hasAnyApprovedDocument(@Param("userId") Long userId);
 
-    @Query("SELECT d FROM Document d WHERE d.ocrConfidence < :threshold AND d.status = 'PENDING'")
-    List<Document> findDocumentsWithLowConfidence(@Param("threshold") Double threshold);
+    @Query(SUMMARY_SELECT + "FROM Document d WHERE d.userId = :userId ORDER BY d.createdAt DESC")
+    List<DocumentSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Review queues, keyset-paginated on (createdAt, id) - served by idx_documents_status_created_id.
+    // The page size comes from the Pageable; its offset is always 0.
+    @Query(SUMMARY_SELECT + "FROM Document d WHERE d.status = :status ORDER BY d.createdAt, d.id")
+    List<DocumentSummary> findQueueFirstPage(@Param("status") Document.DocumentStatus status, Pageable page);
+
+    @Query(SUMMARY_SELECT + "FROM Document d WHERE d.status = :status " +
+           "AND (d.createdAt, d.id) > (:createdAt, :id) ORDER BY d.createdAt, d.id")
+    List<DocumentSummary> findQueuePageAfter(@Param("status") Document.DocumentStatus status,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Pageable page);
+
+    @Query(SUMMARY_SELECT + "FROM Document d WHERE d.status = 'PENDING' AND d.ocrConfidence < :threshold " +
+           "ORDER BY d.createdAt, d.id")
+    List<DocumentSummary> findLowConfidenceFirstPage(@Param("threshold") Double threshold, Pageable page);
+
+    @Query(SUMMARY_SELECT + "FROM Document d WHERE d.status = 'PENDING' AND d.ocrConfidence < :threshold " +
+           "AND (d.createdAt, d.id) > (:createdAt, :id) ORDER BY d.createdAt, d.id")
+    List<DocumentSummary> findLowConfidencePageAfter(@Param("threshold") Double threshold,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id, Pageable page);
+
+    // Bulk review: rows of [id, user_id, status, auto_approved], without loading the entities. The rows stay
+    // locked until commit, so the bulk UPDATE changes exactly the rows read here; id order avoids deadlocks.
+    @Query(value = "SELECT id, user_id, status, auto_approved FROM documents WHERE id IN (:ids) " +
+                   "ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockReviewStates(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Document d SET d.status = 'APPROVED', d.reviewedBy = :adminId, d.updatedAt = :now " +
+           "WHERE d.id IN :ids AND d.status <> 'APPROVED'")
+    int bulkApprove(@Param("ids") Collection<Long> ids, @Param("adminId") Long adminId,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Document d SET d.status = 'REJECTED', d.reviewedBy = :adminId, d.rejectionReason = :reason, " +
+           "d.updatedAt = :now WHERE d.id IN :ids AND d.status <> 'REJECTED'")
+    int bulkReject(@Param("ids") Collection<Long> ids, @Param("adminId") Long adminId,
+                   @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT d.userId FROM Document d WHERE d.userId IN :userIds AND d.status = 'APPROVED'")
+    List<Long> findUserIdsWithApprovedDocument(@Param("userIds") Collection<Long> userIds);
 
     List<Document> findByUserIdAndTypeAndFace(Long userId, Document.DocumentType type, Document.DocumentFace face);
+
+    boolean existsByUserIdAndTypeAndFace(Long userId, Document.DocumentType type, Document.DocumentFace face);
+
+    Optional<Document> findFirstByUserIdAndTypeAndFaceOrderByCreatedAtDesc(
+            Long userId, Document.DocumentType type, Document.DocumentFace face);
+
+    @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Document d " +
+           "WHERE d.imageKey = :imageKey OR d.originalImageKey = :imageKey")
+    boolean isImageReferenced(@Param("imageKey") String imageKey);
+
 } 
\ No newline at end of file
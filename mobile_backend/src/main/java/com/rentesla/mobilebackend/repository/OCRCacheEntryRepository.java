@@ -0,0 +1,62 @@
+package com.rentesla.mobilebackend.repository;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OCRCacheEntryRepository extends JpaRepository<OCRCacheEntry, Long> {
+
+    Optional<OCRCacheEntry> findByUserIdAndDocumentTypeAndContentHash(
+            Long userId,
+            Document.DocumentType documentType,
+            String contentHash
+    );
+
+    // A user only has a handful of entries per type, so near-duplicates are compared in memory
+    List<OCRCacheEntry> findByUserIdAndDocumentTypeAndPerceptualHashIsNotNull(
+            Long userId,
+            Document.DocumentType documentType
+    );
+
+    @Modifying
+    @Query("UPDATE OCRCacheEntry e SET e.hitCount = e.hitCount + 1, e.lastUsedAt = :usedAt WHERE e.id = :id")
+    int markUsed(@Param("id") Long id, @Param("usedAt") LocalDateTime usedAt);
+
+    /**
+     * Insert or refresh the entry for an image in one statement. Two nodes caching the same image
+     * at once both succeed instead of one failing on uk_ocr_result_cache_key, which would leave the
+     * surrounding transaction rollback-only. An existing perceptual hash is kept.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ocr_result_cache " +
+                   "(user_id, document_type, content_hash, perceptual_hash, result_json, last_used_at) " +
+                   "VALUES (:userId, :documentType, :contentHash, :perceptualHash, :resultJson, :usedAt) " +
+                   "ON CONFLICT (user_id, document_type, content_hash) DO UPDATE SET " +
+                   "  result_json = EXCLUDED.result_json, " +
+                   "  last_used_at = EXCLUDED.last_used_at, " +
+                   "  perceptual_hash = COALESCE(ocr_result_cache.perceptual_hash, EXCLUDED.perceptual_hash), " +
+                   "  updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("documentType") String documentType,
+               @Param("contentHash") String contentHash, @Param("perceptualHash") Long perceptualHash,
+               @Param("resultJson") String resultJson, @Param("usedAt") LocalDateTime usedAt);
+
+    @Modifying
+    @Query("DELETE FROM OCRCacheEntry e WHERE e.lastUsedAt < :cutoff")
+    int deleteUnusedSince(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query(value = "DELETE FROM ocr_result_cache WHERE id IN " +
+                   "(SELECT id FROM ocr_result_cache ORDER BY last_used_at ASC LIMIT :count)",
+           nativeQuery = true)
+    int deleteLeastRecentlyUsed(@Param("count") int count);
+}
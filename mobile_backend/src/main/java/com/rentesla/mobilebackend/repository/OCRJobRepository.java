@@ -0,0 +1,126 @@
+package com.rentesla.mobilebackend.repository;
+
+import com.rentesla.mobilebackend.entity.OCRJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OCRJobRepository extends JpaRepository<OCRJob, Long> {
+
+    Optional<OCRJob> findByDocumentId(Long documentId);
+
+    long countByStatus(OCRJob.JobStatus status);
+
+    /**
+     * Runnable jobs per priority class: [priority, count]
+     */
+    @Query(value = "SELECT priority, COUNT(*) FROM ocr_jobs " +
+                   "WHERE (status = 'QUEUED' AND next_attempt_at <= :now) " +
+                   "   OR (status = 'RUNNING' AND lease_expires_at < :now) " +
+                   "GROUP BY priority",
+           nativeQuery = true)
+    List<Object[]> countRunnableByPriority(@Param("now") LocalDateTime now);
+
+    /**
+     * Lock up to :limit runnable jobs of one priority class: queued jobs that are due, and running
+     * jobs whose lease has expired. Rows locked by another node are skipped, so nodes never claim
+     * the same job.
+     */
+    @Query(value = "SELECT * FROM ocr_jobs " +
+                   "WHERE priority = :priority " +
+                   "  AND ((status = 'QUEUED' AND next_attempt_at <= :now) " +
+                   "    OR (status = 'RUNNING' AND lease_expires_at < :now)) " +
+                   "ORDER BY next_attempt_at, id " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OCRJob> lockRunnableJobs(@Param("priority") String priority, @Param("now") LocalDateTime now,
+                                  @Param("limit") int limit);
+
+    /**
+     * Lock the job of one document if it is not being worked on: queued (also while backing off)
+     * or running under an expired lease
+     */
+    @Query(value = "SELECT * FROM ocr_jobs " +
+                   "WHERE document_id = :documentId " +
+                   "  AND (status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < :now)) " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<OCRJob> lockIdleJobOfDocument(@Param("documentId") Long documentId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.leaseExpiresAt = :leaseUntil, j.updatedAt = :now " +
+           "WHERE j.id IN :ids AND j.status = 'RUNNING' AND j.leaseOwner = :owner")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                    @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    boolean existsByIdAndStatusAndLeaseOwnerAndAttempts(Long id, OCRJob.JobStatus status, String leaseOwner,
+                                                          Integer attempts);
+
+    // The updates below only apply while the caller still holds the job under the attempt it
+    // claimed. 0 rows means the lease expired and the job was claimed again.
+
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.status = 'SUCCEEDED', j.leaseOwner = NULL, j.leaseExpiresAt = NULL, " +
+           "j.lastError = NULL, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner AND j.attempts = :attempt")
+    int completeHeld(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.status = 'DEAD', j.leaseOwner = NULL, j.leaseExpiresAt = NULL, " +
+           "j.lastError = :error, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner AND j.attempts = :attempt")
+    int deadLetterHeld(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+                       @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.status = 'QUEUED', j.nextAttemptAt = :nextAttemptAt, j.leaseOwner = NULL, " +
+           "j.leaseExpiresAt = NULL, j.lastError = :error, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner AND j.attempts = :attempt")
+    int retryHeld(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Put a held job back without counting the attempt
+     */
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.status = 'QUEUED', j.attempts = j.attempts - 1, j.nextAttemptAt = :nextAttemptAt, " +
+           "j.leaseOwner = NULL, j.leaseExpiresAt = NULL, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.leaseOwner = :owner AND j.attempts = :attempt")
+    int requeueHeld(@Param("id") Long id, @Param("owner") String owner, @Param("attempt") int attempt,
+                    @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.dispatchedAt = :now WHERE j.id IN :ids AND j.dispatchedAt IS NULL")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Hand back jobs this node held before a restart, so they run again right away
+     * instead of waiting for their lease to expire
+     */
+    @Modifying
+    @Query("UPDATE OCRJob j SET j.status = 'QUEUED', j.leaseOwner = NULL, j.leaseExpiresAt = NULL, " +
+           "j.nextAttemptAt = :now, j.updatedAt = :now " +
+           "WHERE j.status = 'RUNNING' AND j.leaseOwner = :owner")
+    int releaseLeasesOf(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Create jobs for PENDING documents that have none (uploaded before the job queue existed)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ocr_jobs (document_id, user_id, status, priority, attempts, next_attempt_at, queued_at, created_at, updated_at) " +
+                   "SELECT d.id, d.user_id, 'QUEUED', 'FIRST_SIGNUP', 0, :now, :now, :now, :now FROM documents d " +
+                   "WHERE d.status = 'PENDING' AND NOT EXISTS (SELECT 1 FROM ocr_jobs j WHERE j.document_id = d.id)",
+           nativeQuery = true)
+    int enqueueOrphanedPendingDocuments(@Param("now") LocalDateTime now);
+}
@@ -40,6 +40,10 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                               @Param("startDate") LocalDateTime startDate,
                               @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reservation r " +
+           "WHERE r.userId = :userId AND r.status IN ('PENDING', 'CONFIRMED', 'APPROVED', 'IN_PROGRESS')")
+    boolean hasOpenReservation(@Param("userId") Long userId);
+
     @Query("SELECT r FROM Reservation r WHERE r.status = 'PENDING' ORDER BY r.createdAt ASC")
     List<Reservation> findPendingReservations();
 
@@ -8,6 +8,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +35,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.documentVerified = :verified")
     List<User> findByDocumentVerified(@Param("verified") Boolean verified);
 
+    @Query("SELECT u.documentVerified FROM User u WHERE u.id = :id")
+    Optional<Boolean> findDocumentVerifiedById(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.documentVerified = true")
+    List<Long> findVerifiedIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id FROM User u WHERE u.verificationUpdatedAt > :since")
+    List<Long> findIdsWithVerificationChangedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Set documentVerified, stamping the change with the database clock so that every node compares
+     * it against the same clock. Admins keep their flag when it would be cleared.
+     */
+    @Modifying
+    @Query(value = "UPDATE users SET document_verified = :verified, verification_updated_at = LOCALTIMESTAMP " +
+                   "WHERE id IN (:ids) AND document_verified <> :verified AND (:verified OR role <> 'ADMIN')",
+           nativeQuery = true)
+    int updateDocumentVerified(@Param("ids") Collection<Long> ids, @Param("verified") boolean verified);
+
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentDatabaseTime();
+
     @Query("SELECT u FROM User u WHERE u.kvkkConsentGiven = :consent AND u.openConsentGiven = :consent")
     List<User> findByConsentStatus(@Param("consent") Boolean consent);
 
@@ -38,6 +38,11 @@ public interface VehicleRepository extends JpaRepository<Vehicle, String> {
            "LOWER(v.make) LIKE LOWER(CONCAT('%', :search, '%')))")
     List<Vehicle> searchAvailableVehicles(@Param("search") String search);
 
+    // Searchable text only, for loading the in-memory search index
+    @Query("SELECT v.uuid, v.displayName, v.model, v.make, v.color FROM Vehicle v " +
+           "WHERE v.isAvailable = true AND v.status = 'AVAILABLE'")
+    List<Object[]> findAvailableVehicleSearchFields();
+
     @Query("SELECT v FROM Vehicle v WHERE v.isAvailable = true AND v.status = 'AVAILABLE' AND " +
            "v.dailyRate BETWEEN :minRate AND :maxRate")
     List<Vehicle> findAvailableVehiclesByPriceRange(@Param("minRate") BigDecimal minRate, 
@@ -47,9 +52,29 @@ public interface VehicleRepository extends JpaRepository<Vehicle, String> {
            "v.isAvailable = true AND v.status = 'AVAILABLE'")
     List<Vehicle> findAvailableVehiclesWithLocation();
 
-    // PRD: Nearby vehicles search - Haversine formula for distance calculation
+    // Positions only (no QR image etc.), for loading the in-memory location index
+    @Query("SELECT v.uuid, v.locationLat, v.locationLng FROM Vehicle v WHERE v.locationLat IS NOT NULL " +
+           "AND v.locationLng IS NOT NULL AND v.isAvailable = true AND v.status = 'AVAILABLE'")
+    List<Object[]> findAvailableVehiclePositions();
+
+    // Cluster tiles before the in-memory index has loaded (range scan on idx_vehicles_available_location)
+    @Query("SELECT v.uuid, v.locationLat, v.locationLng FROM Vehicle v WHERE v.locationLat IS NOT NULL " +
+           "AND v.locationLng IS NOT NULL AND v.isAvailable = true AND v.status = 'AVAILABLE' " +
+           "AND v.locationLat BETWEEN :minLat AND :maxLat " +
+           "AND v.locationLng BETWEEN :minLng AND :maxLng")
+    List<Object[]> findAvailableVehiclePositionsInBounds(@Param("minLat") Double minLat,
+                                                         @Param("maxLat") Double maxLat,
+                                                         @Param("minLng") Double minLng,
+                                                         @Param("maxLng") Double maxLng);
+
+    // PRD: Nearby vehicles search - Haversine formula for distance calculation.
+    // Only used until the in-memory VehicleLocationIndex has loaded. The bounding box of the radius is
+    // checked first so idx_vehicles_available_location (V14) can be used; the exact distance is only
+    // computed for the rows inside it.
     @Query("SELECT v FROM Vehicle v WHERE v.locationLat IS NOT NULL AND v.locationLng IS NOT NULL " +
            "AND v.isAvailable = true AND v.status = 'AVAILABLE' " +
+           "AND v.locationLat BETWEEN :minLat AND :maxLat " +
+           "AND v.locationLng BETWEEN :minLng AND :maxLng " +
            "AND (6371 * acos(cos(radians(:lat)) * cos(radians(v.locationLat)) * " +
            "cos(radians(v.locationLng) - radians(:lng)) + sin(radians(:lat)) * " +
            "sin(radians(v.locationLat)))) <= :radiusKm " +
@@ -58,7 +83,11 @@ public interface VehicleRepository extends JpaRepository<Vehicle, String> {
            "sin(radians(v.locationLat))))")
     List<Vehicle> findNearbyVehicles(@Param("lat") Double latitude, 
                                     @Param("lng") Double longitude, 
-                                    @Param("radiusKm") Double radiusKm);
+                                    @Param("radiusKm") Double radiusKm,
+                                    @Param("minLat") Double minLat,
+                                    @Param("maxLat") Double maxLat,
+                                    @Param("minLng") Double minLng,
+                                    @Param("maxLng") Double maxLng);
 
     // Alternative nearby search with simpler approach for better performance
     @Query("SELECT v FROM Vehicle v WHERE v.locationLat IS NOT NULL AND v.locationLng IS NOT NULL " +
@@ -0,0 +1,61 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Deletes image blobs scheduled by DocumentStorageService.scheduleDelete() once no document
+ * references them. A blob stored within grace-minutes is left for a later sweep, so an upload
+ * of the same content that has stored its blob but not yet committed its document row never
+ * loses it. The grace period must be longer than any upload transaction.
+ */
+@Service
+public class DocumentBlobCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBlobCollector.class);
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Value("${app.storage.documents.gc.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Scheduled(fixedDelayString = "${app.storage.documents.gc.interval-ms:600000}",
+               initialDelayString = "${app.storage.documents.gc.interval-ms:600000}")
+    public void sweep() {
+        List<String> keys;
+        try {
+            keys = documentStorageService.listScheduledDeletes();
+        } catch (Exception e) {
+            logger.error("❌ Failed to list image blobs scheduled for deletion: {}", e.getMessage(), e);
+            return;
+        }
+
+        Duration gracePeriod = Duration.ofMinutes(graceMinutes);
+        int deleted = 0;
+        for (String key : keys) {
+            try {
+                if (documentStorageService.deleteIfIdle(key, gracePeriod, () -> documentRepository.isImageReferenced(key))) {
+                    deleted++;
+                }
+            } catch (Exception e) {
+                logger.warn("⚠️ Failed to collect image blob {}: {}", key, e.getMessage());
+            }
+        }
+
+        if (deleted > 0) {
+            logger.info("🧹 Image blob collection - Deleted: {}, Scheduled: {}", deleted, keys.size());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRJob;
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import com.rentesla.mobilebackend.repository.OCRJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Clean-up of PENDING documents that never got a decision.
+ * Each batch runs in its own transaction and locks its rows with FOR UPDATE SKIP LOCKED,
+ * so several nodes can run maintenance at the same time without touching the same document.
+ */
+@Service
+public class DocumentMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentMaintenanceService.class);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private OCRJobRepository ocrJobRepository;
+
+    @Autowired
+    private OCRJobService ocrJobService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    /**
+     * Handle one batch of PENDING documents created before staleBefore, starting after the cursor.
+     * Documents created before expireBefore are rejected as expired and their images freed;
+     * younger ones whose OCR job is gone or finished are queued again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BatchResult processBatch(LocalDateTime staleBefore, LocalDateTime expireBefore, String expiryReason,
+                                    LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<Document> documents = documentRepository.lockExpiredPendingDocuments(staleBefore, afterCreatedAt, afterId, limit);
+        BatchResult result = new BatchResult(documents.size());
+        Map<Long, List<Long>> expiredByUser = new LinkedHashMap<>();
+
+        for (Document document : documents) {
+            result.lastCreatedAt = document.getCreatedAt();
+            result.lastId = document.getId();
+
+            Optional<OCRJob> job = ocrJobRepository.findByDocumentId(document.getId());
+            if (document.getCreatedAt().isBefore(expireBefore)) {
+                expire(document, job, expiryReason);
+                expiredByUser.computeIfAbsent(document.getUserId(), userId -> new ArrayList<>()).add(document.getId());
+                result.expired++;
+            } else if (job.isEmpty() || isFinished(job.get())) {
+                // OCR will never run for it otherwise
+                ocrJobService.enqueue(document, OCRJob.JobPriority.FIRST_SIGNUP);
+                result.requeued++;
+            }
+        }
+
+        notifyExpiredAfterCommit(expiredByUser);
+        return result;
+    }
+
+    private void expire(Document document, Optional<OCRJob> job, String reason) {
+        documentService.releaseImageAfterCommit(document);
+
+        document.setStatus(Document.DocumentStatus.REJECTED);
+        document.setRejectionReason(reason);
+        document.setAutoApproved(false);
+        document.setImageKey(null);
+        document.setOriginalImageKey(null);
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+
+        job.filter(j -> !isFinished(j)).ifPresent(j -> {
+            j.setStatus(OCRJob.JobStatus.DEAD);
+            j.setLeaseOwner(null);
+            j.setLeaseExpiresAt(null);
+            j.setLastError(reason);
+            ocrJobRepository.save(j);
+        });
+    }
+
+    private static boolean isFinished(OCRJob job) {
+        return job.getStatus() == OCRJob.JobStatus.SUCCEEDED || job.getStatus() == OCRJob.JobStatus.DEAD;
+    }
+
+    /**
+     * One notification per user for all of their documents expired in this batch
+     */
+    private void notifyExpiredAfterCommit(Map<Long, List<Long>> expiredByUser) {
+        if (expiredByUser.isEmpty()) {
+            return;
+        }
+        Runnable notify = () -> expiredByUser.forEach((userId, documentIds) -> {
+            try {
+                notificationService.sendDocumentsReviewedNotification(userId, documentIds, Document.DocumentStatus.REJECTED);
+            } catch (Exception e) {
+                logger.warn("Failed to notify user {} about expired documents {}: {}", userId, documentIds, e.getMessage());
+            }
+        });
+
+        TransactionCallbacks.afterCommit(notify);
+    }
+
+    /**
+     * Outcome of one batch and the keyset position to continue from
+     */
+    public static class BatchResult {
+        private final int size;
+        private LocalDateTime lastCreatedAt;
+        private Long lastId;
+        private int expired;
+        private int requeued;
+
+        BatchResult(int size) {
+            this.size = size;
+        }
+
+        public int getSize() { return size; }
+        public LocalDateTime getLastCreatedAt() { return lastCreatedAt; }
+        public Long getLastId() { return lastId; }
+        public int getExpired() { return expired; }
+        public int getRequeued() { return requeued; }
+    }
+}
@@ -0,0 +1,82 @@
+package com.rentesla.mobilebackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodic maintenance of PENDING documents: walks the stale ones in (created_at, id) order,
+ * batch-size rows per transaction, and stops after max-batches-per-run so a large backlog is
+ * worked off over several runs instead of one long one.
+ */
+@Service
+public class DocumentMaintenanceWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentMaintenanceWorker.class);
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private DocumentMaintenanceService maintenanceService;
+
+    @Value("${app.documents.maintenance.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.documents.maintenance.stale-after-minutes:60}")
+    private long staleAfterMinutes;
+
+    @Value("${app.documents.maintenance.expire-after-hours:72}")
+    private long expireAfterHours;
+
+    @Value("${app.documents.maintenance.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.documents.maintenance.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${app.documents.maintenance.interval-ms:600000}",
+               initialDelayString = "${app.documents.maintenance.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(staleAfterMinutes);
+        LocalDateTime expireBefore = now.minusHours(expireAfterHours);
+        String expiryReason = "Expired: not processed within " + expireAfterHours + " hours";
+
+        LocalDateTime afterCreatedAt = KEYSET_START;
+        Long afterId = 0L;
+        int batches = 0;
+        int expired = 0;
+        int requeued = 0;
+
+        try {
+            while (batches < maxBatchesPerRun) {
+                DocumentMaintenanceService.BatchResult batch = maintenanceService.processBatch(
+                    staleBefore, expireBefore, expiryReason, afterCreatedAt, afterId, batchSize);
+                batches++;
+                expired += batch.getExpired();
+                requeued += batch.getRequeued();
+
+                if (batch.getSize() < batchSize) {
+                    break;
+                }
+                afterCreatedAt = batch.getLastCreatedAt();
+                afterId = batch.getLastId();
+            }
+        } catch (Exception e) {
+            logger.error("❌ Document maintenance run failed after {} batch(es): {}", batches, e.getMessage(), e);
+        }
+
+        if (expired > 0 || requeued > 0) {
+            logger.info("🧹 Document maintenance - Expired: {}, Re-queued: {}, Batches: {}", expired, requeued, batches);
+        }
+    }
+}
@@ -1,30 +1,45 @@
 package com.rentesla.mobilebackend.service;
 
+import com.rentesla.mobilebackend.dto.DocumentPage;
+import com.rentesla.mobilebackend.dto.DocumentSummary;
 import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRJob;
 import com.rentesla.mobilebackend.entity.User;
 import com.rentesla.mobilebackend.repository.DocumentRepository;
+import com.rentesla.mobilebackend.repository.ReservationRepository;
 import com.rentesla.mobilebackend.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Base64;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 @Transactional
@@ -32,18 +47,45 @@ public class DocumentService {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
 
+    // IDs per IN (...) list in bulk queries
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     @Autowired
     private DocumentRepository documentRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ReservationRepository reservationRepository;
+
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
     private GoogleCloudVisionOCRService ocrService;
 
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private OCRJobService ocrJobService;
+
+    @Autowired
+    private OCRResultCacheService ocrResultCacheService;
+
+    @Autowired
+    private ImagePreprocessingService imagePreprocessingService;
+
+    @Autowired
+    private DocumentThumbnailService documentThumbnailService;
+
+    @Autowired
+    private DocumentStatisticsService documentStatisticsService;
+
+    @Autowired
+    private UserVerificationService userVerificationService;
+
     @Value("${app.ocr.confidence.threshold:0.8}")
     private Double ocrConfidenceThreshold;
 
@@ -53,6 +95,9 @@ public class DocumentService {
     @Value("${app.ocr.timeout.seconds:30}")
     private int ocrTimeoutSeconds;
 
+    @Value("${app.documents.review.max-page-size:200}")
+    private int maxReviewPageSize;
+
     /**
      * Upload and process a document with OCR
      */
@@ -70,19 +115,40 @@ public class DocumentService {
             
             System.out.println("👤 User found: " + user.getEmail() + " (ID: " + user.getId() + ")");
             
-            // Convert file to base64
-            String base64Image = Base64.getEncoder().encodeToString(file.getBytes());
-            System.out.println("🔄 File converted to base64, length: " + base64Image.length() + " characters");
+            // Reject on the declared size before reading anything; store() enforces the limit again while streaming
+            if (file.getSize() > documentStorageService.getMaxUploadBytes()) {
+                throw new DocumentStorageService.BlobTooLargeException(documentStorageService.getMaxUploadBytes());
+            }
+            
+            // Validate type and face before anything is written to the blob store
+            Document.DocumentType docType = Document.DocumentType.valueOf(type.toUpperCase());
+            Document.DocumentFace docFace = Document.DocumentFace.valueOf(face.toUpperCase());
+            
+            // Stream file into the blob store (hash and size computed on the fly, never buffered in heap)
+            DocumentStorageService.StoredImage storedImage;
+            try (InputStream in = file.getInputStream()) {
+                storedImage = documentStorageService.store(in, file.getContentType());
+            }
+            releaseImagesUnlessCommitted(storedImage.getKey());
+            System.out.println("📦 File stored in blob storage, key: " + storedImage.getKey() + ", size: " + storedImage.getSize() + " bytes");
+            
+            // Rotate upright, downscale and recompress before OCR; unusable photos are refused here
+            ImagePreprocessingService.PreprocessedImage preprocessed = preprocessAndCheckQuality(storedImage);
+            storedImage = preprocessed.getImage();
+            releaseImagesUnlessCommitted(storedImage.getKey(), preprocessed.getOriginalKey());
             
             // Create document entity with PENDING status
             Document document = new Document();
             document.setUserId(userId);
-            document.setType(Document.DocumentType.valueOf(type.toUpperCase()));
-            document.setFace(Document.DocumentFace.valueOf(face.toUpperCase()));
-            document.setImageBase64(base64Image);
+            document.setType(docType);
+            document.setFace(docFace);
+            boolean replacesEarlierUpload = documentRepository.existsByUserIdAndTypeAndFace(
+                userId, document.getType(), document.getFace());
+            document.setImageKey(storedImage.getKey());
+            document.setOriginalImageKey(preprocessed.getOriginalKey());
             document.setFileName(file.getOriginalFilename());
-            document.setFileSize(file.getSize());
-            document.setFileType(file.getContentType());
+            document.setFileSize(storedImage.getSize());
+            document.setFileType(storedImage.getMimeType());
             document.setStatus(Document.DocumentStatus.PENDING); // Initially PENDING
             document.setAutoApproved(false);
             document.setCreatedAt(LocalDateTime.now());
@@ -98,7 +164,7 @@ public class DocumentService {
             
             // Start async OCR processing with delay
             System.out.println("🤖 Starting async OCR processing...");
-            processDocumentAsync(savedDocument, user);
+            processDocumentAsync(savedDocument, ocrPriorityFor(userId, replacesEarlierUpload));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -109,10 +175,34 @@ public class DocumentService {
             System.out.println("✅ Document upload completed successfully - Document ID: " + savedDocument.getId());
             return ResponseEntity.ok(response);
             
+        } catch (DocumentStorageService.BlobTooLargeException e) {
+            System.err.println("❌ Document upload rejected: " + e.getMessage());
+            
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Document upload failed: " + e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+            
+        } catch (ImageQualityAnalyzer.ImageRejectedException e) {
+            System.err.println("❌ Document upload rejected by quality check: " + e.getMessage());
+            
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("reasonCode", e.getReport().getIssue().name());
+            errorResponse.put("message", "Document upload failed: " + e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+            
         } catch (Exception e) {
             System.err.println("❌ Document upload failed: " + e.getMessage());
             e.printStackTrace();
             
+            // Nothing of a failed upload is kept: the row and job roll back, and with them the blobs are released
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
+            
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
             errorResponse.put("message", "Document upload failed: " + e.getMessage());
@@ -124,7 +214,7 @@ public class DocumentService {
     /**
      * Delete existing documents of same type and face for user
      */
-    private void deleteExistingDocuments(Long userId, Document.DocumentType type, Document.DocumentFace face) {
+    private boolean deleteExistingDocuments(Long userId, Document.DocumentType type, Document.DocumentFace face) {
         System.out.println("🗑️ Checking for existing documents - User: " + userId + ", Type: " + type + ", Face: " + face);
         
         try {
@@ -133,14 +223,25 @@ public class DocumentService {
             if (!existingDocs.isEmpty()) {
                 System.out.println("📄 Found " + existingDocs.size() + " existing documents to delete");
                 
+                boolean deletedApproved = false;
                 for (Document doc : existingDocs) {
                     System.out.println("   - Deleting document: " + doc.getId());
+                    deletedApproved |= doc.getStatus() == Document.DocumentStatus.APPROVED;
                     documentRepository.delete(doc);
+                    releaseImageAfterCommit(doc);
+                }
+                
+                // Replacing an approved document may revoke verification until the new one is reviewed
+                if (deletedApproved) {
+                    documentRepository.flush();
+                    updateUserVerificationStatus(userId);
                 }
                 
                 System.out.println("✅ Existing documents deleted successfully");
+                return true;
             } else {
                 System.out.println("ℹ️ No existing documents found");
+                return false;
             }
             
         } catch (Exception e) {
@@ -165,20 +266,35 @@ public class DocumentService {
             
             System.out.println("👤 User found: " + user.getEmail() + " (ID: " + user.getId() + ")");
             
-            // Delete existing documents of same type and face
             Document.DocumentType docType = Document.DocumentType.valueOf(type.toUpperCase());
             Document.DocumentFace docFace = Document.DocumentFace.valueOf(face.toUpperCase());
-            deleteExistingDocuments(userId, docType, docFace);
+            
+            // Decode base64 payload straight into the blob store
+            DocumentStorageService.StoredImage storedImage;
+            try {
+                storedImage = documentStorageService.storeBase64(base64Image);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store document image: " + e.getMessage(), e);
+            }
+            
+            // Rotate upright, downscale and recompress before OCR; unusable photos are refused
+            // before the previous upload is replaced
+            ImagePreprocessingService.PreprocessedImage preprocessed = preprocessAndCheckQuality(storedImage);
+            storedImage = preprocessed.getImage();
+            
+            // Delete existing documents of same type and face
+            boolean replacesEarlierUpload = deleteExistingDocuments(userId, docType, docFace);
             
             // Create document entity with PENDING status
             Document document = new Document();
             document.setUserId(userId);
             document.setType(docType);
             document.setFace(docFace);
-            document.setImageBase64(base64Image);
+            document.setImageKey(storedImage.getKey());
+            document.setOriginalImageKey(preprocessed.getOriginalKey());
             document.setFileName(fileName);
-            document.setFileSize((long) base64Image.length());
-            document.setFileType("image/jpeg"); // Assuming JPEG for mobile uploads
+            document.setFileSize(storedImage.getSize());
+            document.setFileType(storedImage.getMimeType());
             document.setStatus(Document.DocumentStatus.PENDING);
             document.setAutoApproved(false);
             document.setCreatedAt(LocalDateTime.now());
@@ -194,7 +310,7 @@ public class DocumentService {
             
             // Start async OCR processing
             System.out.println("🤖 Starting async OCR processing...");
-            processDocumentAsync(savedDocument, user);
+            processDocumentAsync(savedDocument, ocrPriorityFor(userId, replacesEarlierUpload));
             
             return savedDocument;
             
@@ -205,44 +321,136 @@ public class DocumentService {
         }
     }
 
-    // Async OCR processing method
-    private void processDocumentAsync(Document document, User user) {
-        // Use a separate thread for real OCR processing with timeout
-        CompletableFuture.runAsync(() -> {
-            try {
-                System.out.println("⏱️ Starting real OCR processing for document ID: " + document.getId());
-                System.out.println("🔍 Processing document type: " + document.getType() + ", face: " + document.getFace());
-                System.out.println("⏰ OCR timeout set to: " + ocrTimeoutSeconds + " seconds");
-                
-                // Record processing start time
-                long startTime = System.currentTimeMillis();
-                
-                // Create executor with timeout for OCR processing
-                ExecutorService executor = Executors.newSingleThreadExecutor();
-                Future<GoogleCloudVisionOCRService.OCRResult> future = executor.submit(() -> {
-                    try {
-                        return ocrService.processDocument(document, user);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-                
-                GoogleCloudVisionOCRService.OCRResult ocrResult;
-                try {
-                    // Wait for OCR result with timeout
-                    ocrResult = future.get(ocrTimeoutSeconds, TimeUnit.SECONDS);
-                } catch (TimeoutException e) {
-                    System.err.println("⏰ OCR processing timeout after " + ocrTimeoutSeconds + " seconds for document: " + document.getId());
-                    future.cancel(true);
-                    throw new GoogleCloudVisionOCRService.OCRTimeoutException("OCR processing timeout after " + ocrTimeoutSeconds + " seconds");
-                } finally {
-                    executor.shutdownNow();
-                }
-                
-                long processingTime = System.currentTimeMillis() - startTime;
-                System.out.println("⚡ OCR processing completed in " + processingTime + "ms for document: " + document.getId());
-                
-                // Update document with OCR results
+    /**
+     * Pre-process a stored upload and apply the quality gate; a refused photo is removed
+     * from the blob store and reported with ImageRejectedException
+     */
+    private ImagePreprocessingService.PreprocessedImage preprocessAndCheckQuality(DocumentStorageService.StoredImage storedImage) {
+        ImagePreprocessingService.PreprocessedImage preprocessed = imagePreprocessingService.preprocess(storedImage);
+        ImageQualityAnalyzer.QualityReport quality = preprocessed.getQuality();
+        if (quality != null && !quality.isAcceptable()) {
+            imagePreprocessingService.discard(preprocessed);
+            throw new ImageQualityAnalyzer.ImageRejectedException(quality);
+        }
+        return preprocessed;
+    }
+
+    // Queue OCR processing for a document
+    private void processDocumentAsync(Document document, OCRJob.JobPriority priority) {
+        System.out.println("⏱️ Queueing OCR processing for document ID: " + document.getId());
+        System.out.println("🔍 Processing document type: " + document.getType() + ", face: " + document.getFace());
+        
+        // Durable job: committed together with the document, picked up by OCRJobWorker on any node.
+        // Re-uploaded images are answered from the OCR result cache there too, so the worker can
+        // still pair the face with the other one and decide both at once.
+        ocrJobService.enqueue(document, priority);
+    }
+
+    /**
+     * OCR scheduling class for an upload: users with an open reservation go first
+     */
+    private OCRJob.JobPriority ocrPriorityFor(Long userId, boolean replacesEarlierUpload) {
+        if (reservationRepository.hasOpenReservation(userId)) {
+            return OCRJob.JobPriority.ACTIVE_RESERVATION;
+        }
+        return replacesEarlierUpload ? OCRJob.JobPriority.REUPLOAD : OCRJob.JobPriority.FIRST_SIGNUP;
+    }
+
+    /**
+     * Admin: run OCR on a document again. The document goes back to PENDING and is queued in
+     * the ADMIN_RERUN class; the OCR result cache is bypassed.
+     */
+    public Document rerunOCR(Long documentId, Long adminId) {
+        Document document = documentRepository.findById(documentId)
+            .orElseThrow(() -> new RuntimeException("Document not found"));
+
+        document.setStatus(Document.DocumentStatus.PENDING);
+        document.setAutoApproved(false);
+        document.setReviewedBy(adminId);
+        document.setRejectionReason(null);
+        document = documentRepository.save(document);
+
+        // A re-run of an approved document may revoke verification until it is decided again
+        updateUserVerificationStatus(document.getUserId());
+
+        ocrJobService.enqueue(document, OCRJob.JobPriority.ADMIN_RERUN);
+        logger.info("🔁 OCR re-run for document {} requested by admin {}", documentId, adminId);
+        return document;
+    }
+
+    /**
+     * Earlier OCR result for the same image of the same user; a cache failure counts as a miss
+     */
+    Optional<GoogleCloudVisionOCRService.OCRResult> findCachedOCRResult(Document document) {
+        try {
+            return ocrResultCacheService.lookup(document);
+        } catch (Exception e) {
+            logger.warn("OCR cache lookup failed for document {}: {}", document.getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * OCR finished for a queued job (one document, or the front and back of one document).
+     * A pair's merged result is parsed from both images, so it is never cached; each face is
+     * cached with the result parsed from its own image when the provider returned one.
+     */
+    void onOCRSucceeded(List<Document> documents, User user, GoogleCloudVisionOCRService.OCRResult ocrResult) {
+        if (documents.size() == 1) {
+            cacheOCRResult(documents.get(0), ocrResult);
+        } else if (ocrResult.getFaceResults() != null && ocrResult.getFaceResults().size() == documents.size()) {
+            for (int i = 0; i < documents.size(); i++) {
+                cacheOCRResult(documents.get(i), ocrResult.getFaceResults().get(i));
+            }
+        }
+        completeOCR(documents, user, ocrResult);
+    }
+
+    /**
+     * A queued job was answered from the OCR result cache
+     */
+    void onCachedOCRResult(Document document, User user, GoogleCloudVisionOCRService.OCRResult ocrResult) {
+        System.out.println("♻️ Reusing cached OCR result for document: " + document.getId());
+        completeOCR(document, user, ocrResult);
+    }
+
+    /**
+     * OCR job failed its last allowed attempt
+     */
+    void onOCRGaveUp(Document document, User user, Throwable error) {
+        if (error instanceof GoogleCloudVisionOCRService.OCRTimeoutException) {
+            handleOCRTimeout(document, user);
+        } else {
+            handleOCRFailure(document, user, error);
+        }
+    }
+
+    /**
+     * Cache a fresh OCR result; a cache failure must not fail the document
+     */
+    private void cacheOCRResult(Document document, GoogleCloudVisionOCRService.OCRResult ocrResult) {
+        try {
+            ocrResultCacheService.store(document, ocrResult);
+        } catch (Exception e) {
+            logger.warn("Failed to cache OCR result for document {}: {}", document.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply OCR results to a document and run automatic verification
+     */
+    private void completeOCR(Document document, User user, GoogleCloudVisionOCRService.OCRResult ocrResult) {
+        completeOCR(List.of(document), user, ocrResult);
+    }
+
+    /**
+     * Apply one OCR result to the faces of a document and make a single verification decision for all of them
+     */
+    private void completeOCR(List<Document> documents, User user, GoogleCloudVisionOCRService.OCRResult ocrResult) {
+        Document primary = documents.get(0);
+        try {
+            // Update documents with OCR results
+            for (Document document : documents) {
                 document.setExtractedName(ocrResult.getFirstName());
                 document.setExtractedSurname(ocrResult.getLastName());
                 document.setExtractedIdNumber(ocrResult.getIdentityNumber());
@@ -250,83 +458,130 @@ public class DocumentService {
                 document.setExtractedExpiryDate(ocrResult.getExpiryDate());
                 document.setExtractedLicenseNumber(ocrResult.getLicenseNumber());
                 document.setOcrConfidence(ocrResult.getConfidence());
-                
-                System.out.println("📊 OCR results: Confidence: " + String.format("%.3f", ocrResult.getConfidence()) + 
-                    ", Identity: " + ocrResult.getIdentityNumber() + ", Name: " + ocrResult.getFirstName() + " " + ocrResult.getLastName());
-                
-                // Perform automatic verification
-                System.out.println("🎯 Starting automatic verification process...");
-                boolean isVerified = performAutomaticVerification(document, user);
-                
-                if (isVerified && document.getOcrConfidence() >= ocrConfidenceThreshold) {
+            }
+            
+            System.out.println("📊 OCR results: Confidence: " + String.format("%.3f", ocrResult.getConfidence()) + 
+                ", Identity: " + ocrResult.getIdentityNumber() + ", Name: " + ocrResult.getFirstName() + " " + ocrResult.getLastName() +
+                (documents.size() > 1 ? " (" + documents.size() + " faces)" : ""));
+            
+            // Perform automatic verification
+            System.out.println("🎯 Starting automatic verification process...");
+            boolean isVerified = performAutomaticVerification(primary, user);
+            
+            if (isVerified && primary.getOcrConfidence() >= ocrConfidenceThreshold) {
+                for (Document document : documents) {
                     document.setStatus(Document.DocumentStatus.APPROVED);
                     document.setAutoApproved(true);
-                    System.out.println("✅ Document auto-approved!");
+                    document.setUpdatedAt(LocalDateTime.now());
+                    documentRepository.save(document);
                     logger.info("Document {} automatically approved after OCR verification", document.getId());
-                    
-                    // Update user verification status
-                    updateUserVerificationStatus(document.getUserId());
-                    
-                    // Send success notification to user
+                }
+                System.out.println("✅ Document auto-approved!");
+                
+                // Update user verification status
+                updateUserVerificationStatus(primary.getUserId());
+                
+                // Send success notification to user
+                for (Document document : documents) {
                     notificationService.sendDocumentApprovedNotification(user.getId(), document.getId(), true, null);
-                    
-                } else {
+                }
+                
+            } else {
+                for (Document document : documents) {
                     document.setStatus(Document.DocumentStatus.NEEDS_REVIEW);
                     document.setAutoApproved(false);
-                    System.out.println("⚠️ Document requires manual review");
+                    document.setRejectionReason(primary.getRejectionReason());
+                    document.setUpdatedAt(LocalDateTime.now());
+                    documentRepository.save(document);
                     logger.info("Document {} requires manual review", document.getId());
-                    
-                    // Send admin notification for manual review
-                    sendAdminNotificationForManualReview(document, user, "Automatic verification failed");
-                    
-                    // Send user notification about manual review
-                    notificationService.sendDocumentNeedsReviewToUser(user.getId(), document.getId());
                 }
+                System.out.println("⚠️ Document requires manual review");
                 
-                document.setUpdatedAt(LocalDateTime.now());
-                documentRepository.save(document);
-                
-                System.out.println("✨ OCR processing completed for document ID: " + document.getId());
-                
-            } catch (GoogleCloudVisionOCRService.OCRTimeoutException e) {
-                System.err.println("⏰ OCR processing timeout for document ID: " + document.getId());
-                System.err.println("❌ Timeout after " + ocrTimeoutSeconds + " seconds");
-                
-                // Mark document for manual review due to timeout
-                document.setStatus(Document.DocumentStatus.NEEDS_REVIEW);
-                document.setRejectionReason("OCR processing timeout after " + ocrTimeoutSeconds + " seconds");
-                document.setAutoApproved(false);
-                document.setOcrConfidence(0.0);
-                document.setUpdatedAt(LocalDateTime.now());
-                documentRepository.save(document);
-                
-                // Send admin notification for timeout
-                sendAdminNotificationForManualReview(document, user, "OCR processing timeout (" + ocrTimeoutSeconds + "s)");
-                
-                // Notify user about manual review
-                notificationService.sendDocumentNeedsReviewToUser(user.getId(), document.getId());
+                // Send admin notification for manual review (once for both faces)
+                sendAdminNotificationForManualReview(primary, user, documents.size() > 1
+                    ? "Automatic verification failed (front and back)"
+                    : "Automatic verification failed");
                 
-                logger.error("OCR timeout for document {}: Manual review required", document.getId());
-                
-            } catch (Exception e) {
-                System.err.println("💥 OCR processing failed for document ID: " + document.getId());
-                System.err.println("❌ Error: " + e.getMessage());
-                e.printStackTrace();
-                
-                // Mark document as failed
-                document.setStatus(Document.DocumentStatus.REJECTED);
-                document.setRejectionReason("OCR processing failed: " + e.getMessage());
-                document.setAutoApproved(false);
-                document.setOcrConfidence(0.0);
-                document.setUpdatedAt(LocalDateTime.now());
-                documentRepository.save(document);
-                
-                // Notify user about failure
-                notificationService.sendDocumentRejectedNotification(user.getId(), document.getId(), "OCR processing failed");
-                
-                logger.error("OCR processing error for document {}: {}", document.getId(), e.getMessage());
+                // Send user notification about manual review
+                for (Document document : documents) {
+                    notificationService.sendDocumentNeedsReviewToUser(user.getId(), document.getId());
+                }
             }
-        });
+            
+            System.out.println("✨ OCR processing completed for document ID(s): " +
+                documents.stream().map(Document::getId).toList());
+            
+        } catch (Exception e) {
+            for (Document document : documents) {
+                handleOCRFailure(document, user, e);
+            }
+        }
+    }
+
+    /**
+     * OCR did not finish in time - send the document to manual review
+     */
+    private void handleOCRTimeout(Document document, User user) {
+        System.err.println("⏰ OCR processing timeout for document ID: " + document.getId());
+        System.err.println("❌ Timeout after " + ocrTimeoutSeconds + " seconds");
+        
+        // Mark document for manual review due to timeout
+        document.setStatus(Document.DocumentStatus.NEEDS_REVIEW);
+        document.setRejectionReason("OCR processing timeout after " + ocrTimeoutSeconds + " seconds");
+        document.setAutoApproved(false);
+        document.setOcrConfidence(0.0);
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+        
+        // Send admin notification for timeout
+        sendAdminNotificationForManualReview(document, user, "OCR processing timeout (" + ocrTimeoutSeconds + "s)");
+        
+        // Notify user about manual review
+        notificationService.sendDocumentNeedsReviewToUser(user.getId(), document.getId());
+        
+        logger.error("OCR timeout for document {}: Manual review required", document.getId());
+    }
+
+    /**
+     * OCR job was dead-lettered without a result (e.g. its node kept dying) - send the document to manual review.
+     * Always committed on its own: the worker may call this outside any transaction or after one has completed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void handleOCRDeadLetter(Document document, User user, String reason) {
+        System.err.println("☠️ OCR job dead-lettered, document " + document.getId() + " sent to manual review");
+        
+        document.setStatus(Document.DocumentStatus.NEEDS_REVIEW);
+        document.setRejectionReason("OCR not performed: " + reason);
+        document.setAutoApproved(false);
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+        
+        sendAdminNotificationForManualReview(document, user, "OCR job dead-lettered");
+        notificationService.sendDocumentNeedsReviewToUser(user.getId(), document.getId());
+        
+        logger.warn("OCR dead-lettered for document {}: {}", document.getId(), reason);
+    }
+
+    /**
+     * OCR failed with an error - reject the document
+     */
+    private void handleOCRFailure(Document document, User user, Throwable error) {
+        System.err.println("💥 OCR processing failed for document ID: " + document.getId());
+        System.err.println("❌ Error: " + error.getMessage());
+        error.printStackTrace();
+        
+        // Mark document as failed
+        document.setStatus(Document.DocumentStatus.REJECTED);
+        document.setRejectionReason("OCR processing failed: " + error.getMessage());
+        document.setAutoApproved(false);
+        document.setOcrConfidence(0.0);
+        document.setUpdatedAt(LocalDateTime.now());
+        documentRepository.save(document);
+        
+        // Notify user about failure
+        notificationService.sendDocumentRejectedNotification(user.getId(), document.getId(), "OCR processing failed");
+        
+        logger.error("OCR processing error for document {}: {}", document.getId(), error.getMessage());
     }
 
     /**
@@ -448,71 +703,7 @@ public class DocumentService {
      * Check if extracted name matches user's registered name (case insensitive, fuzzy)
      */
     private boolean isNameMatch(String extractedName, String registeredName) {
-        if (extractedName == null || registeredName == null) {
-            return false;
-        }
-        
-        String cleaned1 = cleanName(extractedName);
-        String cleaned2 = cleanName(registeredName);
-        
-        // Exact match after cleaning
-        if (cleaned1.equals(cleaned2)) {
-            return true;
-        }
-        
-        // Check if one contains the other (for compound names)
-        if (cleaned1.contains(cleaned2) || cleaned2.contains(cleaned1)) {
-            return true;
-        }
-        
-        // Simple fuzzy matching using Levenshtein-like logic
-        return calculateSimilarity(cleaned1, cleaned2) > 0.8; // 80% similarity threshold
-    }
-    
-    /**
-     * Clean name for comparison (remove special chars, normalize case)
-     */
-    private String cleanName(String name) {
-        return name.toUpperCase()
-                  .replaceAll("[ÇçĞğIıİiÖöŞşÜü]", "")  // Remove Turkish chars for fuzzy matching
-                  .replaceAll("[^A-Z ]", "")  // Keep only letters and spaces
-                  .replaceAll("\\s+", " ")    // Normalize spaces
-                  .trim();
-    }
-    
-    /**
-     * Calculate similarity between two strings (0.0 to 1.0)
-     */
-    private double calculateSimilarity(String s1, String s2) {
-        int maxLength = Math.max(s1.length(), s2.length());
-        if (maxLength == 0) return 1.0;
-        
-        return (maxLength - levenshteinDistance(s1, s2)) / (double) maxLength;
-    }
-    
-    /**
-     * Calculate Levenshtein distance between two strings
-     */
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = Math.min(Math.min(
-                        dp[i - 1][j] + 1,
-                        dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1)
-                    );
-                }
-            }
-        }
-        
-        return dp[s1.length()][s2.length()];
+        return NameMatcher.matches(extractedName, registeredName);
     }
 
     /**
@@ -665,13 +856,13 @@ public class DocumentService {
         
         if (status == Document.DocumentStatus.REJECTED) {
             document.setRejectionReason(reason);
-        } else if (status == Document.DocumentStatus.APPROVED) {
-            // Update user verification status
-            updateUserVerificationStatus(document.getUserId());
         }
 
         document = documentRepository.save(document);
 
+        // Update user verification status (rejecting an approved document can revoke it)
+        updateUserVerificationStatus(document.getUserId());
+
         // Send notification to user
         notificationService.sendDocumentReviewedNotification(document.getUserId(), document.getId(), status);
 
@@ -682,55 +873,46 @@ public class DocumentService {
      * Update user verification status based on approved documents
      */
     private void updateUserVerificationStatus(Long userId) {
-        boolean hasApprovedDriverLicense = documentRepository.hasApprovedDocument(userId, Document.DocumentType.DRIVING_LICENSE);
-        boolean hasApprovedIdentity = documentRepository.hasApprovedDocument(userId, Document.DocumentType.IDENTITY_CARD) ||
-                                     documentRepository.hasApprovedDocument(userId, Document.DocumentType.PASSPORT);
-
-        // Business Logic:
-        // - If driving license is approved → user is verified (identity card is optional)
-        // - If no driving license → identity card OR passport is required
-        boolean isVerified = hasApprovedDriverLicense || hasApprovedIdentity;
-
-        if (isVerified) {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user != null && !user.getDocumentVerified()) {
-                user.setDocumentVerified(true);
-                userRepository.save(user);
-                
-                // Send verification complete notification
-                notificationService.sendVerificationCompleteNotification(userId);
-                
-                logger.info("User {} verification completed. Driver License: {}, Identity: {}", 
-                    userId, hasApprovedDriverLicense, hasApprovedIdentity);
-            }
+        if (userVerificationService.refresh(List.of(userId)).contains(userId)) {
+            // Send verification complete notification
+            notificationService.sendVerificationCompleteNotification(userId);
+            logger.info("User {} verification completed", userId);
         }
     }
 
     /**
-     * Get user documents
+     * Get user documents for listing: no entities, no full images, just a cached thumbnail each
      */
     @Transactional(readOnly = true)
-    public List<Document> getUserDocuments(Long userId) {
+    public List<DocumentSummary> getUserDocuments(Long userId) {
         logger.info("📋 Getting documents for user: {}", userId);
-        List<Document> documents = documentRepository.findByUserId(userId);
+        List<DocumentSummary> documents = documentRepository.findSummariesByUserId(userId);
         
-        logger.info("📄 Found {} documents for user {}", documents.size(), userId);
-        for (Document doc : documents) {
-            boolean hasImage = doc.getImageBase64() != null && !doc.getImageBase64().isEmpty();
-            int imageLength = hasImage ? doc.getImageBase64().length() : 0;
-            logger.info("   - Document {}: Type={}, Face={}, Status={}, HasImage={}, ImageLength={}", 
-                doc.getId(), doc.getType(), doc.getFace(), doc.getStatus(), hasImage, imageLength);
+        for (DocumentSummary doc : documents) {
+            doc.setThumbnailBase64(documentThumbnailService.getThumbnailBase64(doc.getImageKey()));
         }
         
+        logger.info("📄 Found {} documents for user {}", documents.size(), userId);
         return documents;
     }
 
     /**
-     * Get documents pending review
+     * Full image of a document as a file resource, or null when it has no image in storage
      */
     @Transactional(readOnly = true)
-    public List<Document> getPendingDocuments() {
-        return documentRepository.findPendingDocumentsForReview();
+    public Resource getImageResource(Document document) {
+        if (document.getImageKey() == null || !documentStorageService.exists(document.getImageKey())) {
+            return null;
+        }
+        return new FileSystemResource(documentStorageService.resolve(document.getImageKey()));
+    }
+
+    /**
+     * Get documents pending review, oldest first
+     */
+    @Transactional(readOnly = true)
+    public DocumentPage getPendingDocuments(String cursor, int limit) {
+        return getReviewQueuePage(Document.DocumentStatus.PENDING, cursor, limit);
     }
 
     /**
@@ -746,22 +928,22 @@ public class DocumentService {
      */
     @Transactional(readOnly = true)
     public boolean isUserFullyVerified(Long userId) {
-        boolean hasApprovedDriverLicense = documentRepository.hasApprovedDocument(userId, Document.DocumentType.DRIVING_LICENSE);
-        boolean hasApprovedIdentity = documentRepository.hasApprovedDocument(userId, Document.DocumentType.IDENTITY_CARD) ||
-                                     documentRepository.hasApprovedDocument(userId, Document.DocumentType.PASSPORT);
-        
         // Business Logic:
         // - If driving license is approved → user is verified (identity card is optional)
         // - If no driving license → identity card OR passport is required
-        return hasApprovedDriverLicense || hasApprovedIdentity;
+        // Kept in users.document_verified by updateUserVerificationStatus and served from cache
+        return userVerificationService.isVerified(userId);
     }
 
     /**
      * Get documents with low OCR confidence for review
      */
     @Transactional(readOnly = true)
-    public List<Document> getDocumentsWithLowConfidence() {
-        return documentRepository.findDocumentsWithLowConfidence(ocrConfidenceThreshold);
+    public DocumentPage getDocumentsWithLowConfidence(String cursor, int limit) {
+        return toPage(cursor, limit,
+            page -> documentRepository.findLowConfidenceFirstPage(ocrConfidenceThreshold, page),
+            (after, page) -> documentRepository.findLowConfidencePageAfter(
+                ocrConfidenceThreshold, after.getCreatedAt(), after.getId(), page));
     }
 
     // === ADMIN METHODS ===
@@ -770,33 +952,45 @@ public class DocumentService {
      * Get documents that need manual review (failed automatic verification)
      */
     @Transactional(readOnly = true)
-    public List<Document> getDocumentsNeedingReview() {
-        return documentRepository.findByStatus(Document.DocumentStatus.NEEDS_REVIEW);
+    public DocumentPage getDocumentsNeedingReview(String cursor, int limit) {
+        return getReviewQueuePage(Document.DocumentStatus.NEEDS_REVIEW, cursor, limit);
+    }
+
+    private DocumentPage getReviewQueuePage(Document.DocumentStatus status, String cursor, int limit) {
+        return toPage(cursor, limit,
+            page -> documentRepository.findQueueFirstPage(status, page),
+            (after, page) -> documentRepository.findQueuePageAfter(status, after.getCreatedAt(), after.getId(), page));
     }
 
     /**
-     * Get document processing statistics for admin dashboard
+     * Run a keyset query for one page. One extra row is fetched to know whether another page follows;
+     * an invalid cursor throws IllegalArgumentException.
      */
-    @Transactional(readOnly = true)
+    private DocumentPage toPage(String cursor, int limit,
+                                Function<Pageable, List<DocumentSummary>> firstPage,
+                                BiFunction<DocumentPage.Cursor, Pageable, List<DocumentSummary>> pageAfter) {
+        int pageSize = Math.max(1, Math.min(limit, maxReviewPageSize));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<DocumentSummary> rows = cursor == null || cursor.isBlank()
+            ? firstPage.apply(page)
+            : pageAfter.apply(DocumentPage.Cursor.decode(cursor), page);
+
+        if (rows.size() <= pageSize) {
+            return new DocumentPage(rows, null);
+        }
+
+        List<DocumentSummary> items = new ArrayList<>(rows.subList(0, pageSize));
+        DocumentSummary last = items.get(pageSize - 1);
+        return new DocumentPage(items, new DocumentPage.Cursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Get document processing statistics for admin dashboard (served from memory, no transaction needed)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public DocumentStatsResponse getDocumentStatistics() {
-        long totalDocuments = documentRepository.count();
-        long pendingDocuments = documentRepository.countByStatus(Document.DocumentStatus.PENDING);
-        long approvedDocuments = documentRepository.countByStatus(Document.DocumentStatus.APPROVED);
-        long rejectedDocuments = documentRepository.countByStatus(Document.DocumentStatus.REJECTED);
-        long needsReviewDocuments = documentRepository.countByStatus(Document.DocumentStatus.NEEDS_REVIEW);
-        
-        long autoApprovedCount = documentRepository.countByAutoApproved(true);
-        long manuallyReviewedCount = documentRepository.countByAutoApproved(false);
-        
-        return new DocumentStatsResponse(
-            totalDocuments,
-            pendingDocuments,
-            approvedDocuments,
-            rejectedDocuments,
-            needsReviewDocuments,
-            autoApprovedCount,
-            manuallyReviewedCount
-        );
+        return documentStatisticsService.getStatistics();
     }
 
     /**
@@ -820,18 +1014,79 @@ public class DocumentService {
                 throw new IllegalArgumentException("Invalid action: " + action);
         }
         
+        // Current state of every requested document in one query, locked so that a concurrent
+        // review cannot change it between this read and the UPDATE below
+        Set<Long> requestedIds = new LinkedHashSet<>(documentIds);
+        requestedIds.remove(null);
+        Map<Long, Object[]> states = new HashMap<>();
+        for (List<Long> chunk : chunks(new TreeSet<>(requestedIds))) {
+            for (Object[] row : documentRepository.lockReviewStates(chunk)) {
+                Long documentId = ((Number) row[0]).longValue();
+                states.put(documentId, new Object[]{
+                    documentId, ((Number) row[1]).longValue(), Document.DocumentStatus.valueOf((String) row[2]), row[3]});
+            }
+        }
+        
+        Map<Long, BulkActionResult> results = new HashMap<>();
+        List<Long> toUpdate = new ArrayList<>();
+        for (Long documentId : requestedIds) {
+            Object[] state = states.get(documentId);
+            if (state == null) {
+                results.put(documentId, new BulkActionResult(documentId, BulkActionResult.Outcome.NOT_FOUND, "Document not found"));
+            } else if (state[2] == targetStatus) {
+                results.put(documentId, new BulkActionResult(documentId, BulkActionResult.Outcome.UNCHANGED, "Already " + targetStatus));
+            } else {
+                toUpdate.add(documentId);
+            }
+        }
+        
+        // One UPDATE per chunk instead of a load and save per document
+        LocalDateTime now = LocalDateTime.now();
+        int updatedRows = 0;
+        for (List<Long> chunk : chunks(toUpdate)) {
+            updatedRows += targetStatus == Document.DocumentStatus.APPROVED
+                ? documentRepository.bulkApprove(chunk, adminId, now)
+                : documentRepository.bulkReject(chunk, adminId, reason, now);
+        }
+        if (updatedRows != toUpdate.size()) {
+            // Cannot happen while the rows are locked; roll back rather than report changes that were not made
+            throw new IllegalStateException("Bulk " + action + ": expected " + toUpdate.size()
+                + " rows to change, updated " + updatedRows);
+        }
+        
+        // Bulk UPDATE bypasses the entity listener, so report the transitions to the statistics directly
+        Map<Long, List<Long>> documentsByUser = new LinkedHashMap<>();
+        for (Long documentId : toUpdate) {
+            Object[] state = states.get(documentId);
+            Long userId = (Long) state[1];
+            documentStatisticsService.recordChange(
+                (Document.DocumentStatus) state[2], (Boolean) state[3], targetStatus, (Boolean) state[3]);
+            documentsByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(documentId);
+            results.put(documentId, new BulkActionResult(documentId, BulkActionResult.Outcome.UPDATED, null));
+        }
+        
+        // Verification is recomputed once per affected user, not once per document
+        List<Long> newlyVerifiedUsers = new ArrayList<>();
+        for (List<Long> chunk : chunks(documentsByUser.keySet())) {
+            newlyVerifiedUsers.addAll(userVerificationService.refresh(chunk));
+        }
+        
+        notifyBulkReviewAfterCommit(documentsByUser, targetStatus, newlyVerifiedUsers);
+        
+        // Per-document outcomes, in request order
+        List<BulkActionResult> orderedResults = new ArrayList<>(requestedIds.size());
         int successCount = 0;
         int failureCount = 0;
         StringBuilder errorMessages = new StringBuilder();
-        
-        for (Long documentId : documentIds) {
-            try {
-                reviewDocument(documentId, adminId, targetStatus, reason);
-                successCount++;
-            } catch (Exception e) {
+        for (Long documentId : requestedIds) {
+            BulkActionResult result = results.get(documentId);
+            orderedResults.add(result);
+            if (result.getOutcome() == BulkActionResult.Outcome.NOT_FOUND) {
                 failureCount++;
-                errorMessages.append("Document ").append(documentId).append(": ").append(e.getMessage()).append("; ");
-                logger.error("Failed to {} document {}: {}", action, documentId, e.getMessage());
+                errorMessages.append("Document ").append(result.getDocumentId()).append(": ")
+                             .append(result.getMessage()).append("; ");
+            } else {
+                successCount++;
             }
         }
         
@@ -843,7 +1098,33 @@ public class DocumentService {
         }
         
         logger.info("Bulk action {} by admin {} completed: {}", action, adminId, message);
-        return new BulkActionResponse(message, successCount, failureCount);
+        return new BulkActionResponse(message, successCount, failureCount, orderedResults);
+    }
+
+    /**
+     * One notification per user for all of their reviewed documents, sent once the bulk change is committed
+     */
+    private void notifyBulkReviewAfterCommit(Map<Long, List<Long>> documentsByUser, Document.DocumentStatus status,
+                                             List<Long> newlyVerifiedUsers) {
+        Runnable notify = () -> {
+            documentsByUser.forEach((userId, userDocumentIds) ->
+                notificationService.sendDocumentsReviewedNotification(userId, userDocumentIds, status));
+            for (Long userId : newlyVerifiedUsers) {
+                notificationService.sendVerificationCompleteNotification(userId);
+                logger.info("User {} verification completed by bulk approval", userId);
+            }
+        };
+        
+        TransactionCallbacks.afterCommit(notify);
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE)));
+        }
+        return chunks;
     }
 
     /**
@@ -946,17 +1227,46 @@ public class DocumentService {
         private String message;
         private int successCount;
         private int failureCount;
+        private List<BulkActionResult> results;
         
         public BulkActionResponse(String message, int successCount, int failureCount) {
+            this(message, successCount, failureCount, List.of());
+        }
+        
+        public BulkActionResponse(String message, int successCount, int failureCount, List<BulkActionResult> results) {
             this.message = message;
             this.successCount = successCount;
             this.failureCount = failureCount;
+            this.results = results;
         }
         
         // Getters
         public String getMessage() { return message; }
         public int getSuccessCount() { return successCount; }
         public int getFailureCount() { return failureCount; }
+        public List<BulkActionResult> getResults() { return results; }
+    }
+    
+    /**
+     * Outcome of a bulk action for a single document
+     */
+    public static class BulkActionResult {
+        public enum Outcome { UPDATED, UNCHANGED, NOT_FOUND }
+        
+        private Long documentId;
+        private Outcome outcome;
+        private String message;
+        
+        public BulkActionResult(Long documentId, Outcome outcome, String message) {
+            this.documentId = documentId;
+            this.outcome = outcome;
+            this.message = message;
+        }
+        
+        // Getters
+        public Long getDocumentId() { return documentId; }
+        public Outcome getOutcome() { return outcome; }
+        public String getMessage() { return message; }
     }
     
     public static class DocumentVerificationDetailsResponse {
@@ -1118,6 +1428,7 @@ public class DocumentService {
             
             // Delete the document
             documentRepository.delete(document);
+            releaseImageAfterCommit(document);
             System.out.println("✅ Document deleted successfully");
             
             // Update user verification status after deletion
@@ -1137,6 +1448,51 @@ public class DocumentService {
         }
     }
 
+    /**
+     * Schedule a document's image blobs (processed and original) for collection once the deleting
+     * transaction commits. DocumentBlobCollector keeps them while another document references the
+     * same content or an upload of it is still in flight.
+     */
+    void releaseImageAfterCommit(Document document) {
+        Long documentId = document.getId();
+        List<String> imageKeys = new ArrayList<>();
+        if (document.getImageKey() != null) {
+            imageKeys.add(document.getImageKey());
+        }
+        if (document.getOriginalImageKey() != null && !document.getOriginalImageKey().equals(document.getImageKey())) {
+            imageKeys.add(document.getOriginalImageKey());
+        }
+        if (imageKeys.isEmpty()) {
+            return;
+        }
+        
+        Runnable release = () -> {
+            for (String imageKey : imageKeys) {
+                try {
+                    documentStorageService.scheduleDelete(imageKey);
+                } catch (Exception e) {
+                    logger.warn("Failed to release image {} of document {}: {}", imageKey, documentId, e.getMessage());
+                }
+            }
+        };
+        
+        TransactionCallbacks.afterCommit(release);
+    }
+
+    /**
+     * Schedule blobs written by an upload for deletion unless its transaction commits. Safe when the
+     * content is shared: the sweep keeps blobs that a committed document references.
+     */
+    private void releaseImagesUnlessCommitted(String... imageKeys) {
+        TransactionCallbacks.unlessCommitted(() -> {
+            for (String imageKey : imageKeys) {
+                if (imageKey != null) {
+                    documentStorageService.scheduleDelete(imageKey);
+                }
+            }
+        });
+    }
+
     /**
      * Send admin notification for manual review
      */
@@ -0,0 +1,51 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener that reports every document status change to {@link DocumentStatisticsService}.
+ * The status a document was loaded or last saved with is remembered on the entity, so an update
+ * reports the transition it made and not just the new status.
+ */
+public class DocumentStatisticsListener {
+
+    // Lazy: the listener is built together with the EntityManagerFactory, before the service
+    @Autowired
+    private ObjectProvider<DocumentStatisticsService> statisticsService;
+
+    @PostLoad
+    public void onLoad(Document document) {
+        document.markPersistedState();
+    }
+
+    @PostPersist
+    public void onPersist(Document document) {
+        record(document, null, null, document.getStatus(), document.getAutoApproved());
+    }
+
+    @PostUpdate
+    public void onUpdate(Document document) {
+        record(document, document.getPersistedStatus(), document.getPersistedAutoApproved(),
+               document.getStatus(), document.getAutoApproved());
+    }
+
+    @PostRemove
+    public void onRemove(Document document) {
+        record(document, document.getPersistedStatus(), document.getPersistedAutoApproved(), null, null);
+    }
+
+    private void record(Document document, Document.DocumentStatus oldStatus, Boolean oldAutoApproved,
+                        Document.DocumentStatus newStatus, Boolean newAutoApproved) {
+        document.markPersistedState();
+        DocumentStatisticsService service = statisticsService != null ? statisticsService.getIfAvailable() : null;
+        if (service != null) {
+            service.recordChange(oldStatus, oldAutoApproved, newStatus, newAutoApproved);
+        }
+    }
+}
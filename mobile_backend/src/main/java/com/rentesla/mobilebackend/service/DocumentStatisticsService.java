@@ -0,0 +1,228 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory document counters for the admin dashboard.
+ * Counters are loaded with one GROUP BY query, then moved by every committed status change
+ * (see {@link DocumentStatisticsListener}). Bulk JPQL updates and changes made by other
+ * instances are not seen, so the counters are reconciled against the database on a schedule.
+ *
+ * A change is counted after its transaction commits, so the GROUP BY query cannot tell whether
+ * a change committing around it is already in the counters. Every change bumps a generation and
+ * stays pending from the flush until its transaction completes; a reconcile result is only
+ * taken when no change was pending at the start of the query and none started during it.
+ * Otherwise the query is retried, and after a few busy attempts the round is skipped.
+ */
+@Service
+public class DocumentStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentStatisticsService.class);
+
+    private static final int RECONCILE_ATTEMPTS = 5;
+    private static final long RECONCILE_RETRY_MS = 50;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private final AtomicLong total = new AtomicLong();
+    private final Map<Document.DocumentStatus, AtomicLong> byStatus = new EnumMap<>(Document.DocumentStatus.class);
+    private final AtomicLong autoApproved = new AtomicLong();
+    private final AtomicLong manuallyReviewed = new AtomicLong();
+
+    private volatile boolean loaded;
+
+    // Guarded by this: changes recorded so far, and changes whose transaction has not completed yet
+    private long generation;
+    private int pendingChanges;
+
+    public DocumentStatisticsService() {
+        for (Document.DocumentStatus status : Document.DocumentStatus.values()) {
+            byStatus.put(status, new AtomicLong());
+        }
+    }
+
+    /**
+     * Current counters; loads them from the database on first use
+     */
+    public DocumentService.DocumentStatsResponse getStatistics() {
+        if (!loaded) {
+            reconcile();
+        }
+        return new DocumentService.DocumentStatsResponse(
+            total.get(),
+            byStatus.get(Document.DocumentStatus.PENDING).get(),
+            byStatus.get(Document.DocumentStatus.APPROVED).get(),
+            byStatus.get(Document.DocumentStatus.REJECTED).get(),
+            byStatus.get(Document.DocumentStatus.NEEDS_REVIEW).get(),
+            autoApproved.get(),
+            manuallyReviewed.get()
+        );
+    }
+
+    /**
+     * Count a document moving from one state to another (null status = did not exist / no longer exists).
+     * Applied after the surrounding transaction commits, so rolled back changes are never counted.
+     */
+    public void recordChange(Document.DocumentStatus oldStatus, Boolean oldAutoApproved,
+                             Document.DocumentStatus newStatus, Boolean newAutoApproved) {
+        if (oldStatus == newStatus && Objects.equals(oldAutoApproved, newAutoApproved)) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                generation++;
+                apply(oldStatus, oldAutoApproved, newStatus, newAutoApproved);
+            }
+            return;
+        }
+
+        synchronized (this) {
+            generation++;
+            pendingChanges++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (DocumentStatisticsService.this) {
+                    pendingChanges--;
+                    if (status == STATUS_COMMITTED) {
+                        apply(oldStatus, oldAutoApproved, newStatus, newAutoApproved);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Reload all counters from the database in one GROUP BY pass
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.documents.statistics.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.documents.statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            long startGeneration;
+            boolean quiet;
+            synchronized (this) {
+                startGeneration = generation;
+                quiet = pendingChanges == 0;
+            }
+
+            if (quiet) {
+                List<Object[]> rows = documentRepository.countGroupedByStatusAndAutoApproved();
+                synchronized (this) {
+                    // Nothing committed around the query: every change is either in the rows and
+                    // already applied, or not in the rows and applied from here on
+                    if (generation == startGeneration) {
+                        load(rows);
+                        return;
+                    }
+                }
+            }
+
+            try {
+                Thread.sleep(RECONCILE_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!loaded) {
+            // First load: approximate counters beat none, the next round corrects them
+            List<Object[]> rows = documentRepository.countGroupedByStatusAndAutoApproved();
+            synchronized (this) {
+                load(rows);
+            }
+            return;
+        }
+        logger.info("📊 Document statistics not reconciled, documents kept changing during the query");
+    }
+
+    /**
+     * Replace the counters with GROUP BY rows. Caller must hold the lock.
+     */
+    private void load(List<Object[]> rows) {
+        long newTotal = 0;
+        Map<Document.DocumentStatus, Long> newByStatus = new EnumMap<>(Document.DocumentStatus.class);
+        long newAutoApproved = 0;
+        long newManuallyReviewed = 0;
+
+        for (Object[] row : rows) {
+            Document.DocumentStatus status = (Document.DocumentStatus) row[0];
+            Boolean auto = (Boolean) row[1];
+            long count = ((Number) row[2]).longValue();
+
+            newTotal += count;
+            if (status != null) {
+                newByStatus.merge(status, count, Long::sum);
+            }
+            if (Boolean.TRUE.equals(auto)) {
+                newAutoApproved += count;
+            } else if (Boolean.FALSE.equals(auto)) {
+                newManuallyReviewed += count;
+            }
+        }
+
+        long drift = Math.abs(newTotal - total.get());
+        total.set(newTotal);
+        for (Document.DocumentStatus status : Document.DocumentStatus.values()) {
+            byStatus.get(status).set(newByStatus.getOrDefault(status, 0L));
+        }
+        autoApproved.set(newAutoApproved);
+        manuallyReviewed.set(newManuallyReviewed);
+
+        if (loaded && drift > 0) {
+            logger.info("📊 Document statistics reconciled, total drifted by {}", drift);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Move the counters by one change. Caller must hold the lock.
+     */
+    private void apply(Document.DocumentStatus oldStatus, Boolean oldAutoApproved,
+                       Document.DocumentStatus newStatus, Boolean newAutoApproved) {
+        if (oldStatus == null && newStatus != null) {
+            total.incrementAndGet();
+        } else if (oldStatus != null && newStatus == null) {
+            total.decrementAndGet();
+        }
+
+        if (oldStatus != null) {
+            byStatus.get(oldStatus).decrementAndGet();
+        }
+        if (newStatus != null) {
+            byStatus.get(newStatus).incrementAndGet();
+        }
+
+        adjustAutoApproved(oldAutoApproved, -1);
+        adjustAutoApproved(newAutoApproved, 1);
+    }
+
+    private void adjustAutoApproved(Boolean value, int delta) {
+        if (Boolean.TRUE.equals(value)) {
+            autoApproved.addAndGet(delta);
+        } else if (Boolean.FALSE.equals(value)) {
+            manuallyReviewed.addAndGet(delta);
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.rentesla.mobilebackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed blob store for document images.
+ * Each image is written once to local disk under its SHA-256 key; the documents
+ * table only keeps the key, size and mime type.
+ *
+ * Blobs are never deleted right away: scheduleDelete() leaves a marker under gc/ and
+ * DocumentBlobCollector later deletes blobs that are still unreferenced and have not been
+ * stored again within the grace period. Storing content that already exists touches the
+ * blob, so an upload whose row has not committed yet keeps its blob alive.
+ */
+@Service
+public class DocumentStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentStorageService.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String DEFAULT_MIME_TYPE = "image/jpeg";
+    private static final int KEY_LOCK_STRIPES = 64;
+
+    @Value("${app.storage.documents.path:./data/documents}")
+    private String storagePath;
+
+    @Value("${app.storage.documents.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    private Path root;
+    private Path tempDir;
+    private Path thumbnailDir;
+    private Path gcDir;
+
+    // Serializes storing a key against deleting it
+    private final Object[] keyLocks = new Object[KEY_LOCK_STRIPES];
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        root = Paths.get(storagePath).toAbsolutePath().normalize();
+        tempDir = root.resolve("tmp");
+        thumbnailDir = root.resolve("thumbnails");
+        gcDir = root.resolve("gc");
+        Files.createDirectories(tempDir);
+        Files.createDirectories(thumbnailDir);
+        Files.createDirectories(gcDir);
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new Object();
+        }
+        logger.info("📦 Document blob storage initialized at: {}", root);
+    }
+
+    /**
+     * Produces the bytes of a blob
+     */
+    @FunctionalInterface
+    public interface BlobWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Largest upload accepted by store() / storeBase64(), in bytes
+     */
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    /**
+     * Stream an image into the store, hashing it on the fly.
+     * Identical content is stored only once. Uploads over max-upload-bytes are aborted as soon
+     * as the limit is crossed, with a BlobTooLargeException.
+     */
+    public StoredImage store(InputStream input, String mimeType) throws IOException {
+        InputStream limited = new LimitedInputStream(input, maxUploadBytes);
+        return write(limited::transferTo, mimeType);
+    }
+
+    /**
+     * Store whatever the writer produces (e.g. an image encoder), hashing it on the fly
+     * without buffering the content in memory. Storing content that already exists refreshes
+     * the blob's modification time, which defers its collection.
+     */
+    public StoredImage write(BlobWriter writer, String mimeType) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+
+        try {
+            try (OutputStream out = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)), digest)) {
+                writer.writeTo(out);
+            }
+            long size = Files.size(tempFile);
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+
+            synchronized (lockFor(key)) {
+                if (Files.exists(target)) {
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    logger.debug("♻️ Image {} already stored, reusing existing blob", key);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    moveIntoPlace(tempFile, target);
+                    logger.info("💾 Stored image blob {} ({} bytes)", key, size);
+                }
+            }
+
+            return new StoredImage(key, size, mimeType != null ? mimeType : DEFAULT_MIME_TYPE);
+
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Store a base64 payload (optionally a data URI such as "data:image/png;base64,...").
+     * The characters are decoded straight from the string, without copying the payload into
+     * a substring or byte array first.
+     */
+    public StoredImage storeBase64(String base64Image) throws IOException {
+        String mimeType = DEFAULT_MIME_TYPE;
+        int dataStart = 0;
+
+        if (base64Image.startsWith("data:")) {
+            int separator = base64Image.indexOf(',');
+            if (separator < 0) {
+                throw new IOException("Invalid data URI for image");
+            }
+            int mimeEnd = base64Image.indexOf(';');
+            if (mimeEnd > 5 && mimeEnd < separator) {
+                mimeType = base64Image.substring(5, mimeEnd);
+            }
+            dataStart = separator + 1;
+        }
+
+        if (exceedsUploadLimit(base64Image)) {
+            throw new BlobTooLargeException(maxUploadBytes);
+        }
+
+        InputStream encoded = new AsciiInputStream(base64Image, dataStart);
+        try (InputStream decoded = Base64.getMimeDecoder().wrap(encoded)) {
+            return store(decoded, mimeType);
+        }
+    }
+
+    /**
+     * Whether a base64 payload would decode to more than max-upload-bytes.
+     * Uses the encoded length only (4 chars per 3 bytes), so nothing is decoded.
+     */
+    public boolean exceedsUploadLimit(String base64Image) {
+        int separator = base64Image.startsWith("data:") ? base64Image.indexOf(',') : -1;
+        long encodedLength = base64Image.length() - (separator + 1);
+        return encodedLength / 4 * 3 > maxUploadBytes + 3;
+    }
+
+    /**
+     * Open a stream over a stored image
+     */
+    public InputStream openStream(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    /**
+     * Size in bytes of a stored image
+     */
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    public boolean exists(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches() && Files.exists(resolve(key));
+    }
+
+    /**
+     * Mark a blob for deletion by the next collector sweep. The blob stays readable until then,
+     * and the sweep keeps it if a document references it or it was stored again meanwhile.
+     */
+    public void scheduleDelete(String key) {
+        try {
+            resolve(key); // validates the key
+            Files.createFile(gcDir.resolve(key));
+            logger.debug("🗑️ Image blob {} scheduled for deletion", key);
+        } catch (FileAlreadyExistsException e) {
+            // Already scheduled
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to schedule deletion of image blob {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Keys currently scheduled for deletion
+     */
+    public List<String> listScheduledDeletes() throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (Stream<Path> markers = Files.list(gcDir)) {
+            markers.map(marker -> marker.getFileName().toString())
+                .filter(name -> KEY_PATTERN.matcher(name).matches())
+                .forEach(keys::add);
+        }
+        return keys;
+    }
+
+    /**
+     * Delete a scheduled blob unless it was stored within the grace period or is still referenced.
+     * Runs under the key's lock, so an upload of the same content either touches the blob before
+     * this check or writes it again afterwards. A blob still inside the grace period stays
+     * scheduled; a referenced or missing one is unscheduled.
+     *
+     * @return whether the blob was deleted
+     */
+    public boolean deleteIfIdle(String key, Duration gracePeriod, BooleanSupplier referenced) throws IOException {
+        Path marker = gcDir.resolve(key);
+        Path blob = resolve(key);
+        synchronized (lockFor(key)) {
+            if (!Files.exists(blob)) {
+                Files.deleteIfExists(marker);
+                return false;
+            }
+            Instant lastStored = Files.getLastModifiedTime(blob).toInstant();
+            if (lastStored.isAfter(Instant.now().minus(gracePeriod))) {
+                return false;
+            }
+            if (referenced.getAsBoolean()) {
+                Files.deleteIfExists(marker);
+                return false;
+            }
+            delete(key);
+            Files.deleteIfExists(marker);
+            return true;
+        }
+    }
+
+    /**
+     * Remove a blob and its thumbnail
+     */
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(resolveThumbnail(key));
+            if (Files.deleteIfExists(resolve(key))) {
+                logger.info("🗑️ Deleted image blob {}", key);
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete image blob {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Cached thumbnail of a blob, if one has been generated
+     */
+    public Optional<byte[]> readThumbnail(String key) throws IOException {
+        Path thumbnail = resolveThumbnail(key);
+        if (!Files.exists(thumbnail)) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.readAllBytes(thumbnail));
+    }
+
+    /**
+     * Store the thumbnail of a blob. Thumbnails are derived data and live next to the
+     * blobs under thumbnails/, keyed by the blob key.
+     */
+    public void writeThumbnail(String key, BlobWriter writer) throws IOException {
+        Path target = resolveThumbnail(key);
+        Path tempFile = Files.createTempFile(tempDir, "thumb-", ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                writer.writeTo(out);
+            }
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Resolve the on-disk location of a key (two-level fan-out: ab/cd/abcd...)
+     */
+    public Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Path resolveThumbnail(String key) {
+        resolve(key); // validates the key
+        return thumbnailDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".jpg");
+    }
+
+    private Object lockFor(String key) {
+        return keyLocks[Math.floorMod(key.hashCode(), keyLocks.length)];
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another upload with the same content won the race - same bytes, nothing to do
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Same content already in place
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Upload exceeded max-upload-bytes
+     */
+    public static class BlobTooLargeException extends IOException {
+        private final long limit;
+
+        public BlobTooLargeException(long limit) {
+            super("File exceeds the maximum upload size of " + limit + " bytes");
+            this.limit = limit;
+        }
+
+        public long getLimit() { return limit; }
+    }
+
+    /**
+     * Fails once more than limit bytes have been read, so an oversized stream is cut off
+     * while it is being copied instead of after it has been written in full
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new BlobTooLargeException(limit);
+            }
+        }
+    }
+
+    /**
+     * Bytes of an ASCII character sequence from a start offset. Non-ASCII characters come out
+     * as '?' (as with getBytes(US_ASCII)), which the MIME decoder skips.
+     */
+    private static class AsciiInputStream extends InputStream {
+        private final CharSequence text;
+        private int position;
+
+        AsciiInputStream(CharSequence text, int start) {
+            this.text = text;
+            this.position = start;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? toAscii(text.charAt(position++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int remaining = text.length() - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = Math.min(len, remaining);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) toAscii(text.charAt(position++));
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return text.length() - position;
+        }
+
+        private static int toAscii(char c) {
+            return c < 0x80 ? c : '?';
+        }
+    }
+
+    /**
+     * Reference to an image stored in the blob store
+     */
+    public static class StoredImage {
+        private final String key;
+        private final long size;
+        private final String mimeType;
+
+        public StoredImage(String key, long size, String mimeType) {
+            this.key = key;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+
+        public String getKey() { return key; }
+        public long getSize() { return size; }
+        public String getMimeType() { return mimeType; }
+    }
+}
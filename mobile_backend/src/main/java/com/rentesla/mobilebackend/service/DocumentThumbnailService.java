@@ -0,0 +1,69 @@
+package com.rentesla.mobilebackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Small JPEG previews of document images for listings.
+ * A thumbnail is generated the first time it is asked for and cached on disk next to
+ * its blob, so later listings only read a few kilobytes per document.
+ */
+@Service
+public class DocumentThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentThumbnailService.class);
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private ImagePreprocessingService imagePreprocessingService;
+
+    @Value("${app.storage.documents.thumbnail.size:240}")
+    private int thumbnailSize;
+
+    @Value("${app.storage.documents.thumbnail.jpeg-quality:0.7}")
+    private float thumbnailQuality;
+
+    /**
+     * Thumbnail of an image as base64 (without data URI prefix), or null if it cannot be produced
+     */
+    public String getThumbnailBase64(String imageKey) {
+        if (imageKey == null || !documentStorageService.exists(imageKey)) {
+            return null;
+        }
+
+        try {
+            Optional<byte[]> cached = documentStorageService.readThumbnail(imageKey);
+            if (cached.isPresent()) {
+                return Base64.getEncoder().encodeToString(cached.get());
+            }
+
+            ImagePreprocessingService.DecodedImage decoded = imagePreprocessingService.decode(imageKey, thumbnailSize);
+            if (decoded == null) {
+                return null;
+            }
+
+            BufferedImage thumbnail = imagePreprocessingService.render(decoded, thumbnailSize);
+            documentStorageService.writeThumbnail(imageKey,
+                out -> imagePreprocessingService.encodeJpeg(thumbnail, thumbnailQuality, out));
+            logger.debug("🖼️ Generated {}x{} thumbnail for image {}", thumbnail.getWidth(), thumbnail.getHeight(), imageKey);
+
+            return documentStorageService.readThumbnail(imageKey)
+                .map(bytes -> Base64.getEncoder().encodeToString(bytes))
+                .orElse(null);
+
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not produce thumbnail for image {}: {}", imageKey, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.rentesla.mobilebackend.service;
 
-import com.google.auth.oauth2.GoogleCredentials;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.cloud.vision.v1.*;
 import com.google.protobuf.ByteString;
 import com.rentesla.mobilebackend.entity.Document;
@@ -10,16 +10,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * OCR Service for document text extraction
@@ -34,6 +30,12 @@ public class GoogleCloudVisionOCRService {
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private OCRBatchDispatcher ocrBatchDispatcher;
+
     @Value("${app.ocr.timeout.seconds:30}")
     private int ocrTimeoutSeconds;
 
@@ -45,9 +47,6 @@ public class GoogleCloudVisionOCRService {
 
     @Value("${google.cloud.project-id:your-project-id}")
     private String projectId;
-
-    @Value("${google.cloud.credentials.location:classpath:vision/rentesla-464421-677259788a1d.json}")
-    private String credentialsPath;
     
     /**
      * Main entry point for OCR processing
@@ -69,6 +68,20 @@ public class GoogleCloudVisionOCRService {
         }
     }
 
+    /**
+     * OCR for the front and back of one document in a single provider call.
+     * The text of both faces is parsed together, so fields printed on either side end up in one result.
+     */
+    public OCRResult processDocumentPair(Document front, Document back, User user) throws Exception {
+        logger.info("🔍 Starting paired OCR processing - Front: {}, Back: {}, Mock: {}, Vision API: {}",
+            front.getId(), back.getId(), mockEnabled, visionApiEnabled);
+        
+        if (!mockEnabled && visionApiEnabled) {
+            return performGoogleCloudVisionPairOCR(front, back);
+        }
+        return processMockOCR(front, user);
+    }
+
     /**
      * Mock OCR processing for development/testing
      */
@@ -126,6 +139,9 @@ public class GoogleCloudVisionOCRService {
         private double confidence;
         private String fullText;
         
+        // Paired runs only: each face parsed on its own, front first (cacheable per image, never serialized)
+        private List<OCRResult> faceResults;
+        
         // Getters and Setters
         public String getIdentityNumber() { return identityNumber; }
         public void setIdentityNumber(String identityNumber) { this.identityNumber = identityNumber; }
@@ -153,6 +169,10 @@ public class GoogleCloudVisionOCRService {
         
         public String getFullText() { return fullText; }
         public void setFullText(String fullText) { this.fullText = fullText; }
+        
+        @JsonIgnore
+        public List<OCRResult> getFaceResults() { return faceResults; }
+        public void setFaceResults(List<OCRResult> faceResults) { this.faceResults = faceResults; }
     }
     
     /**
@@ -179,113 +199,100 @@ public class GoogleCloudVisionOCRService {
     private OCRResult performGoogleCloudVisionOCR(Document document) throws Exception {
         logger.info("🤖 Starting Google Cloud Vision OCR for document {}", document.getId());
         
-        ImageAnnotatorClient vision = null;
         try {
-            // Load service account credentials
-            logger.info("🔐 Loading service account credentials from: {}", credentialsPath);
-            GoogleCredentials credentials = loadCredentials();
+            AnnotateImageRequest request = buildAnnotateRequest(document);
             
-            // Create Vision client with credentials
-            ImageAnnotatorSettings settings = ImageAnnotatorSettings.newBuilder()
-                .setCredentialsProvider(() -> credentials)
-                .build();
-            vision = ImageAnnotatorClient.create(settings);
+            logger.info("📤 Queueing OCR request for the next Google Cloud Vision batch...");
             
-            logger.info("✅ Google Cloud Vision client created successfully");
+            // Micro-batched call: the dispatcher routes this image's response back to us
+            String fullText = awaitText(ocrBatchDispatcher.submit(request));
+            logger.info("📝 Extracted text from document {}: {} characters", 
+                document.getId(), fullText.length());
             
-            // Convert base64 to bytes
-            String base64Data = document.getImageBase64();
-            if (base64Data.contains(",")) {
-                base64Data = base64Data.split(",")[1]; // Remove data:image/jpeg;base64, prefix
-            }
-            
-            byte[] imageBytes = Base64.getDecoder().decode(base64Data);
-            ByteString imgBytes = ByteString.copyFrom(imageBytes);
-            
-            // Build the image annotation request
-            Image img = Image.newBuilder().setContent(imgBytes).build();
-            Feature feat = Feature.newBuilder().setType(Feature.Type.DOCUMENT_TEXT_DETECTION).build();
-            AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
-                .addFeatures(feat)
-                .setImage(img)
-                .build();
-            
-            logger.info("📤 Sending OCR request to Google Cloud Vision API...");
-            
-            // Perform the request
-            BatchAnnotateImagesResponse response = vision.batchAnnotateImages(List.of(request));
-            List<AnnotateImageResponse> responses = response.getResponsesList();
-            
-            for (AnnotateImageResponse res : responses) {
-                if (res.hasError()) {
-                    logger.error("❌ Google Cloud Vision API error: {}", res.getError().getMessage());
-                    throw new OCRProcessingException("Google Cloud Vision API error: " + res.getError().getMessage(), null);
-                }
-                
-                // Extract text
-                String fullText = res.getFullTextAnnotation().getText();
-                logger.info("📝 Extracted text from document {}: {} characters", 
-                    document.getId(), fullText.length());
-                
-                // Parse text based on document type
-                return parseDocumentText(fullText, document.getType());
-            }
-            
-            throw new OCRProcessingException("No text detected in document", null);
+            // Parse text based on document type
+            return parseDocumentText(fullText, document.getType());
             
         } catch (IOException e) {
             logger.error("❌ Google Cloud Vision OCR failed for document {}: {}", 
                 document.getId(), e.getMessage());
             throw new OCRProcessingException("OCR processing failed: " + e.getMessage(), e);
-        } finally {
-            if (vision != null) {
-                try {
-                    vision.close();
-                    logger.info("🔐 Google Cloud Vision client closed");
-                } catch (Exception e) {
-                    logger.warn("Warning: Failed to close Vision client: {}", e.getMessage());
-                }
-            }
         }
     }
 
     /**
-     * Load Google Cloud credentials from service account file
+     * Both faces go into the same batchAnnotateImages call; their text is parsed as one document.
+     * Each face is also parsed on its own so its result can be cached under its image.
+     */
+    private OCRResult performGoogleCloudVisionPairOCR(Document front, Document back) throws Exception {
+        logger.info("🤖 Starting paired Google Cloud Vision OCR for documents {} (front) and {} (back)",
+            front.getId(), back.getId());
+        
+        try {
+            List<CompletableFuture<AnnotateImageResponse>> responses = ocrBatchDispatcher.submitAll(
+                List.of(buildAnnotateRequest(front), buildAnnotateRequest(back)));
+            String frontText = awaitText(responses.get(0));
+            String backText = awaitText(responses.get(1));
+            logger.info("📝 Extracted text from documents {}/{}: {}/{} characters",
+                front.getId(), back.getId(), frontText.length(), backText.length());
+            
+            OCRResult result = parseDocumentText(frontText + "\n" + backText, front.getType());
+            // Per-face results let a later re-upload of either image be answered from the cache
+            result.setFaceResults(List.of(
+                parseDocumentText(frontText, front.getType()),
+                parseDocumentText(backText, back.getType())));
+            return result;
+            
+        } catch (IOException e) {
+            logger.error("❌ Google Cloud Vision OCR failed for documents {}/{}: {}",
+                front.getId(), back.getId(), e.getMessage());
+            throw new OCRProcessingException("OCR processing failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * DOCUMENT_TEXT_DETECTION request for a stored document image
+     */
+    private AnnotateImageRequest buildAnnotateRequest(Document document) throws IOException {
+        // Stream image bytes from blob storage
+        ByteString imgBytes;
+        try (InputStream imageStream = documentStorageService.openStream(document.getImageKey())) {
+            imgBytes = ByteString.readFrom(imageStream);
+        }
+        
+        Image img = Image.newBuilder().setContent(imgBytes).build();
+        Feature feat = Feature.newBuilder().setType(Feature.Type.DOCUMENT_TEXT_DETECTION).build();
+        return AnnotateImageRequest.newBuilder()
+            .addFeatures(feat)
+            .setImage(img)
+            .build();
+    }
+
+    /**
+     * Wait for a batched response and return its full text
      */
-    private GoogleCredentials loadCredentials() throws IOException {
+    private String awaitText(CompletableFuture<AnnotateImageResponse> future) throws Exception {
+        AnnotateImageResponse res;
         try {
-            String path = credentialsPath;
-            if (path.startsWith("classpath:")) {
-                path = path.substring("classpath:".length());
-                ClassPathResource resource = new ClassPathResource(path);
-                
-                if (!resource.exists()) {
-                    throw new IOException("Service account key file not found: " + path);
-                }
-                
-                try (InputStream credentialsStream = resource.getInputStream()) {
-                    GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsStream);
-                    logger.info("✅ Successfully loaded service account credentials");
-                    return credentials;
-                }
-            } else {
-                // Handle file system path
-                try (InputStream credentialsStream = new java.io.FileInputStream(path)) {
-                    GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsStream);
-                    logger.info("✅ Successfully loaded service account credentials from file");
-                    return credentials;
-                }
+            res = future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
-        } catch (Exception e) {
-            logger.error("❌ Failed to load service account credentials: {}", e.getMessage());
-            throw new IOException("Failed to load credentials: " + e.getMessage(), e);
+            throw e;
         }
+        
+        if (res.hasError()) {
+            logger.error("❌ Google Cloud Vision API error: {}", res.getError().getMessage());
+            throw new OCRProcessingException("Google Cloud Vision API error: " + res.getError().getMessage(), null);
+        }
+        return res.getFullTextAnnotation().getText();
     }
 
     /**
      * Parse extracted text based on document type
      */
-    private OCRResult parseDocumentText(String text, Document.DocumentType documentType) {
+    OCRResult parseDocumentText(String text, Document.DocumentType documentType) {
         logger.info("🔍 Parsing {} text: {} characters", documentType, text.length());
         
         // Log the full extracted text for debugging
@@ -294,19 +301,25 @@ public class GoogleCloudVisionOCRService {
         logger.info("{}", text);
         logger.info("=====================================");
         
+        // One pass over the text yields every candidate the parsers below need
+        OCRTextExtractor.Extraction extraction = OCRTextExtractor.extract(text);
+        logger.info("🔍 Candidates - IDs: {}, Licenses: {}, Passports: {}, Dates: {}, Names: {}",
+            extraction.getIdentityNumbers(), extraction.getLicenseNumbers(), extraction.getPassportNumbers(),
+            extraction.getDates(), extraction.getNamePairs());
+        
         OCRResult result = new OCRResult();
         result.setFullText(text);
-        result.setConfidence(calculateConfidence(text, documentType));
+        result.setConfidence(calculateConfidence(text, extraction));
         
         switch (documentType) {
             case DRIVING_LICENSE:
-                parseDrivingLicenseText(text, result);
+                parseDrivingLicenseText(extraction, result);
                 break;
             case IDENTITY_CARD:
-                parseIdentityCardText(text, result);
+                parseIdentityCardText(extraction, result);
                 break;
             case PASSPORT:
-                parsePassportText(text, result);
+                parsePassportText(extraction, result);
                 break;
             default:
                 logger.warn("⚠️ Unknown document type for parsing: {}", documentType);
@@ -321,35 +334,21 @@ public class GoogleCloudVisionOCRService {
     /**
      * Parse driving license text
      */
-    private void parseDrivingLicenseText(String text, OCRResult result) {
+    private void parseDrivingLicenseText(OCRTextExtractor.Extraction extraction, OCRResult result) {
         logger.info("🚗 Parsing driving license text");
         
-        // Turkish ID pattern (11 digits)
-        Pattern idPattern = Pattern.compile("\\b(\\d{11})\\b");
-        Matcher idMatcher = idPattern.matcher(text);
-        
-        // Log all ID matches found
-        logger.info("🔍 Searching for Turkish ID patterns (11 digits)...");
-        Matcher debugIdMatcher = idPattern.matcher(text);
-        int idMatchCount = 0;
-        while (debugIdMatcher.find()) {
-            idMatchCount++;
-            logger.info("   ID Match {}: '{}'", idMatchCount, debugIdMatcher.group(1));
-        }
-        
-        if (idMatcher.find()) {
-            String identityNumber = idMatcher.group(1);
+        // Turkish ID (11 digits)
+        String identityNumber = extraction.firstIdentityNumber();
+        if (identityNumber != null) {
             logger.info("✅ Selected Turkish ID: '{}'", identityNumber);
             result.setIdentityNumber(identityNumber);
         } else {
             logger.warn("⚠️ No Turkish ID patterns found in text");
         }
         
-        // License number pattern (starts with letters)
-        Pattern licensePattern = Pattern.compile("\\b([A-Z]{1,2}\\d{6,8})\\b");
-        Matcher licenseMatcher = licensePattern.matcher(text);
-        if (licenseMatcher.find()) {
-            String licenseNumber = licenseMatcher.group(1);
+        // License number (starts with letters)
+        String licenseNumber = extraction.firstLicenseNumber();
+        if (licenseNumber != null) {
             logger.info("✅ Found license number: '{}'", licenseNumber);
             result.setLicenseNumber(licenseNumber);
         } else {
@@ -357,10 +356,10 @@ public class GoogleCloudVisionOCRService {
         }
         
         // Turkish driving license specific name extraction
-        extractTurkishLicenseNames(text, result);
+        extractTurkishLicenseNames(extraction, result);
         
-        // Date patterns
-        extractDatesFromText(text, result);
+        // Dates
+        extractDatesFromText(extraction, result);
     }
 
     /**
@@ -369,30 +368,19 @@ public class GoogleCloudVisionOCRService {
      * 1. SURNAME
      * 2. FirstName
      */
-    private void extractTurkishLicenseNames(String text, OCRResult result) {
+    private void extractTurkishLicenseNames(OCRTextExtractor.Extraction extraction, OCRResult result) {
         logger.info("🇹🇷 Extracting names from Turkish driving license format...");
         
-        // Pattern for Turkish driving license format
-        // 1. SURNAME (may have dots, spaces)
-        Pattern surnamePattern = Pattern.compile("1\\.?\\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\\s]+?)(?=\\s*\\n|\\s*2\\.|$)");
-        
-        // 2. FirstName (may have dots, spaces)  
-        Pattern firstNamePattern = Pattern.compile("2\\.?\\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\\s]+?)(?=\\s*\\n|\\s*3\\.|$)");
-        
-        // Try to find surname (1. ...)
-        Matcher surnameMatcher = surnamePattern.matcher(text);
-        if (surnameMatcher.find()) {
-            String surname = surnameMatcher.group(1).trim();
+        String surname = extraction.getLicenseSurname();
+        if (surname != null) {
             logger.info("✅ Found Turkish license surname: '{}'", surname);
             result.setLastName(surname);
         } else {
             logger.warn("⚠️ No Turkish license surname pattern found (1. ...)");
         }
         
-        // Try to find first name (2. ...)
-        Matcher firstNameMatcher = firstNamePattern.matcher(text);
-        if (firstNameMatcher.find()) {
-            String firstName = firstNameMatcher.group(1).trim();
+        String firstName = extraction.getLicenseFirstName();
+        if (firstName != null) {
             logger.info("✅ Found Turkish license first name: '{}'", firstName);
             result.setFirstName(firstName);
         } else {
@@ -402,112 +390,76 @@ public class GoogleCloudVisionOCRService {
         // If Turkish format fails, fallback to generic pattern
         if (result.getFirstName() == null || result.getLastName() == null) {
             logger.info("⚠️ Turkish format failed, trying generic name extraction...");
-            extractNamesFromText(text, result);
+            extractNamesFromText(extraction, result);
         }
     }
 
     /**
      * Parse identity card text
      */
-    private void parseIdentityCardText(String text, OCRResult result) {
+    private void parseIdentityCardText(OCRTextExtractor.Extraction extraction, OCRResult result) {
         logger.info("🆔 Parsing identity card text");
         
-        // Turkish ID pattern
-        Pattern idPattern = Pattern.compile("\\b(\\d{11})\\b");
-        Matcher idMatcher = idPattern.matcher(text);
-        if (idMatcher.find()) {
-            result.setIdentityNumber(idMatcher.group(1));
+        // Turkish ID
+        if (extraction.firstIdentityNumber() != null) {
+            result.setIdentityNumber(extraction.firstIdentityNumber());
         }
         
         // Name extraction
-        extractNamesFromText(text, result);
+        extractNamesFromText(extraction, result);
         
         // Birth date
-        extractDatesFromText(text, result);
+        extractDatesFromText(extraction, result);
     }
 
     /**
      * Parse passport text
      */
-    private void parsePassportText(String text, OCRResult result) {
+    private void parsePassportText(OCRTextExtractor.Extraction extraction, OCRResult result) {
         logger.info("🛂 Parsing passport text");
         
-        // Passport number pattern
-        Pattern passportPattern = Pattern.compile("\\b([A-Z]\\d{8})\\b");
-        Matcher passportMatcher = passportPattern.matcher(text);
-        if (passportMatcher.find()) {
-            result.setPassportNumber(passportMatcher.group(1));
+        // Passport number
+        if (extraction.firstPassportNumber() != null) {
+            result.setPassportNumber(extraction.firstPassportNumber());
         }
         
         // Names in passport format
-        extractNamesFromText(text, result);
+        extractNamesFromText(extraction, result);
         
         // Birth date and expiry date
-        extractDatesFromText(text, result);
+        extractDatesFromText(extraction, result);
     }
 
     /**
-     * Extract names from text with Turkish character support
+     * Take the first capitalized name pair found in the text
      */
-    private void extractNamesFromText(String text, OCRResult result) {
-        logger.info("👤 Extracting names from text...");
-        
-        // Turkish name pattern
-        Pattern namePattern = Pattern.compile("([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)\\s+([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)");
-        Matcher nameMatcher = namePattern.matcher(text);
-        
-        // Log all matches found
-        logger.info("🔍 Searching for name patterns...");
-        Matcher debugMatcher = namePattern.matcher(text);
-        int matchCount = 0;
-        while (debugMatcher.find()) {
-            matchCount++;
-            logger.info("   Match {}: '{}' '{}'", matchCount, debugMatcher.group(1), debugMatcher.group(2));
-        }
-        
-        if (nameMatcher.find()) {
-            String firstName = nameMatcher.group(1);
-            String lastName = nameMatcher.group(2);
-            
-            logger.info("✅ Selected name: '{}' '{}'", firstName, lastName);
-            result.setFirstName(firstName);
-            result.setLastName(lastName);
+    private void extractNamesFromText(OCRTextExtractor.Extraction extraction, OCRResult result) {
+        OCRTextExtractor.NameCandidate name = extraction.firstNamePair();
+        if (name != null) {
+            logger.info("✅ Selected name: '{}' '{}'", name.getFirstName(), name.getLastName());
+            result.setFirstName(name.getFirstName());
+            result.setLastName(name.getLastName());
         } else {
             logger.warn("⚠️ No name patterns found in text");
         }
     }
 
     /**
-     * Extract dates from text
+     * First date is the birth date, the second one (if any) the expiry date
      */
-    private void extractDatesFromText(String text, OCRResult result) {
-        logger.info("📅 Extracting dates from text...");
-        
-        Pattern datePattern = Pattern.compile("(\\d{2}[./]\\d{2}[./]\\d{4})");
-        Matcher dateMatcher = datePattern.matcher(text);
-        
-        // Log all date matches found
-        logger.info("🔍 Searching for date patterns (DD/MM/YYYY or DD.MM.YYYY)...");
-        Matcher debugDateMatcher = datePattern.matcher(text);
-        int dateMatchCount = 0;
-        while (debugDateMatcher.find()) {
-            dateMatchCount++;
-            logger.info("   Date Match {}: '{}'", dateMatchCount, debugDateMatcher.group(1));
-        }
+    private void extractDatesFromText(OCRTextExtractor.Extraction extraction, OCRResult result) {
+        List<String> dates = extraction.getDates();
         
-        if (dateMatcher.find()) {
-            String birthDate = dateMatcher.group(1);
-            logger.info("✅ Selected birth date: '{}'", birthDate);
-            result.setBirthDate(birthDate);
+        if (!dates.isEmpty()) {
+            logger.info("✅ Selected birth date: '{}'", dates.get(0));
+            result.setBirthDate(dates.get(0));
         } else {
             logger.warn("⚠️ No birth date patterns found");
         }
         
-        // Look for additional dates (like expiry)
-        if (dateMatcher.find()) {
-            String expiryDate = dateMatcher.group(1);
-            logger.info("✅ Found expiry date: '{}'", expiryDate);
-            result.setExpiryDate(expiryDate);
+        if (dates.size() > 1) {
+            logger.info("✅ Found expiry date: '{}'", dates.get(1));
+            result.setExpiryDate(dates.get(1));
         } else {
             logger.info("ℹ️ No expiry date found (this is normal for some documents)");
         }
@@ -516,17 +468,21 @@ public class GoogleCloudVisionOCRService {
     /**
      * Calculate OCR confidence based on extracted data quality
      */
-    private double calculateConfidence(String text, Document.DocumentType documentType) {
+    private double calculateConfidence(String text, OCRTextExtractor.Extraction extraction) {
         double confidence = 0.6; // Base confidence for real OCR
         
         // Text length factor
         if (text.length() > 100) confidence += 0.15;
         if (text.length() > 200) confidence += 0.1;
         
-        // Pattern matching factor
-        if (text.matches(".*\\d{11}.*")) confidence += 0.1; // Has Turkish ID
-        if (text.matches(".*[A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+.*")) confidence += 0.05; // Has proper names
-        if (text.matches(".*\\d{2}[./]\\d{2}[./]\\d{4}.*")) confidence += 0.05; // Has dates
+        // Pattern matching factor. These used to be String.matches(".*X.*"), and '.' does not
+        // cross line breaks, so they only ever counted for single-line text - kept that way
+        // so auto-approval thresholds do not shift.
+        if (extraction.isSingleLine()) {
+            if (extraction.hasElevenDigitRun()) confidence += 0.1; // Has Turkish ID
+            if (extraction.hasCapitalizedWord()) confidence += 0.05; // Has proper names
+            if (extraction.hasDate()) confidence += 0.05; // Has dates
+        }
         
         return Math.min(confidence, 0.98); // Cap at 98% for real OCR
     }
@@ -0,0 +1,385 @@
+package com.rentesla.mobilebackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Pre-processing stage between upload and OCR.
+ * Uploaded photos are rotated upright according to their EXIF orientation, downscaled so the
+ * longest side fits max-dimension and recompressed as JPEG. The result replaces the upload in
+ * the blob store; the original is kept only when keep-original is enabled.
+ *
+ * Large images are decoded with source subsampling, so at most one reduced bitmap and the
+ * output canvas are in memory, and the encoder writes straight into the blob store.
+ *
+ * The decoded bitmap is also handed to {@link ImageQualityAnalyzer}; unusable photos are
+ * reported back without being rendered or re-encoded.
+ */
+@Service
+public class ImagePreprocessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePreprocessingService.class);
+
+    private static final String OUTPUT_MIME_TYPE = "image/jpeg";
+    private static final int ORIENTATION_NORMAL = 1;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private ImageQualityAnalyzer qualityAnalyzer;
+
+    @Value("${app.ocr.preprocessing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ocr.preprocessing.max-dimension:2048}")
+    private int maxDimension;
+
+    @Value("${app.ocr.preprocessing.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${app.storage.documents.keep-original:false}")
+    private boolean keepOriginal;
+
+    /**
+     * Normalize a freshly stored upload and run the quality gate on it. Never fails the upload:
+     * if the image cannot be processed the original is returned unchanged. A failed quality check
+     * is returned in the result (the image is left as uploaded) for the caller to act on.
+     */
+    public PreprocessedImage preprocess(DocumentStorageService.StoredImage original) {
+        if (!enabled) {
+            return new PreprocessedImage(original, null, checkQuality(original));
+        }
+
+        long startTime = System.currentTimeMillis();
+        ImageQualityAnalyzer.QualityReport quality = null;
+        try {
+            DecodedImage decoded = decode(original.getKey(), maxDimension);
+            if (decoded == null) {
+                logger.info("ℹ️ Image {} ({}) is not decodable, stored as uploaded", original.getKey(), original.getMimeType());
+                return new PreprocessedImage(original, null, null);
+            }
+
+            if (qualityAnalyzer.isEnabled()) {
+                quality = qualityAnalyzer.analyze(decoded.getImage(), decoded.getSourceWidth(), decoded.getSourceHeight());
+                if (!quality.isAcceptable()) {
+                    return new PreprocessedImage(original, null, quality);
+                }
+            }
+
+            boolean fitsAlready = Math.max(decoded.getSourceWidth(), decoded.getSourceHeight()) <= maxDimension;
+            if (fitsAlready && decoded.getOrientation() == ORIENTATION_NORMAL
+                    && OUTPUT_MIME_TYPE.equals(original.getMimeType())) {
+                return new PreprocessedImage(original, null, quality);
+            }
+
+            BufferedImage normalized = render(decoded, maxDimension);
+            DocumentStorageService.StoredImage processed = documentStorageService.write(
+                out -> encodeJpeg(normalized, jpegQuality, out), OUTPUT_MIME_TYPE);
+
+            // Recompressing a small, upright image can make it bigger - keep the upload then
+            if (fitsAlready && decoded.getOrientation() == ORIENTATION_NORMAL && processed.getSize() >= original.getSize()) {
+                releaseIfUnreferenced(processed.getKey());
+                return new PreprocessedImage(original, null, quality);
+            }
+
+            logger.info("🖼️ Pre-processed image {} -> {} ({}x{} -> {}x{}, {} -> {} bytes, orientation {}) in {}ms",
+                original.getKey(), processed.getKey(),
+                decoded.getSourceWidth(), decoded.getSourceHeight(), normalized.getWidth(), normalized.getHeight(),
+                original.getSize(), processed.getSize(), decoded.getOrientation(),
+                System.currentTimeMillis() - startTime);
+
+            if (keepOriginal) {
+                return new PreprocessedImage(processed, original.getKey(), quality);
+            }
+            releaseIfUnreferenced(original.getKey());
+            return new PreprocessedImage(processed, null, quality);
+
+        } catch (Exception e) {
+            logger.warn("⚠️ Image pre-processing failed for {}, using original: {}", original.getKey(), e.getMessage());
+            return new PreprocessedImage(original, null, quality);
+        }
+    }
+
+    /**
+     * Drop the blobs of an upload that is not going to be saved (e.g. it failed the quality gate)
+     */
+    public void discard(PreprocessedImage preprocessed) {
+        releaseIfUnreferenced(preprocessed.getImage().getKey());
+        if (preprocessed.getOriginalKey() != null) {
+            releaseIfUnreferenced(preprocessed.getOriginalKey());
+        }
+    }
+
+    /**
+     * Quality gate alone, for when pre-processing is switched off: decodes at the analysis size only
+     */
+    private ImageQualityAnalyzer.QualityReport checkQuality(DocumentStorageService.StoredImage original) {
+        if (!qualityAnalyzer.isEnabled()) {
+            return null;
+        }
+        try {
+            DecodedImage decoded = decode(original.getKey(), qualityAnalyzer.getAnalysisDimension());
+            return decoded == null ? null
+                : qualityAnalyzer.analyze(decoded.getImage(), decoded.getSourceWidth(), decoded.getSourceHeight());
+        } catch (Exception e) {
+            logger.warn("⚠️ Image quality check failed for {}, skipping: {}", original.getKey(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decode a stored image, subsampled so the decoded bitmap is no larger than targetDimension
+     * on its longest side (and at most one step below it). Returns null when no ImageIO reader
+     * understands the format.
+     */
+    public DecodedImage decode(String imageKey, int targetDimension) throws IOException {
+        int orientation;
+        try (InputStream in = documentStorageService.openStream(imageKey)) {
+            orientation = readExifOrientation(in);
+        }
+
+        try (InputStream in = documentStorageService.openStream(imageKey);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+
+                // Round the step up: a 4032 px photo for a 2048 target decodes at 2016 px instead of in full
+                int longSide = Math.max(sourceWidth, sourceHeight);
+                int step = Math.max(1, (longSide + targetDimension - 1) / targetDimension);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                BufferedImage image = reader.read(0, param);
+                return new DecodedImage(image, sourceWidth, sourceHeight, orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale so the longest side fits targetDimension and apply the EXIF orientation in a single draw
+     */
+    public BufferedImage render(DecodedImage decoded, int targetDimension) {
+        BufferedImage source = decoded.getImage();
+        double scale = Math.min(1.0, (double) targetDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        int orientation = decoded.getOrientation();
+        boolean swapsAxes = orientation >= 5 && orientation <= 8;
+        BufferedImage target = new BufferedImage(
+            swapsAxes ? height : width, swapsAxes ? width : height, BufferedImage.TYPE_INT_RGB);
+
+        AffineTransform transform = orientationTransform(orientation, width, height);
+        transform.concatenate(AffineTransform.getScaleInstance(
+            (double) width / source.getWidth(), (double) height / source.getHeight()));
+
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Transparent areas (PNG) become white instead of black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Maps a width x height image stored with the given EXIF orientation to its upright position
+     */
+    private static AffineTransform orientationTransform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);       // mirrored horizontally
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height); // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);      // mirrored vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);            // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);      // rotated 90 CW
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width); // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);       // rotated 90 CCW
+            default -> new AffineTransform();
+        };
+    }
+
+    public void encodeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG encoder available");
+        }
+
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Another upload may be storing the same content right now, so the blob is only scheduled;
+     * the collector deletes it once it is idle and unreferenced
+     */
+    private void releaseIfUnreferenced(String imageKey) {
+        documentStorageService.scheduleDelete(imageKey);
+    }
+
+    /**
+     * Read the EXIF orientation tag from a JPEG header. Only the APP segments before the
+     * image data are read; anything that is not a JPEG with EXIF counts as upright.
+     */
+    static int readExifOrientation(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        try {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return ORIENTATION_NORMAL;
+            }
+
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return ORIENTATION_NORMAL; // start of scan / end of image: no EXIF
+                }
+
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return ORIENTATION_NORMAL;
+                }
+
+                if (marker == 0xFFE1) {
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    if (isExifSegment(segment)) {
+                        return parseTiffOrientation(segment, 6);
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return ORIENTATION_NORMAL;
+        }
+    }
+
+    private static boolean isExifSegment(byte[] segment) {
+        return segment.length > 14
+            && segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i' && segment[3] == 'f'
+            && segment[4] == 0 && segment[5] == 0;
+    }
+
+    private static int parseTiffOrientation(byte[] data, int tiffStart) {
+        boolean littleEndian = data[tiffStart] == 'I' && data[tiffStart + 1] == 'I';
+        long ifdOffset = readUnsigned(data, tiffStart + 4, 4, littleEndian);
+        int ifd = tiffStart + (int) ifdOffset;
+        if (ifdOffset < 8 || ifd + 2 > data.length) {
+            return ORIENTATION_NORMAL;
+        }
+
+        int entries = (int) readUnsigned(data, ifd, 2, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                break;
+            }
+            if (readUnsigned(data, entry, 2, littleEndian) == 0x0112) {
+                int orientation = (int) readUnsigned(data, entry + 8, 2, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : ORIENTATION_NORMAL;
+            }
+        }
+        return ORIENTATION_NORMAL;
+    }
+
+    private static long readUnsigned(byte[] data, int offset, int length, boolean littleEndian) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int b = data[offset + (littleEndian ? length - 1 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    /**
+     * A decoded (possibly subsampled) image together with its original size and EXIF orientation
+     */
+    public static class DecodedImage {
+        private final BufferedImage image;
+        private final int sourceWidth;
+        private final int sourceHeight;
+        private final int orientation;
+
+        public DecodedImage(BufferedImage image, int sourceWidth, int sourceHeight, int orientation) {
+            this.image = image;
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
+            this.orientation = orientation;
+        }
+
+        public BufferedImage getImage() { return image; }
+        public int getSourceWidth() { return sourceWidth; }
+        public int getSourceHeight() { return sourceHeight; }
+        public int getOrientation() { return orientation; }
+    }
+
+    /**
+     * Outcome of pre-processing: the image to use from now on, the key of the original upload
+     * when it was kept, and the quality gate result (null when the gate did not run)
+     */
+    public static class PreprocessedImage {
+        private final DocumentStorageService.StoredImage image;
+        private final String originalKey;
+        private final ImageQualityAnalyzer.QualityReport quality;
+
+        public PreprocessedImage(DocumentStorageService.StoredImage image, String originalKey,
+                                 ImageQualityAnalyzer.QualityReport quality) {
+            this.image = image;
+            this.originalKey = originalKey;
+            this.quality = quality;
+        }
+
+        public DocumentStorageService.StoredImage getImage() { return image; }
+        public String getOriginalKey() { return originalKey; }
+        public ImageQualityAnalyzer.QualityReport getQuality() { return quality; }
+    }
+}
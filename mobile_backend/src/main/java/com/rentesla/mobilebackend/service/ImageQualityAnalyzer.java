@@ -0,0 +1,272 @@
+package com.rentesla.mobilebackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local quality gate run on uploads before they are queued for OCR.
+ * The decoded image is reduced to a luminance buffer whose longest side is at most
+ * analysis-dimension pixels (2x2 box samples), and three checks run on it:
+ *  - resolution of the original upload (min-short-side / min-long-side)
+ *  - sharpness: variance of the 4-neighbour Laplacian, low for blurry or shaken photos
+ *  - glare: share of pixels at or above clip-level, high for flash reflections and overexposure
+ * Thresholds for sharpness apply to the reduced buffer, so they do not depend on the camera resolution.
+ */
+@Service
+public class ImageQualityAnalyzer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.quality.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ocr.quality.analysis-dimension:512}")
+    private int analysisDimension;
+
+    @Value("${app.ocr.quality.min-short-side:600}")
+    private int minShortSide;
+
+    @Value("${app.ocr.quality.min-long-side:800}")
+    private int minLongSide;
+
+    @Value("${app.ocr.quality.min-sharpness:40.0}")
+    private double minSharpness;
+
+    @Value("${app.ocr.quality.clip-level:250}")
+    private int clipLevel;
+
+    @Value("${app.ocr.quality.max-clipped-ratio:0.12}")
+    private double maxClippedRatio;
+
+    /**
+     * Why an upload was refused
+     */
+    public enum QualityIssue {
+        TOO_SMALL,   // resolution too low to read the text
+        BLURRY,      // out of focus or motion blur
+        GLARE        // large overexposed / reflecting areas
+    }
+
+    private Timer analysisTimer;
+    private final Map<QualityIssue, Counter> rejectedCounters = new EnumMap<>(QualityIssue.class);
+
+    @PostConstruct
+    public void initialize() {
+        analysisTimer = Timer.builder("image.quality.analysis")
+            .description("Time spent in the pre-OCR image quality gate")
+            .register(meterRegistry);
+        for (QualityIssue issue : QualityIssue.values()) {
+            rejectedCounters.put(issue, Counter.builder("image.quality.rejected")
+                .tag("reason", issue.name())
+                .register(meterRegistry));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getAnalysisDimension() {
+        return analysisDimension;
+    }
+
+    /**
+     * Check a decoded (possibly subsampled) upload. sourceWidth/sourceHeight are the
+     * dimensions of the upload as stored, before any subsampling.
+     */
+    public QualityReport analyze(BufferedImage image, int sourceWidth, int sourceHeight) {
+        long startTime = System.nanoTime();
+        try {
+            int shortSide = Math.min(sourceWidth, sourceHeight);
+            int longSide = Math.max(sourceWidth, sourceHeight);
+            if (shortSide < minShortSide || longSide < minLongSide) {
+                return reject(QualityIssue.TOO_SMALL, 0, 0,
+                    "Image is " + sourceWidth + "x" + sourceHeight + ", at least " + minLongSide + "x" + minShortSide + " is needed");
+            }
+
+            LuminanceBuffer luminance = LuminanceBuffer.of(image, analysisDimension);
+            double clippedRatio = luminance.clippedRatio(clipLevel);
+            double sharpness = luminance.laplacianVariance();
+
+            if (clippedRatio > maxClippedRatio) {
+                return reject(QualityIssue.GLARE, sharpness, clippedRatio,
+                    String.format("%.0f%% of the image is overexposed", clippedRatio * 100));
+            }
+            if (sharpness < minSharpness) {
+                return reject(QualityIssue.BLURRY, sharpness, clippedRatio,
+                    String.format("Image is not sharp enough (%.1f < %.1f)", sharpness, minSharpness));
+            }
+            return new QualityReport(null, sharpness, clippedRatio, null);
+        } finally {
+            analysisTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private QualityReport reject(QualityIssue issue, double sharpness, double clippedRatio, String message) {
+        rejectedCounters.get(issue).increment();
+        return new QualityReport(issue, sharpness, clippedRatio, message);
+    }
+
+    /**
+     * 8-bit luminance of an image reduced to at most maxDimension on its longest side
+     */
+    static final class LuminanceBuffer {
+        private final byte[] pixels;
+        private final int width;
+        private final int height;
+
+        private LuminanceBuffer(byte[] pixels, int width, int height) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+        }
+
+        static LuminanceBuffer of(BufferedImage image, int maxDimension) {
+            int sourceWidth = image.getWidth();
+            int sourceHeight = image.getHeight();
+            double scale = Math.min(1.0, (double) maxDimension / Math.max(sourceWidth, sourceHeight));
+            int width = Math.max(1, (int) (sourceWidth * scale));
+            int height = Math.max(1, (int) (sourceHeight * scale));
+
+            PixelReader reader = PixelReader.of(image);
+            byte[] pixels = new byte[width * height];
+            for (int y = 0; y < height; y++) {
+                int sy0 = (int) ((long) y * sourceHeight / height);
+                int sy1 = Math.min(sourceHeight - 1, sy0 + 1);
+                for (int x = 0; x < width; x++) {
+                    int sx0 = (int) ((long) x * sourceWidth / width);
+                    int sx1 = Math.min(sourceWidth - 1, sx0 + 1);
+                    int sum = reader.luma(sx0, sy0) + reader.luma(sx1, sy0)
+                            + reader.luma(sx0, sy1) + reader.luma(sx1, sy1);
+                    pixels[y * width + x] = (byte) (sum >> 2);
+                }
+            }
+            return new LuminanceBuffer(pixels, width, height);
+        }
+
+        double clippedRatio(int clipLevel) {
+            int clipped = 0;
+            for (byte pixel : pixels) {
+                if ((pixel & 0xFF) >= clipLevel) {
+                    clipped++;
+                }
+            }
+            return (double) clipped / pixels.length;
+        }
+
+        /**
+         * Variance of the 4-neighbour Laplacian over the interior pixels (single pass)
+         */
+        double laplacianVariance() {
+            if (width < 3 || height < 3) {
+                return 0;
+            }
+            long sum = 0;
+            long sumOfSquares = 0;
+            for (int y = 1; y < height - 1; y++) {
+                int row = y * width;
+                for (int x = 1; x < width - 1; x++) {
+                    int i = row + x;
+                    int laplacian = (pixels[i - 1] & 0xFF) + (pixels[i + 1] & 0xFF)
+                                  + (pixels[i - width] & 0xFF) + (pixels[i + width] & 0xFF)
+                                  - 4 * (pixels[i] & 0xFF);
+                    sum += laplacian;
+                    sumOfSquares += (long) laplacian * laplacian;
+                }
+            }
+            long count = (long) (width - 2) * (height - 2);
+            double mean = (double) sum / count;
+            return (double) sumOfSquares / count - mean * mean;
+        }
+    }
+
+    /**
+     * Luma (BT.601, integer weights) straight from the raster for the image types ImageIO
+     * produces for JPEG and PNG; anything else goes through getRGB
+     */
+    private interface PixelReader {
+        int luma(int x, int y);
+
+        static PixelReader of(BufferedImage image) {
+            int width = image.getWidth();
+            switch (image.getType()) {
+                case BufferedImage.TYPE_3BYTE_BGR: {
+                    byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                    return (x, y) -> {
+                        int i = (y * width + x) * 3;
+                        return luma(data[i + 2] & 0xFF, data[i + 1] & 0xFF, data[i] & 0xFF);
+                    };
+                }
+                case BufferedImage.TYPE_BYTE_GRAY: {
+                    byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                    return (x, y) -> data[y * width + x] & 0xFF;
+                }
+                case BufferedImage.TYPE_INT_RGB:
+                case BufferedImage.TYPE_INT_ARGB: {
+                    int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                    return (x, y) -> rgbLuma(data[y * width + x]);
+                }
+                default:
+                    return (x, y) -> rgbLuma(image.getRGB(x, y));
+            }
+        }
+
+        private static int rgbLuma(int rgb) {
+            return luma((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        }
+
+        private static int luma(int r, int g, int b) {
+            return (77 * r + 150 * g + 29 * b) >> 8;
+        }
+    }
+
+    /**
+     * Result of the quality gate; issue is null when the image is usable
+     */
+    public static class QualityReport {
+        private final QualityIssue issue;
+        private final double sharpness;
+        private final double clippedRatio;
+        private final String message;
+
+        public QualityReport(QualityIssue issue, double sharpness, double clippedRatio, String message) {
+            this.issue = issue;
+            this.sharpness = sharpness;
+            this.clippedRatio = clippedRatio;
+            this.message = message;
+        }
+
+        public boolean isAcceptable() { return issue == null; }
+        public QualityIssue getIssue() { return issue; }
+        public double getSharpness() { return sharpness; }
+        public double getClippedRatio() { return clippedRatio; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Thrown from the upload path when the photo fails the quality gate
+     */
+    public static class ImageRejectedException extends RuntimeException {
+        private final QualityReport report;
+
+        public ImageRejectedException(QualityReport report) {
+            super(report.getMessage());
+            this.report = report;
+        }
+
+        public QualityReport getReport() { return report; }
+    }
+}
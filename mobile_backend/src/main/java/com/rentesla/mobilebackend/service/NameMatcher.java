@@ -0,0 +1,115 @@
+package com.rentesla.mobilebackend.service;
+
+/**
+ * Fuzzy comparison of a name read by OCR against the name the user registered with.
+ * Both names are folded with {@link TurkishTextNormalizer}, then compared as a whole and,
+ * for compound names, word by word. Two names are similar when their edit distance is
+ * below 20% of the longer one; the distance is computed in a band of that width and
+ * stops as soon as the threshold can no longer be met.
+ */
+public final class NameMatcher {
+
+    private NameMatcher() {
+    }
+
+    /**
+     * Whether an extracted name matches a registered name
+     */
+    public static boolean matches(String extractedName, String registeredName) {
+        if (extractedName == null || registeredName == null) {
+            return false;
+        }
+
+        String extracted = TurkishTextNormalizer.fold(extractedName);
+        String registered = TurkishTextNormalizer.fold(registeredName);
+        if (extracted.isEmpty() || registered.isEmpty()) {
+            return false;
+        }
+
+        return isSimilar(extracted, registered) || tokensMatch(extracted, registered);
+    }
+
+    /**
+     * Similarity above 80%: (maxLength - distance) / maxLength > 0.8
+     */
+    static boolean isSimilar(String a, String b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        int maxDistance = (Math.max(a.length(), b.length()) - 1) / 5;
+        return boundedDistance(a, b, maxDistance) <= maxDistance;
+    }
+
+    /**
+     * Compound names: every word of the name with fewer words must match a word of the
+     * other name, in order (e.g. "AHMET" against "AHMET CAN", "MEHMET ALI" against "MEHMET ALI KAYA")
+     */
+    private static boolean tokensMatch(String a, String b) {
+        String[] tokensA = a.split(" ");
+        String[] tokensB = b.split(" ");
+        if (tokensA.length == 1 && tokensB.length == 1) {
+            return false;
+        }
+
+        String[] shorter = tokensA.length <= tokensB.length ? tokensA : tokensB;
+        String[] longer = shorter == tokensA ? tokensB : tokensA;
+
+        int next = 0;
+        for (String token : shorter) {
+            while (next < longer.length && !isSimilar(token, longer[next])) {
+                next++;
+            }
+            if (next == longer.length) {
+                return false;
+            }
+            next++;
+        }
+        return true;
+    }
+
+    /**
+     * Levenshtein distance limited to maxDistance: two rows, only the diagonal band of
+     * width 2 * maxDistance + 1 is filled. Returns maxDistance + 1 when the distance is larger.
+     */
+    static int boundedDistance(String s, String t, int maxDistance) {
+        int n = s.length();
+        int m = t.length();
+        int over = maxDistance + 1;
+        if (Math.abs(n - m) > maxDistance) {
+            return over;
+        }
+
+        int[] previous = new int[m + 2];
+        int[] current = new int[m + 2];
+        for (int j = 0; j <= Math.min(m, over); j++) {
+            previous[j] = Math.min(j, over);
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+
+            current[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = current[from - 1];
+            char c = s.charAt(i - 1);
+
+            for (int j = from; j <= to; j++) {
+                int cost = c == t.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            current[to + 1] = over;
+
+            if (rowMin > maxDistance) {
+                return over;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[m];
+    }
+}
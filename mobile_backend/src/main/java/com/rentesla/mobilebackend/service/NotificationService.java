@@ -10,8 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
@@ -91,6 +93,51 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Send one notification for several documents of a user reviewed at once (bulk review)
+     */
+    public void sendDocumentsReviewedNotification(Long userId, List<Long> documentIds, Document.DocumentStatus status) {
+        if (documentIds.size() == 1) {
+            sendDocumentReviewedNotification(userId, documentIds.get(0), status);
+            return;
+        }
+
+        logger.info("📤 Sending reviewed notification to user: {} for {} documents with status: {}",
+                   userId, documentIds.size(), status);
+        
+        try {
+            String title;
+            String body;
+            String notificationType;
+            
+            if (status == Document.DocumentStatus.APPROVED) {
+                title = messageService.getMessage("notification.document.approved.title");
+                body = messageService.getMessage("notification.document.approved.body");
+                notificationType = Notification.Type.DOCUMENT_APPROVED;
+            } else if (status == Document.DocumentStatus.REJECTED) {
+                title = messageService.getMessage("notification.document.rejected.title");
+                body = messageService.getMessage("notification.document.rejected.body");
+                notificationType = Notification.Type.DOCUMENT_REJECTED;
+            } else {
+                logger.warn("⚠️ Unknown document status for notification: {}", status);
+                return;
+            }
+            
+            Map<String, String> data = new HashMap<>();
+            data.put("type", notificationType);
+            data.put("documentIds", documentIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            data.put("documentCount", String.valueOf(documentIds.size()));
+            data.put("userId", userId.toString());
+            data.put("status", status.name());
+            data.put("action", "document_reviewed");
+            
+            fcmService.sendToUser(userId, title, body, data, notificationType);
+            
+        } catch (Exception e) {
+            logger.error("❌ Failed to send documents reviewed notification: {}", e.getMessage());
+        }
+    }
+
     /**
      * Send notification when user verification is complete
      */
@@ -0,0 +1,252 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batching dispatcher for Google Cloud Vision.
+ * Pending image requests are gathered for up to linger-ms or max-size images and sent as a
+ * single batchAnnotateImages call; each AnnotateImageResponse is routed back to the future
+ * of the request that produced it. Requests submitted together with submitAll (the front and
+ * back of one document) always travel in the same call.
+ *
+ * Each call takes one {@link OCRProviderGuard} permit, so the adaptive limit bounds batch calls in
+ * flight, not images. A batch holds the images submitted within linger-ms, up to max-size; since
+ * every OCR worker waits for one image (two for a front/back pair), that is at most
+ * ocr.workers.size images, or twice that with pairs, capped at max-size (Vision allows 16).
+ * When no permit frees up within permit-wait-ms, or the breaker is open, the batch is rejected
+ * and its jobs go back to the job queue without using up an attempt.
+ */
+@Service
+public class OCRBatchDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRBatchDispatcher.class);
+
+    // Synchronous batchAnnotateImages accepts at most 16 images per call
+    private static final int VISION_MAX_BATCH_SIZE = 16;
+
+    @Autowired
+    private VisionClientManager visionClientManager;
+
+    @Autowired
+    private OCRProviderGuard providerGuard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.batch.max-size:8}")
+    private int maxBatchSize;
+
+    @Value("${app.ocr.batch.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${app.ocr.batch.permit-wait-ms:2000}")
+    private long permitWaitMs;
+
+    // Sends block for the round trip, so this also caps batch calls in flight
+    @Value("${app.ocr.batch.dispatch-threads:${app.ocr.provider.limit.max:8}}")
+    private int dispatchThreads;
+
+    private final Object lock = new Object();
+    private List<PendingRequest> pending = new ArrayList<>();
+    private ScheduledFuture<?> lingerTimer;
+
+    private ScheduledExecutorService dispatcher;
+    private DistributionSummary batchSizeSummary;
+    private Counter batchCounter;
+
+    @PostConstruct
+    public void initialize() {
+        maxBatchSize = Math.max(1, Math.min(maxBatchSize, VISION_MAX_BATCH_SIZE));
+
+        AtomicInteger counter = new AtomicInteger();
+        dispatcher = Executors.newScheduledThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ocr-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        batchSizeSummary = DistributionSummary.builder("ocr.batch.size")
+            .description("Images per batchAnnotateImages call")
+            .register(meterRegistry);
+        batchCounter = Counter.builder("ocr.batch.calls")
+            .description("batchAnnotateImages round trips")
+            .register(meterRegistry);
+
+        logger.info("📦 OCR batch dispatcher started - Max batch size: {}, Linger: {}ms, Dispatch threads: {}",
+            maxBatchSize, lingerMs, dispatchThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<PendingRequest> remaining;
+        synchronized (lock) {
+            remaining = takePending();
+        }
+        if (!remaining.isEmpty()) {
+            send(remaining);
+        }
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Images per batch call at most
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Queue an image request for the next batch
+     */
+    public CompletableFuture<AnnotateImageResponse> submit(AnnotateImageRequest request) {
+        return submitAll(List.of(request)).get(0);
+    }
+
+    /**
+     * Queue image requests that must be sent in the same batch; futures are in request order
+     */
+    public List<CompletableFuture<AnnotateImageResponse>> submitAll(List<AnnotateImageRequest> requests) {
+        List<PendingRequest> group = new ArrayList<>(requests.size());
+        for (AnnotateImageRequest request : requests) {
+            group.add(new PendingRequest(request));
+        }
+        List<PendingRequest> overflowBatch = null;
+        List<PendingRequest> fullBatch = null;
+
+        synchronized (lock) {
+            // Never split a group: send what is pending first if the group would not fit the call
+            if (!pending.isEmpty() && pending.size() + group.size() > VISION_MAX_BATCH_SIZE) {
+                overflowBatch = takePending();
+            }
+            pending.addAll(group);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (lingerTimer == null) {
+                lingerTimer = dispatcher.schedule(this::flushOnLinger, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (overflowBatch != null) {
+            List<PendingRequest> batch = overflowBatch;
+            dispatcher.execute(() -> send(batch));
+        }
+        if (fullBatch != null) {
+            List<PendingRequest> batch = fullBatch;
+            dispatcher.execute(() -> send(batch));
+        }
+
+        List<CompletableFuture<AnnotateImageResponse>> futures = new ArrayList<>(group.size());
+        for (PendingRequest pendingRequest : group) {
+            futures.add(pendingRequest.future);
+        }
+        return futures;
+    }
+
+    private void flushOnLinger() {
+        List<PendingRequest> batch;
+        synchronized (lock) {
+            lingerTimer = null;
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Detach the pending batch. Caller must hold the lock.
+     */
+    private List<PendingRequest> takePending() {
+        List<PendingRequest> batch = pending;
+        pending = new ArrayList<>();
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+        return batch;
+    }
+
+    private void send(List<PendingRequest> batch) {
+        List<AnnotateImageRequest> requests = new ArrayList<>(batch.size());
+        for (PendingRequest pendingRequest : batch) {
+            requests.add(pendingRequest.request);
+        }
+
+        if (!acquirePermit()) {
+            logger.warn("⏸️ OCR batch of {} image(s) rejected: provider limit reached or breaker open", batch.size());
+            for (PendingRequest pendingRequest : batch) {
+                pendingRequest.future.completeExceptionally(
+                    new OCRExecutionEngine.OCRRejectedException("OCR provider limit reached or breaker open"));
+            }
+            return;
+        }
+
+        batchCounter.increment();
+        batchSizeSummary.record(batch.size());
+        logger.info("📤 Sending OCR batch of {} image(s) to Google Cloud Vision API", batch.size());
+
+        long startTime = System.currentTimeMillis();
+        OCRProviderGuard.Outcome outcome = OCRProviderGuard.Outcome.SUCCESS;
+        try {
+            BatchAnnotateImagesResponse response = visionClientManager.execute(
+                client -> client.batchAnnotateImages(requests));
+
+            // Responses come back in request order
+            for (int i = 0; i < batch.size(); i++) {
+                if (i < response.getResponsesCount()) {
+                    batch.get(i).future.complete(response.getResponses(i));
+                } else {
+                    batch.get(i).future.completeExceptionally(new GoogleCloudVisionOCRService.OCRProcessingException(
+                        "Google Cloud Vision returned no response for image " + i + " of batch", null));
+                }
+            }
+        } catch (Exception e) {
+            outcome = OCRProviderGuard.outcomeOf(e);
+            logger.error("❌ OCR batch of {} image(s) failed: {}", batch.size(), e.getMessage());
+            for (PendingRequest pendingRequest : batch) {
+                pendingRequest.future.completeExceptionally(e);
+            }
+        } finally {
+            providerGuard.release(outcome, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return providerGuard.acquire(permitWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class PendingRequest {
+        private final AnnotateImageRequest request;
+        private final CompletableFuture<AnnotateImageResponse> future = new CompletableFuture<>();
+
+        PendingRequest(AnnotateImageRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.rentesla.mobilebackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated execution engine for OCR jobs.
+ * A fixed set of workers drains a bounded queue; when the queue is full the configured
+ * overflow policy applies. Per-job timeouts are driven by one shared timer thread, so no extra
+ * thread is created per job: at the deadline the timer fails the job's future and then interrupts
+ * the worker. The caller never waits for a provider call that ignores the interrupt.
+ * Callers' completion stages run on a separate callback pool, never on the timer or a worker,
+ * so slow follow-up work (DB updates, notifications) cannot hold up other jobs' deadlines.
+ */
+@Service
+public class OCRExecutionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRExecutionEngine.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.workers.size:8}")
+    private int workerCount;
+
+    @Value("${app.ocr.queue.capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.ocr.queue.overflow-policy:REJECT}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.ocr.timeout.seconds:30}")
+    private int ocrTimeoutSeconds;
+
+    @Value("${app.ocr.workers.callback-size:4}")
+    private int callbackCount;
+
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService timeoutScheduler;
+    private ExecutorService callbacks;
+
+    private Timer waitTimer;
+    private Timer runTimer;
+    private Counter completedCounter;
+    private Counter failedCounter;
+    private Counter timeoutCounter;
+    private Counter rejectedCounter;
+
+    /**
+     * What to do with a job when the queue is full
+     */
+    public enum OverflowPolicy {
+        REJECT,       // fail the job immediately, caller decides the fallback
+        CALLER_RUNS   // run the job on the submitting thread (back-pressure on uploads)
+    }
+
+    @PostConstruct
+    public void initialize() {
+        workers = new ThreadPoolExecutor(
+            workerCount, workerCount,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedThreadFactory("ocr-worker-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("ocr-timeout-"));
+        callbacks = Executors.newFixedThreadPool(callbackCount, namedThreadFactory("ocr-callback-"));
+
+        waitTimer = Timer.builder("ocr.job.wait")
+            .description("Time OCR jobs spend queued before a worker picks them up")
+            .register(meterRegistry);
+        runTimer = Timer.builder("ocr.job.run")
+            .description("Time OCR jobs spend running on a worker")
+            .register(meterRegistry);
+        completedCounter = Counter.builder("ocr.jobs.completed").register(meterRegistry);
+        failedCounter = Counter.builder("ocr.jobs.failed").register(meterRegistry);
+        timeoutCounter = Counter.builder("ocr.jobs.timeout").register(meterRegistry);
+        rejectedCounter = Counter.builder("ocr.jobs.rejected").register(meterRegistry);
+
+        Gauge.builder("ocr.queue.depth", workers, executor -> executor.getQueue().size())
+            .description("OCR jobs waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("ocr.queue.remaining", workers, executor -> executor.getQueue().remainingCapacity())
+            .register(meterRegistry);
+        Gauge.builder("ocr.workers.active", workers, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+        Gauge.builder("ocr.workers.size", workers, ThreadPoolExecutor::getMaximumPoolSize)
+            .register(meterRegistry);
+
+        logger.info("⚙️ OCR execution engine started - Workers: {}, Queue capacity: {}, Overflow policy: {}, Timeout: {}s",
+            workerCount, queueCapacity, overflowPolicy, ocrTimeoutSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("🛑 Shutting down OCR execution engine...");
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        timeoutScheduler.shutdownNow();
+        // Let results already handed over finish recording their outcome
+        callbacks.shutdown();
+        try {
+            if (!callbacks.awaitTermination(10, TimeUnit.SECONDS)) {
+                callbacks.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            callbacks.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submit an OCR job. The returned future completes with the job's result, with
+     * {@link GoogleCloudVisionOCRService.OCRTimeoutException} as soon as the job exceeds the
+     * configured timeout (whatever the worker is still doing), or with {@link OCRRejectedException}
+     * when the queue is full. It always completes on a callback thread, so stages chained on it
+     * with the non-async methods run there.
+     */
+    public <T> CompletableFuture<T> submit(Long documentId, Callable<T> work) {
+        OCRJob<T> job = new OCRJob<>(documentId, work);
+
+        try {
+            workers.execute(job.task);
+        } catch (RejectedExecutionException e) {
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS && !workers.isShutdown()) {
+                logger.warn("⚠️ OCR queue full, running job for document {} on caller thread", documentId);
+                job.task.run();
+            } else {
+                rejectedCounter.increment();
+                logger.warn("🚫 OCR queue full ({} jobs), rejecting job for document {}", queueCapacity, documentId);
+                job.result.completeExceptionally(new OCRRejectedException(
+                    "OCR queue is full (" + queueCapacity + " jobs waiting)"));
+            }
+        }
+
+        return handOver(job.result);
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public int getRemainingCapacity() {
+        return workers.getQueue().remainingCapacity();
+    }
+
+    public int getActiveWorkers() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * Re-deliver the outcome on the callback pool, keeping the original exception type
+     */
+    private <T> CompletableFuture<T> handOver(CompletableFuture<T> result) {
+        CompletableFuture<T> delivered = new CompletableFuture<>();
+        result.whenCompleteAsync((value, error) -> {
+            if (error != null) {
+                delivered.completeExceptionally(error);
+            } else {
+                delivered.complete(value);
+            }
+        }, callbacks);
+        return delivered;
+    }
+
+    private class OCRJob<T> implements Callable<T> {
+        private final Long documentId;
+        private final Callable<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final FutureTask<T> task = new FutureTask<>(this);
+        private final long enqueuedAt = System.nanoTime();
+
+        OCRJob(Long documentId, Callable<T> work) {
+            this.documentId = documentId;
+            this.work = work;
+        }
+
+        @Override
+        public T call() throws Exception {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+
+            ScheduledFuture<?> timeout = timeoutScheduler.schedule(this::timeout, ocrTimeoutSeconds, TimeUnit.SECONDS);
+            try {
+                T value = work.call();
+                // After a timeout the future has already failed; a late result is dropped
+                if (result.complete(value)) {
+                    completedCounter.increment();
+                }
+                return value;
+            } catch (Exception e) {
+                if (result.completeExceptionally(e)) {
+                    failedCounter.increment();
+                }
+                throw e;
+            } finally {
+                timeout.cancel(false);
+                runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                // Clear a pending interrupt so it does not leak into the next job on this worker
+                Thread.interrupted();
+            }
+        }
+
+        /**
+         * Fail the caller's future first, so the deadline holds even if the worker never reacts
+         * to the interrupt (e.g. blocked in socket IO), then interrupt the worker
+         */
+        private void timeout() {
+            boolean timedOut = result.completeExceptionally(new GoogleCloudVisionOCRService.OCRTimeoutException(
+                "OCR processing timeout after " + ocrTimeoutSeconds + " seconds"));
+            if (!timedOut) {
+                return; // finished just before the deadline
+            }
+            timeoutCounter.increment();
+            logger.warn("⏰ OCR job for document {} exceeded {}s, interrupting worker", documentId, ocrTimeoutSeconds);
+            task.cancel(true);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Raised when the OCR queue is full and the overflow policy is REJECT
+     */
+    public static class OCRRejectedException extends Exception {
+        public OCRRejectedException(String message) {
+            super(message);
+        }
+    }
+}
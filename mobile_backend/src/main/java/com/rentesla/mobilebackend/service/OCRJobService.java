@@ -0,0 +1,411 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRJob;
+import com.rentesla.mobilebackend.repository.OCRJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistent OCR job queue shared by all backend instances.
+ * Jobs are claimed under a lease with SELECT ... FOR UPDATE SKIP LOCKED; failed attempts are
+ * retried with exponential backoff and dead-lettered after max-attempts. A node only records the
+ * outcome of a job while it still holds the lease under the attempt it claimed; once the lease
+ * expired and the job was claimed again, the late outcome is dropped.
+ *
+ * Jobs belong to priority classes that share claim capacity by weight (smooth weighted
+ * round-robin): a class with work gets weight / sum(weights of classes with work) of the
+ * slots, so a flood of signups cannot hold back users at a car, and low classes still
+ * progress. Slots a class cannot use, because it has too little work or its jobs are locked
+ * by other nodes, go to the others.
+ */
+@Service
+@Transactional
+public class OCRJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRJobService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OCRJobRepository jobRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.ocr.jobs.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.ocr.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.ocr.jobs.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${app.ocr.jobs.backoff.base-seconds:10}")
+    private int backoffBaseSeconds;
+
+    @Value("${app.ocr.jobs.backoff.max-seconds:600}")
+    private int backoffMaxSeconds;
+
+    @Value("${app.ocr.jobs.priority.weights.active-reservation:8}")
+    private int activeReservationWeight;
+
+    @Value("${app.ocr.jobs.priority.weights.first-signup:4}")
+    private int firstSignupWeight;
+
+    @Value("${app.ocr.jobs.priority.weights.reupload:2}")
+    private int reuploadWeight;
+
+    @Value("${app.ocr.jobs.priority.weights.admin-rerun:1}")
+    private int adminRerunWeight;
+
+    private String nodeId;
+
+    private final Map<OCRJob.JobPriority, Integer> weights = new EnumMap<>(OCRJob.JobPriority.class);
+
+    // Smooth weighted round-robin state, carried across claims (guarded by this)
+    private final Map<OCRJob.JobPriority, Integer> currentWeights = new EnumMap<>(OCRJob.JobPriority.class);
+
+    /**
+     * Published when a job is queued, so the local worker can pick it up right after commit
+     */
+    public static class JobEnqueuedEvent {
+        private final Long documentId;
+
+        public JobEnqueuedEvent(Long documentId) {
+            this.documentId = documentId;
+        }
+
+        public Long getDocumentId() { return documentId; }
+    }
+
+    @PostConstruct
+    public void initialize() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+        weights.put(OCRJob.JobPriority.ACTIVE_RESERVATION, Math.max(1, activeReservationWeight));
+        weights.put(OCRJob.JobPriority.FIRST_SIGNUP, Math.max(1, firstSignupWeight));
+        weights.put(OCRJob.JobPriority.REUPLOAD, Math.max(1, reuploadWeight));
+        weights.put(OCRJob.JobPriority.ADMIN_RERUN, Math.max(1, adminRerunWeight));
+        for (OCRJob.JobPriority priority : OCRJob.JobPriority.values()) {
+            currentWeights.put(priority, 0);
+        }
+        logger.info("🗂️ OCR job queue node id: {} (max attempts: {}, lease: {}s, weights: {})",
+            nodeId, maxAttempts, leaseSeconds, weights);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Queue OCR for a document (or re-queue it if it already has a job)
+     */
+    public OCRJob enqueue(Document document, OCRJob.JobPriority priority) {
+        OCRJob job = jobRepository.findByDocumentId(document.getId())
+            .orElseGet(() -> new OCRJob(document.getId(), document.getUserId(), priority));
+
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(OCRJob.JobStatus.QUEUED);
+        job.setPriority(priority);
+        job.setAttempts(0);
+        job.setNextAttemptAt(now);
+        job.setQueuedAt(now);
+        job.setDispatchedAt(null);
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setLastError(null);
+
+        OCRJob saved = jobRepository.save(job);
+        eventPublisher.publishEvent(new JobEnqueuedEvent(document.getId()));
+        logger.info("📥 OCR job {} queued for document {} ({})", saved.getId(), document.getId(), priority);
+        return saved;
+    }
+
+    /**
+     * Claim up to limit runnable jobs for this node, split across priority classes by weight.
+     * Jobs whose lease expired after their last allowed attempt are dead-lettered instead of claimed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ClaimedJobs claim(int limit) {
+        ClaimedJobs claimed = new ClaimedJobs();
+        if (limit <= 0) {
+            return claimed;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<OCRJob.JobPriority, Long> backlog = new EnumMap<>(OCRJob.JobPriority.class);
+        for (Object[] row : jobRepository.countRunnableByPriority(now)) {
+            backlog.put(OCRJob.JobPriority.valueOf((String) row[0]), ((Number) row[1]).longValue());
+        }
+
+        // The backlog counts rows other nodes hold too, so a class can lock fewer jobs than it was
+        // given slots. Its shortfall is handed to the classes that still have work, until every
+        // slot is used or no class can take more.
+        Map<Long, OCRJob> locked = new LinkedHashMap<>();
+        Map<OCRJob.JobPriority, Integer> held = new EnumMap<>(OCRJob.JobPriority.class);
+        int wanted = limit;
+        while (wanted > 0) {
+            int shortfall = 0;
+            for (Map.Entry<OCRJob.JobPriority, Integer> entry : allocate(wanted, backlog).entrySet()) {
+                OCRJob.JobPriority priority = entry.getKey();
+                int slots = entry.getValue();
+                // Rows this transaction already locked are not skipped, so ask for them again and keep the new ones
+                int alreadyHeld = held.getOrDefault(priority, 0);
+                int added = 0;
+                for (OCRJob job : jobRepository.lockRunnableJobs(priority.name(), now, alreadyHeld + slots)) {
+                    if (added < slots && !locked.containsKey(job.getId())) {
+                        locked.put(job.getId(), job);
+                        added++;
+                    }
+                }
+                held.put(priority, alreadyHeld + added);
+                if (added < slots) {
+                    shortfall += slots - added;
+                    backlog.put(priority, 0L);
+                } else {
+                    backlog.merge(priority, (long) -slots, Long::sum);
+                }
+            }
+            wanted = shortfall;
+        }
+
+        for (OCRJob job : locked.values()) {
+            if (job.getStatus() == OCRJob.JobStatus.RUNNING) {
+                logger.warn("⌛ Lease of OCR job {} held by {} expired, reclaiming", job.getId(), job.getLeaseOwner());
+                if (job.getAttempts() >= maxAttempts) {
+                    deadLetter(job, "Lease expired on attempt " + job.getAttempts() + " (node " + job.getLeaseOwner() + ")");
+                    claimed.deadLettered.add(job);
+                    continue;
+                }
+            }
+
+            job.setStatus(OCRJob.JobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLeaseOwner(nodeId);
+            job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+            job.setUpdatedAt(now);
+            claimed.runnable.add(job);
+        }
+
+        jobRepository.saveAll(claimed.runnable);
+        jobRepository.saveAll(claimed.deadLettered);
+        return claimed;
+    }
+
+    /**
+     * Claim the job of a specific document (the other face of a document being processed) so
+     * both faces run together. Empty when the job is running elsewhere or out of attempts.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<OCRJob> claimForDocument(Long documentId) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<OCRJob> found = jobRepository.lockIdleJobOfDocument(documentId, now);
+        if (found.isEmpty() || found.get().getAttempts() >= maxAttempts) {
+            return Optional.empty();
+        }
+
+        OCRJob job = found.get();
+        job.setStatus(OCRJob.JobStatus.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setLeaseOwner(nodeId);
+        job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+        job.setUpdatedAt(now);
+        return Optional.of(jobRepository.save(job));
+    }
+
+    /**
+     * Put a claimed job back until the given time without counting the attempt
+     * (waiting for the other face of the document to be uploaded)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void defer(OCRJob job, LocalDateTime until) {
+        if (jobRepository.requeueHeld(job.getId(), nodeId, job.getAttempts(), until, LocalDateTime.now()) == 0) {
+            logLeaseLost(job, "defer");
+        }
+    }
+
+    /**
+     * Keep the leases of jobs this node is still working on
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void renewLeases(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.renewLeases(jobIds, nodeId, now.plusSeconds(leaseSeconds), now);
+    }
+
+    /**
+     * Note that jobs were handed to a worker, so their queue wait is recorded only once
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markDispatched(Collection<OCRJob> jobs) {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.forEach(job -> job.setDispatchedAt(now));
+        jobRepository.markDispatched(jobs.stream().map(OCRJob::getId).toList(), now);
+    }
+
+    /**
+     * Whether this node still holds the job under the attempt it claimed, i.e. its lease did not
+     * expire and the job was not claimed again
+     */
+    @Transactional(readOnly = true)
+    public boolean holdsLease(OCRJob job) {
+        return jobRepository.existsByIdAndStatusAndLeaseOwnerAndAttempts(
+            job.getId(), OCRJob.JobStatus.RUNNING, nodeId, job.getAttempts());
+    }
+
+    /**
+     * Finish a claimed job. Returns false when the lease was lost.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markSucceeded(OCRJob job) {
+        if (jobRepository.completeHeld(job.getId(), nodeId, job.getAttempts(), LocalDateTime.now()) == 0) {
+            logLeaseLost(job, "success");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record a failed attempt. Returns true when the job has been dead-lettered,
+     * false when it was scheduled for another attempt or the lease was lost.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markFailed(OCRJob job, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getAttempts() >= maxAttempts) {
+            if (jobRepository.deadLetterHeld(job.getId(), nodeId, job.getAttempts(), truncate(error), now) == 0) {
+                logLeaseLost(job, "failure");
+                return false;
+            }
+            logger.error("☠️ OCR job {} for document {} dead-lettered after {} attempts: {}",
+                job.getId(), job.getDocumentId(), job.getAttempts(), error);
+            return true;
+        }
+
+        long delay = Math.min(backoffMaxSeconds, (long) backoffBaseSeconds << Math.min(20, job.getAttempts() - 1));
+        if (jobRepository.retryHeld(job.getId(), nodeId, job.getAttempts(), now.plusSeconds(delay), truncate(error), now) == 0) {
+            logLeaseLost(job, "failure");
+            return false;
+        }
+
+        logger.warn("🔁 OCR job {} attempt {}/{} failed, retrying in {}s: {}",
+            job.getId(), job.getAttempts(), maxAttempts, delay, error);
+        return false;
+    }
+
+    /**
+     * Put a claimed job back without counting the attempt (e.g. the local OCR queue was full)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(OCRJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jobRepository.requeueHeld(job.getId(), nodeId, job.getAttempts(), now, now) == 0) {
+            logLeaseLost(job, "release");
+        }
+    }
+
+    /**
+     * Startup recovery: return jobs this node held before it stopped and queue PENDING
+     * documents that never got a job
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = jobRepository.releaseLeasesOf(nodeId, now);
+        int orphaned = jobRepository.enqueueOrphanedPendingDocuments(now);
+        logger.info("♻️ OCR job recovery - Released own leases: {}, Queued orphaned documents: {}", released, orphaned);
+    }
+
+    /**
+     * Split limit slots over the classes with backlog by smooth weighted round-robin.
+     * Classes without work neither get slots nor build up credit.
+     */
+    private synchronized Map<OCRJob.JobPriority, Integer> allocate(int limit, Map<OCRJob.JobPriority, Long> backlog) {
+        Map<OCRJob.JobPriority, Integer> slots = new EnumMap<>(OCRJob.JobPriority.class);
+        Map<OCRJob.JobPriority, Long> remaining = new EnumMap<>(backlog);
+
+        for (int i = 0; i < limit; i++) {
+            OCRJob.JobPriority picked = null;
+            int totalWeight = 0;
+            for (OCRJob.JobPriority priority : OCRJob.JobPriority.values()) {
+                if (remaining.getOrDefault(priority, 0L) <= 0) {
+                    continue;
+                }
+                int weight = weights.get(priority);
+                totalWeight += weight;
+                currentWeights.merge(priority, weight, Integer::sum);
+                if (picked == null || currentWeights.get(priority) > currentWeights.get(picked)) {
+                    picked = priority;
+                }
+            }
+            if (picked == null) {
+                break;
+            }
+            currentWeights.merge(picked, -totalWeight, Integer::sum);
+            slots.merge(picked, 1, Integer::sum);
+            remaining.merge(picked, -1L, Long::sum);
+        }
+        return slots;
+    }
+
+    private void logLeaseLost(OCRJob job, String action) {
+        logger.warn("⌛ Lease of OCR job {} (attempt {}) was lost, {} not recorded", job.getId(), job.getAttempts(), action);
+    }
+
+    private void deadLetter(OCRJob job, String error) {
+        job.setStatus(OCRJob.JobStatus.DEAD);
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setLastError(truncate(error));
+        logger.error("☠️ OCR job {} for document {} dead-lettered after {} attempts: {}",
+            job.getId(), job.getDocumentId(), job.getAttempts(), error);
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node-" + UUID.randomUUID();
+        }
+    }
+
+    /**
+     * Result of a claim: jobs to run now and jobs that were dead-lettered instead
+     */
+    public static class ClaimedJobs {
+        private final List<OCRJob> runnable = new ArrayList<>();
+        private final List<OCRJob> deadLettered = new ArrayList<>();
+
+        public List<OCRJob> getRunnable() { return runnable; }
+        public List<OCRJob> getDeadLettered() { return deadLettered; }
+    }
+}
@@ -0,0 +1,381 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRJob;
+import com.rentesla.mobilebackend.entity.User;
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import com.rentesla.mobilebackend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pulls OCR jobs from the persistent queue into the local OCR execution engine.
+ * Only as many jobs are claimed as the engine has free queue slots and the free provider permits
+ * can carry (permits x batch max-size), so the rest stay available to other nodes, and nothing is
+ * claimed while the provider's circuit breaker is open. Provider permits are taken by
+ * {@link OCRBatchDispatcher} per batch call, so concurrent jobs can share one call; a job whose
+ * batch gets no permit backs off for rejected-backoff-ms. Leases of in-flight jobs are renewed on every poll; a
+ * result that arrives after the lease was lost is dropped, the job's new owner decides it.
+ *
+ * Uploads answered by the OCR result cache come through here as well. Driving licenses and
+ * identity cards are OCR'd as front/back pairs: a job whose other face is pending runs together
+ * with that face's job (one provider call, one verification decision), unless both images are in
+ * the cache. A job on its own is answered from the cache when its image was OCR'd before. If the
+ * other face has not been uploaded yet, the job waits up to pairing.wait-seconds for it; it does
+ * not wait when the other face was already decided.
+ *
+ * Per priority class it records ocr.job.queued (queued until first dispatched) and ocr.job.latency
+ * (queued until OCR finished or was given up), with percentiles for tuning the class weights.
+ */
+@Service
+public class OCRJobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRJobWorker.class);
+
+    @Autowired
+    private OCRJobService ocrJobService;
+
+    @Autowired
+    private OCRExecutionEngine ocrExecutionEngine;
+
+    @Autowired
+    private OCRProviderGuard providerGuard;
+
+    @Autowired
+    private OCRBatchDispatcher ocrBatchDispatcher;
+
+    @Autowired
+    private GoogleCloudVisionOCRService ocrService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ocr.jobs.claim-batch-size:10}")
+    private int claimBatchSize;
+
+    @Value("${app.ocr.jobs.rejected-backoff-ms:5000}")
+    private long rejectedBackoffMs;
+
+    @Value("${app.ocr.pairing.enabled:true}")
+    private boolean pairingEnabled;
+
+    @Value("${app.ocr.pairing.wait-seconds:20}")
+    private int pairingWaitSeconds;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    // Set while a wake-up poll is scheduled but has not started yet
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final Map<OCRJob.JobPriority, Timer> queuedTimers = new EnumMap<>(OCRJob.JobPriority.class);
+    private final Map<OCRJob.JobPriority, Timer> latencyTimers = new EnumMap<>(OCRJob.JobPriority.class);
+
+    @PostConstruct
+    public void initialize() {
+        for (OCRJob.JobPriority priority : OCRJob.JobPriority.values()) {
+            queuedTimers.put(priority, Timer.builder("ocr.job.queued")
+                .description("Time OCR jobs wait in the job queue before dispatch, per priority class")
+                .tag("priority", priority.name())
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            latencyTimers.put(priority, Timer.builder("ocr.job.latency")
+                .description("Time from queueing an OCR job until it finished or was given up, per priority class")
+                .tag("priority", priority.name())
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            logger.info("ℹ️ OCR job worker disabled on this node");
+            return;
+        }
+        ocrJobService.recover();
+        ready = true;
+        poll();
+    }
+
+    /**
+     * Pick up a freshly queued job right after the upload commits instead of waiting for the next poll.
+     * Runs on the async executor, so the uploading request never waits for claims or provider calls;
+     * uploads arriving while a wake-up is still pending share that one poll.
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onJobEnqueued(OCRJobService.JobEnqueuedEvent event) {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            poll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ocr.jobs.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        // Jobs committed from here on need a new wake-up, this poll may not see them
+        wakeUpPending.set(false);
+        if (!enabled || !ready) {
+            return;
+        }
+
+        try {
+            ocrJobService.renewLeases(new ArrayList<>(inFlight));
+
+            // Provider permits are taken per batch call: claim what the free permits can carry
+            // (none while the breaker is open, the probes while it is half-open)
+            int providerCapacity = providerGuard.availablePermits() * ocrBatchDispatcher.getMaxBatchSize();
+            int capacity = Math.min(Math.min(claimBatchSize, ocrExecutionEngine.getRemainingCapacity()), providerCapacity);
+            OCRJobService.ClaimedJobs claimed = ocrJobService.claim(capacity);
+
+            for (OCRJob job : claimed.getDeadLettered()) {
+                Optional<Document> document = loadDocument(job);
+                Optional<User> user = userRepository.findById(job.getUserId());
+                if (document.isPresent() && user.isPresent()) {
+                    documentService.handleOCRDeadLetter(document.get(), user.get(), job.getLastError());
+                }
+                recordSince(latencyTimers, job);
+            }
+
+            Map<Long, OCRJob> claimedByDocument = new HashMap<>();
+            for (OCRJob job : claimed.getRunnable()) {
+                claimedByDocument.put(job.getDocumentId(), job);
+            }
+            for (OCRJob job : claimed.getRunnable()) {
+                // Not yet taken as the other face of an earlier job in this batch
+                if (claimedByDocument.remove(job.getDocumentId()) != null) {
+                    dispatch(job, claimedByDocument);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("❌ OCR job poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(OCRJob job, Map<Long, OCRJob> claimedByDocument) {
+        Optional<Document> found = loadDocument(job);
+        if (found.isEmpty() || found.get().getStatus() != Document.DocumentStatus.PENDING) {
+            // Document was deleted or already decided - nothing left to do
+            ocrJobService.markSucceeded(job);
+            return;
+        }
+
+        Document document = found.get();
+        User user = userRepository.findById(job.getUserId()).orElse(null);
+        if (user == null) {
+            ocrJobService.markSucceeded(job);
+            return;
+        }
+
+        Optional<Document> otherFace = isPairable(document) ? findOtherFace(document) : Optional.empty();
+        OCRJob otherJob = null;
+        if (otherFace.isPresent() && otherFace.get().getStatus() == Document.DocumentStatus.PENDING) {
+            otherJob = claimedByDocument.remove(otherFace.get().getId());
+            if (otherJob == null) {
+                otherJob = ocrJobService.claimForDocument(otherFace.get().getId()).orElse(null);
+            }
+        }
+
+        if (otherJob != null) {
+            Optional<GoogleCloudVisionOCRService.OCRResult> cached = cachedResult(job, document);
+            Optional<GoogleCloudVisionOCRService.OCRResult> otherCached = cachedResult(otherJob, otherFace.get());
+            if (cached.isPresent() && otherCached.isPresent()) {
+                // Both images were OCR'd before - no provider call needed
+                completeFromCache(job, document, user, cached.get());
+                completeFromCache(otherJob, otherFace.get(), user, otherCached.get());
+                return;
+            }
+            // Front first: the pair is parsed and decided as one document
+            boolean otherIsFront = otherFace.get().getFace() == Document.DocumentFace.FRONT;
+            List<OCRJob> jobs = new ArrayList<>(List.of(job));
+            List<Document> documents = new ArrayList<>(List.of(document));
+            jobs.add(otherIsFront ? 0 : 1, otherJob);
+            documents.add(otherIsFront ? 0 : 1, otherFace.get());
+            run(jobs, documents, user);
+            return;
+        }
+
+        // On its own: a re-uploaded face is answered from the cache before any waiting
+        Optional<GoogleCloudVisionOCRService.OCRResult> cached = cachedResult(job, document);
+        if (cached.isPresent()) {
+            completeFromCache(job, document, user, cached.get());
+            return;
+        }
+        // Nothing to wait for when the other face is already decided or is being OCR'd by another job
+        if (isPairable(document) && otherFace.isEmpty() && shouldWaitForOtherFace(job)) {
+            LocalDateTime until = job.getQueuedAt().plusSeconds(pairingWaitSeconds);
+            logger.info("⏳ OCR job {} waits until {} for the other face of document {}", job.getId(), until, document.getId());
+            ocrJobService.defer(job, until);
+            return;
+        }
+
+        run(List.of(job), List.of(document), user);
+    }
+
+    /**
+     * One provider call for the given jobs: a single document, or the front and back of one document
+     */
+    private void run(List<OCRJob> jobs, List<Document> documents, User user) {
+        List<Long> jobIds = jobs.stream().map(OCRJob::getId).toList();
+        List<Long> documentIds = documents.stream().map(Document::getId).toList();
+        logger.info("🤖 Running OCR job(s) {} for document(s) {} ({}, attempt {})",
+            jobIds, documentIds, jobs.get(0).getPriority(), jobs.get(0).getAttempts());
+        // Once per queuing: jobs put back without using an attempt come through here again
+        List<OCRJob> firstDispatch = jobs.stream().filter(job -> job.getDispatchedAt() == null).toList();
+        if (!firstDispatch.isEmpty()) {
+            firstDispatch.forEach(job -> recordSince(queuedTimers, job));
+            ocrJobService.markDispatched(firstDispatch);
+        }
+        inFlight.addAll(jobIds);
+        long startTime = System.currentTimeMillis();
+
+        ocrExecutionEngine.submit(documents.get(0).getId(), () -> documents.size() > 1
+                ? ocrService.processDocumentPair(documents.get(0), documents.get(1), user)
+                : ocrService.processDocument(documents.get(0), user))
+            .whenComplete((ocrResult, error) -> {
+                long elapsedMs = System.currentTimeMillis() - startTime;
+                try {
+                    if (error == null) {
+                        System.out.println("⚡ OCR processing completed in " + elapsedMs
+                            + "ms for document(s): " + documentIds);
+                        if (!jobs.stream().allMatch(ocrJobService::holdsLease)) {
+                            // Ran past the lease and another claim owns the job now - that run decides
+                            logger.warn("⌛ Lease of OCR job(s) {} lost while running, dropping the result", jobIds);
+                            jobs.forEach(ocrJobService::release);
+                            return;
+                        }
+                        documentService.onOCRSucceeded(documents, user, ocrResult);
+                        for (OCRJob job : jobs) {
+                            if (ocrJobService.markSucceeded(job)) {
+                                recordSince(latencyTimers, job);
+                            }
+                        }
+                    } else if (error instanceof OCRExecutionEngine.OCRRejectedException) {
+                        // Local queue full, or no provider permit for the batch call - back off briefly
+                        // instead of being claimed again on the next poll
+                        LocalDateTime retryAt = LocalDateTime.now().plus(Duration.ofMillis(rejectedBackoffMs));
+                        jobs.forEach(job -> ocrJobService.defer(job, retryAt));
+                    } else {
+                        // The batch call already fed its outcome to the guard
+                        OCRProviderGuard.Outcome outcome = OCRProviderGuard.outcomeOf(error);
+                        if (outcome == OCRProviderGuard.Outcome.FAILURE
+                                && providerGuard.getState() != OCRProviderGuard.BreakerState.CLOSED) {
+                            // Provider is down - queue the jobs for after the outage without using up an attempt
+                            logger.warn("⏸️ OCR provider unavailable, requeueing job(s) {}: {}", jobIds, error.getMessage());
+                            jobs.forEach(ocrJobService::release);
+                        } else {
+                            for (int i = 0; i < jobs.size(); i++) {
+                                if (ocrJobService.markFailed(jobs.get(i), error.getMessage())) {
+                                    documentService.onOCRGaveUp(documents.get(i), user, error);
+                                    recordSince(latencyTimers, jobs.get(i));
+                                }
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.error("❌ Failed to finish OCR job(s) {}: {}", jobIds, e.getMessage(), e);
+                } finally {
+                    inFlight.removeAll(jobIds);
+                }
+            });
+    }
+
+    /**
+     * Earlier OCR result for the job's image; admin re-runs always go to the provider
+     */
+    private Optional<GoogleCloudVisionOCRService.OCRResult> cachedResult(OCRJob job, Document document) {
+        if (job.getPriority() == OCRJob.JobPriority.ADMIN_RERUN) {
+            return Optional.empty();
+        }
+        return documentService.findCachedOCRResult(document);
+    }
+
+    private void completeFromCache(OCRJob job, Document document, User user, GoogleCloudVisionOCRService.OCRResult cached) {
+        documentService.onCachedOCRResult(document, user, cached);
+        ocrJobService.markSucceeded(job);
+        recordSince(latencyTimers, job);
+    }
+
+    /**
+     * Documents with a printed back side; passports are a single page
+     */
+    private boolean isPairable(Document document) {
+        return pairingEnabled && document.getType() != Document.DocumentType.PASSPORT && document.getFace() != null;
+    }
+
+    /**
+     * Latest upload of the document's other face, whatever its status
+     */
+    private Optional<Document> findOtherFace(Document document) {
+        Document.DocumentFace otherFace = document.getFace() == Document.DocumentFace.FRONT
+            ? Document.DocumentFace.BACK
+            : Document.DocumentFace.FRONT;
+        return documentRepository.findFirstByUserIdAndTypeAndFaceOrderByCreatedAtDesc(
+            document.getUserId(), document.getType(), otherFace);
+    }
+
+    /**
+     * Wait for the other face only on the first attempt, within the wait window, and not for users
+     * at a car (active reservation) or admin re-runs of a single face
+     */
+    private boolean shouldWaitForOtherFace(OCRJob job) {
+        return pairingWaitSeconds > 0
+            && job.getAttempts() == 1
+            && job.getQueuedAt() != null
+            && (job.getPriority() == OCRJob.JobPriority.FIRST_SIGNUP || job.getPriority() == OCRJob.JobPriority.REUPLOAD)
+            && LocalDateTime.now().isBefore(job.getQueuedAt().plusSeconds(pairingWaitSeconds));
+    }
+
+    private void recordSince(Map<OCRJob.JobPriority, Timer> timers, OCRJob job) {
+        if (job.getQueuedAt() == null || job.getPriority() == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(job.getQueuedAt(), LocalDateTime.now());
+        if (!elapsed.isNegative()) {
+            timers.get(job.getPriority()).record(elapsed);
+        }
+    }
+
+    private Optional<Document> loadDocument(OCRJob job) {
+        return documentRepository.findById(job.getDocumentId());
+    }
+}
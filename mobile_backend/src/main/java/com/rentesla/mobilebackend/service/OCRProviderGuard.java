@@ -0,0 +1,336 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Adaptive concurrency limit and circuit breaker for OCR calls to the provider. One permit covers
+ * one provider round trip: a batchAnnotateImages call of {@link OCRBatchDispatcher}, however many
+ * images it carries.
+ *
+ * The limit follows AIMD: every fast successful call raises it by 1/limit (about +1 per round of
+ * limit calls), every failure, timeout or slow call multiplies it by backoff-ratio.
+ *
+ * The breaker trips when the failure rate over the last window-size calls reaches
+ * failure-rate-threshold. While OPEN no permits are handed out and no jobs are claimed, so queued
+ * OCR jobs stay in the job queue instead of each waiting for a timeout. After open-duration-ms the breaker lets
+ * half-open-probes calls through; if all succeed it closes, any failure opens it again.
+ *
+ * Only errors that come from the provider (gRPC status errors) and timeouts count as failures;
+ * see {@link #outcomeOf}. A missing blob, a local IO error or a parse error says nothing about
+ * the provider's health and is IGNORED.
+ */
+@Service
+public class OCRProviderGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRProviderGuard.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ocr.provider.limit.initial:4}")
+    private int initialLimit;
+
+    @Value("${app.ocr.provider.limit.min:1}")
+    private int minLimit;
+
+    @Value("${app.ocr.provider.limit.max:${app.ocr.workers.size:8}}")
+    private int maxLimit;
+
+    @Value("${app.ocr.provider.limit.backoff-ratio:0.7}")
+    private double backoffRatio;
+
+    @Value("${app.ocr.provider.slow-call-ms:10000}")
+    private long slowCallMs;
+
+    @Value("${app.ocr.provider.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${app.ocr.provider.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${app.ocr.provider.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${app.ocr.provider.breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${app.ocr.provider.breaker.half-open-probes:2}")
+    private int halfOpenProbes;
+
+    public enum BreakerState {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /**
+     * How a guarded call ended
+     */
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,   // provider error or timeout
+        IGNORED    // not the provider's fault (local queue full, missing image, parse error, ...)
+    }
+
+    // Replaced in tests to step through the open duration
+    private Clock clock = Clock.systemUTC();
+
+    // Guarded by this
+    private double limit;
+    private int inFlight;
+    private BreakerState state = BreakerState.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+    private boolean[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+
+    private Counter rejectedByBreaker;
+    private Counter rejectedByLimit;
+    private Counter breakerOpened;
+
+    @PostConstruct
+    public void initialize() {
+        minLimit = Math.max(1, minLimit);
+        maxLimit = Math.max(minLimit, maxLimit);
+        limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        window = new boolean[Math.max(1, windowSize)];
+
+        Gauge.builder("ocr.provider.limit", this, guard -> guard.getLimit())
+            .description("Adaptive concurrency limit for OCR provider calls")
+            .register(meterRegistry);
+        Gauge.builder("ocr.provider.inflight", this, guard -> guard.getInFlight())
+            .description("OCR provider calls in flight")
+            .register(meterRegistry);
+        Gauge.builder("ocr.provider.breaker.state", this, guard -> guard.getState().ordinal())
+            .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+            .register(meterRegistry);
+        rejectedByBreaker = Counter.builder("ocr.provider.rejected").tag("reason", "breaker").register(meterRegistry);
+        rejectedByLimit = Counter.builder("ocr.provider.rejected").tag("reason", "limit").register(meterRegistry);
+        breakerOpened = Counter.builder("ocr.provider.breaker.opened").register(meterRegistry);
+
+        logger.info("🛡️ OCR provider guard started - Limit: {} ({}..{}), Breaker: {}% of {} calls, open {}ms",
+            (int) limit, minLimit, maxLimit, (int) (failureRateThreshold * 100), windowSize, openDurationMs);
+    }
+
+    /**
+     * How many more calls would currently be permitted
+     */
+    public synchronized int availablePermits() {
+        switch (currentState()) {
+            case OPEN:
+                return 0;
+            case HALF_OPEN:
+                return Math.max(0, halfOpenProbes - probesIssued);
+            default:
+                return Math.max(0, (int) limit - inFlight);
+        }
+    }
+
+    /**
+     * Take a permit for one provider call; false when the breaker is open or the limit is reached.
+     * Every successful acquire must be followed by exactly one {@link #release}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (grant()) {
+            return true;
+        }
+        countRejection();
+        return false;
+    }
+
+    /**
+     * Like {@link #tryAcquire}, but waits up to maxWaitMs for a permit to be released while the
+     * limit is reached. Returns false right away while the breaker is open.
+     */
+    public synchronized boolean acquire(long maxWaitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (!grant()) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (state == BreakerState.OPEN || remainingMs <= 0) {
+                countRejection();
+                return false;
+            }
+            wait(remainingMs);
+        }
+        return true;
+    }
+
+    /**
+     * Return a permit and feed the outcome into the limit and the breaker
+     */
+    public synchronized void release(Outcome outcome, long latencyMs) {
+        inFlight = Math.max(0, inFlight - 1);
+        // Wake callers waiting in acquire; a probe given back or a closed breaker frees permits too
+        notifyAll();
+        if (outcome == Outcome.IGNORED) {
+            if (state == BreakerState.HALF_OPEN) {
+                probesIssued = Math.max(0, probesIssued - 1);
+            }
+            return;
+        }
+
+        boolean failed = outcome == Outcome.FAILURE || latencyMs > slowCallMs;
+
+        if (failed) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight + 1 >= (int) limit) {
+            // Only grow while the limit is actually being used
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+
+        switch (state) {
+            case HALF_OPEN:
+                if (failed) {
+                    open("probe failed");
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    close();
+                }
+                break;
+            case CLOSED:
+                record(failed);
+                if (windowCount >= minimumCalls && windowFailures >= failureRateThreshold * windowCount) {
+                    open(windowFailures + "/" + windowCount + " recent calls failed");
+                }
+                break;
+            default:
+                // Late result of a call started before the breaker opened
+                break;
+        }
+    }
+
+    /**
+     * Classify how a guarded call ended: null is SUCCESS; timeouts and gRPC status errors from the
+     * provider are FAILURE, except INVALID_ARGUMENT, which blames the request (e.g. a corrupt image);
+     * everything else happened on our side and is IGNORED.
+     */
+    public static Outcome outcomeOf(Throwable error) {
+        if (error == null) {
+            return Outcome.SUCCESS;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CompletionException || cause instanceof ExecutionException) {
+                continue;
+            }
+            if (cause instanceof GoogleCloudVisionOCRService.OCRTimeoutException || cause instanceof TimeoutException) {
+                return Outcome.FAILURE;
+            }
+            if (cause instanceof ApiException) {
+                return ((ApiException) cause).getStatusCode().getCode() == StatusCode.Code.INVALID_ARGUMENT
+                    ? Outcome.IGNORED
+                    : Outcome.FAILURE;
+            }
+            if (cause instanceof StatusRuntimeException || cause instanceof StatusException) {
+                return Status.fromThrowable(cause).getCode() == Status.Code.INVALID_ARGUMENT
+                    ? Outcome.IGNORED
+                    : Outcome.FAILURE;
+            }
+        }
+        return Outcome.IGNORED;
+    }
+
+    public synchronized BreakerState getState() {
+        return currentState();
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Take a permit if the breaker state and the limit allow one. Caller must hold the lock.
+     */
+    private boolean grant() {
+        BreakerState current = currentState();
+        if (current == BreakerState.OPEN) {
+            return false;
+        }
+        if (current == BreakerState.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                return false;
+            }
+            probesIssued++;
+        } else if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    private void countRejection() {
+        if (state == BreakerState.CLOSED) {
+            rejectedByLimit.increment();
+        } else {
+            rejectedByBreaker.increment();
+        }
+    }
+
+    /**
+     * State with the OPEN -> HALF_OPEN transition applied once open-duration has passed
+     */
+    private BreakerState currentState() {
+        if (state == BreakerState.OPEN && clock.millis() - openedAt >= openDurationMs) {
+            state = BreakerState.HALF_OPEN;
+            probesIssued = 0;
+            probesSucceeded = 0;
+            logger.info("🟡 OCR provider breaker half-open, probing with {} call(s)", halfOpenProbes);
+        }
+        return state;
+    }
+
+    private void open(String reason) {
+        state = BreakerState.OPEN;
+        openedAt = clock.millis();
+        limit = minLimit;
+        breakerOpened.increment();
+        logger.warn("🔴 OCR provider breaker opened ({}), pausing OCR calls for {}ms", reason, openDurationMs);
+    }
+
+    private void close() {
+        state = BreakerState.CLOSED;
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        logger.info("🟢 OCR provider breaker closed");
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+}
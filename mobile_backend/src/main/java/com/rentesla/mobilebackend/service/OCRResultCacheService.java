@@ -0,0 +1,240 @@
+package com.rentesla.mobilebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.OCRCacheEntry;
+import com.rentesla.mobilebackend.repository.OCRCacheEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cache of OCR results for images a user has already uploaded.
+ * Re-uploading the same photo (same user, same document type) reuses the earlier result
+ * instead of paying for another OCR pass. Exact matches use the SHA-256 content hash;
+ * optionally, near-identical photos are matched on a 64-bit difference hash.
+ */
+@Service
+@Transactional
+public class OCRResultCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OCRResultCacheService.class);
+
+    // Images are decoded subsampled to roughly this size before hashing
+    private static final int HASH_DECODE_SIZE = 256;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private OCRCacheEntryRepository cacheRepository;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Value("${app.ocr.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.ocr.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.ocr.cache.max-age-days:30}")
+    private int maxAgeDays;
+
+    @Value("${app.ocr.cache.perceptual.enabled:false}")
+    private boolean perceptualEnabled;
+
+    @Value("${app.ocr.cache.perceptual.max-distance:4}")
+    private int perceptualMaxDistance;
+
+    /**
+     * Find a cached OCR result for the document's image
+     */
+    public Optional<GoogleCloudVisionOCRService.OCRResult> lookup(Document document) {
+        if (!cacheEnabled || document.getImageKey() == null) {
+            return Optional.empty();
+        }
+
+        Optional<OCRCacheEntry> entry = cacheRepository.findByUserIdAndDocumentTypeAndContentHash(
+            document.getUserId(), document.getType(), document.getImageKey());
+
+        if (entry.isEmpty() && perceptualEnabled) {
+            entry = findNearDuplicate(document);
+        }
+
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            GoogleCloudVisionOCRService.OCRResult result = objectMapper.readValue(
+                entry.get().getResultJson(), GoogleCloudVisionOCRService.OCRResult.class);
+            cacheRepository.markUsed(entry.get().getId(), LocalDateTime.now());
+            logger.info("♻️ OCR cache hit for document {} (cache entry {})", document.getId(), entry.get().getId());
+            return Optional.of(result);
+        } catch (IOException e) {
+            logger.warn("⚠️ Unreadable OCR cache entry {}, ignoring: {}", entry.get().getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remember the OCR result of a document's image
+     */
+    public void store(Document document, GoogleCloudVisionOCRService.OCRResult result) throws IOException {
+        if (!cacheEnabled || document.getImageKey() == null) {
+            return;
+        }
+
+        // The hash costs a decode, so it is only computed for an image that does not have one yet
+        Long perceptualHash = null;
+        if (perceptualEnabled) {
+            boolean hashed = cacheRepository.findByUserIdAndDocumentTypeAndContentHash(
+                    document.getUserId(), document.getType(), document.getImageKey())
+                .map(existing -> existing.getPerceptualHash() != null)
+                .orElse(false);
+            if (!hashed) {
+                perceptualHash = perceptualHash(document.getImageKey());
+            }
+        }
+
+        cacheRepository.upsert(document.getUserId(), document.getType().name(), document.getImageKey(),
+            perceptualHash, objectMapper.writeValueAsString(result), LocalDateTime.now());
+        logger.info("💾 OCR result cached for document {} (user {}, type {})",
+            document.getId(), document.getUserId(), document.getType());
+    }
+
+    /**
+     * Drop entries not used within max-age-days, then the least recently used ones above max-entries
+     */
+    @Scheduled(fixedDelayString = "${app.ocr.cache.eviction-interval-ms:3600000}",
+               initialDelayString = "${app.ocr.cache.eviction-interval-ms:3600000}")
+    public void evict() {
+        int expired = cacheRepository.deleteUnusedSince(LocalDateTime.now().minusDays(maxAgeDays));
+
+        long excess = cacheRepository.count() - maxEntries;
+        int trimmed = excess > 0 ? cacheRepository.deleteLeastRecentlyUsed((int) excess) : 0;
+
+        if (expired > 0 || trimmed > 0) {
+            logger.info("🧹 OCR cache eviction - Expired: {}, Over capacity: {}", expired, trimmed);
+        }
+    }
+
+    private Optional<OCRCacheEntry> findNearDuplicate(Document document) {
+        List<OCRCacheEntry> candidates = cacheRepository.findByUserIdAndDocumentTypeAndPerceptualHashIsNotNull(
+            document.getUserId(), document.getType());
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long hash = perceptualHash(document.getImageKey());
+        if (hash == null) {
+            return Optional.empty();
+        }
+
+        OCRCacheEntry best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (OCRCacheEntry candidate : candidates) {
+            int distance = Long.bitCount(candidate.getPerceptualHash() ^ hash);
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+
+        if (best != null && bestDistance <= perceptualMaxDistance) {
+            logger.info("🔎 Near-duplicate image for document {} (distance {})", document.getId(), bestDistance);
+            return Optional.of(best);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 64-bit difference hash: the image is averaged into a 9x8 grayscale grid and each bit
+     * records whether a cell is brighter than its right neighbour. Returns null when the
+     * image cannot be decoded.
+     */
+    private Long perceptualHash(String imageKey) {
+        try {
+            BufferedImage image = decodeSubsampled(imageKey);
+            if (image == null) {
+                return null;
+            }
+
+            int width = image.getWidth();
+            int height = image.getHeight();
+            double[][] cells = new double[8][9];
+
+            for (int row = 0; row < 8; row++) {
+                int y0 = row * height / 8;
+                int y1 = Math.max(y0 + 1, (row + 1) * height / 8);
+                for (int col = 0; col < 9; col++) {
+                    int x0 = col * width / 9;
+                    int x1 = Math.max(x0 + 1, (col + 1) * width / 9);
+                    double sum = 0;
+                    int count = 0;
+                    for (int y = y0; y < y1 && y < height; y++) {
+                        for (int x = x0; x < x1 && x < width; x++) {
+                            int rgb = image.getRGB(x, y);
+                            sum += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                            count++;
+                        }
+                    }
+                    cells[row][col] = count > 0 ? sum / count : 0;
+                }
+            }
+
+            long hash = 0;
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    hash <<= 1;
+                    if (cells[row][col] > cells[row][col + 1]) {
+                        hash |= 1;
+                    }
+                }
+            }
+            return hash;
+
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not compute perceptual hash for image {}: {}", imageKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private BufferedImage decodeSubsampled(String imageKey) throws IOException {
+        try (InputStream in = documentStorageService.openStream(imageKey);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / HASH_DECODE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
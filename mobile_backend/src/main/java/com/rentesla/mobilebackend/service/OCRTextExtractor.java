@@ -0,0 +1,350 @@
+package com.rentesla.mobilebackend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-pass candidate extraction for Vision OCR text.
+ * Walks the text once and collects every Turkish ID, license number, passport number,
+ * date and name candidate the document parsers need. Plain Java with no Spring or Vision
+ * dependencies, so it can be exercised and benchmarked on its own.
+ *
+ * The matching rules mirror the regular expressions the parsers used before:
+ * <pre>
+ *   ID         \b(\d{11})\b
+ *   License    \b([A-Z]{1,2}\d{6,8})\b
+ *   Passport   \b([A-Z]\d{8})\b
+ *   Date       (\d{2}[./]\d{2}[./]\d{4})
+ *   Name pair  ([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)\s+([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)
+ *   License 1. 1\.?\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\s]+?)(?=\s*\n|\s*2\.|$)
+ *   License 2. 2\.?\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\s]+?)(?=\s*\n|\s*3\.|$)
+ * </pre>
+ */
+public final class OCRTextExtractor {
+
+    private static final String UPPER_LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZÇĞIİÖŞÜ";
+    private static final String LOWER_LETTERS = "abcdefghijklmnopqrstuvwxyzçğıiöşü";
+
+    // Lookup tables for the Latin-1 range; the few Turkish letters above it are checked explicitly
+    private static final boolean[] UPPER = new boolean[256];
+    private static final boolean[] LOWER = new boolean[256];
+
+    static {
+        for (char c : UPPER_LETTERS.toCharArray()) {
+            if (c < 256) UPPER[c] = true;
+        }
+        for (char c : LOWER_LETTERS.toCharArray()) {
+            if (c < 256) LOWER[c] = true;
+        }
+    }
+
+    private OCRTextExtractor() {
+    }
+
+    /**
+     * Extract all candidates from OCR text in one pass
+     */
+    public static Extraction extract(String text) {
+        Extraction extraction = new Extraction();
+        if (text == null || text.isEmpty()) {
+            return extraction;
+        }
+
+        int length = text.length();
+        int tokenStart = -1;
+        int nextDateStart = 0;
+        int nextNameStart = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : 0;
+            boolean wordChar = i < length && isWordChar(c);
+
+            // Tokens: maximal runs of word characters, i.e. what sits between two \b
+            if (wordChar && tokenStart < 0) {
+                tokenStart = i;
+            } else if (!wordChar && tokenStart >= 0) {
+                classifyToken(text, tokenStart, i, extraction);
+                tokenStart = -1;
+            }
+
+            if (i == length) {
+                break;
+            }
+
+            if (isLineTerminator(c)) {
+                extraction.singleLine = false;
+            }
+
+            if (isAsciiDigit(c)) {
+                if (i >= nextDateStart && isDateAt(text, i)) {
+                    extraction.dates.add(text.substring(i, i + 10));
+                    nextDateStart = i + 10;
+                }
+                if (!extraction.hasElevenDigitRun && i + 11 <= length && isDigitRun(text, i, 11)) {
+                    extraction.hasElevenDigitRun = true;
+                }
+                if (c == '1' && extraction.licenseSurname == null) {
+                    extraction.licenseSurname = matchNumberedField(text, i, '2');
+                }
+                if (c == '2' && extraction.licenseFirstName == null) {
+                    extraction.licenseFirstName = matchNumberedField(text, i, '3');
+                }
+            } else if (isUpper(c)) {
+                if (!extraction.hasCapitalizedWord && i + 1 < length && isLower(text.charAt(i + 1))) {
+                    extraction.hasCapitalizedWord = true;
+                }
+                if (i >= nextNameStart) {
+                    int end = matchNamePair(text, i, extraction);
+                    if (end > 0) {
+                        nextNameStart = end;
+                    }
+                }
+            }
+        }
+
+        return extraction;
+    }
+
+    private static void classifyToken(String text, int start, int end, Extraction extraction) {
+        int tokenLength = end - start;
+        if (tokenLength < 7 || tokenLength > 11) {
+            return;
+        }
+
+        int letters = 0;
+        while (letters < tokenLength && letters < 3 && isAsciiUpper(text.charAt(start + letters))) {
+            letters++;
+        }
+        int digits = tokenLength - letters;
+        if (!isDigitRun(text, start + letters, digits)) {
+            return;
+        }
+
+        String token = text.substring(start, end);
+        if (letters == 0 && digits == 11) {
+            extraction.identityNumbers.add(token);
+        }
+        if ((letters == 1 || letters == 2) && digits >= 6 && digits <= 8) {
+            extraction.licenseNumbers.add(token);
+        }
+        if (letters == 1 && digits == 8) {
+            extraction.passportNumbers.add(token);
+        }
+    }
+
+    /**
+     * dd[./]dd[./]dddd starting at the given position
+     */
+    private static boolean isDateAt(String text, int i) {
+        if (i + 10 > text.length()) {
+            return false;
+        }
+        return isDigitRun(text, i, 2)
+            && isDateSeparator(text.charAt(i + 2))
+            && isDigitRun(text, i + 3, 2)
+            && isDateSeparator(text.charAt(i + 5))
+            && isDigitRun(text, i + 6, 4);
+    }
+
+    /**
+     * Capitalized word, whitespace, capitalized word starting at the given position.
+     * Returns the end of the match, or -1.
+     */
+    private static int matchNamePair(String text, int i, Extraction extraction) {
+        int length = text.length();
+        int firstEnd = i + 1;
+        while (firstEnd < length && isLower(text.charAt(firstEnd))) {
+            firstEnd++;
+        }
+        if (firstEnd == i + 1) {
+            return -1;
+        }
+
+        int secondStart = firstEnd;
+        while (secondStart < length && isWhitespace(text.charAt(secondStart))) {
+            secondStart++;
+        }
+        if (secondStart == firstEnd || secondStart >= length || !isUpper(text.charAt(secondStart))) {
+            return -1;
+        }
+
+        int secondEnd = secondStart + 1;
+        while (secondEnd < length && isLower(text.charAt(secondEnd))) {
+            secondEnd++;
+        }
+        if (secondEnd == secondStart + 1) {
+            return -1;
+        }
+
+        extraction.namePairs.add(new NameCandidate(
+            text.substring(i, firstEnd), text.substring(secondStart, secondEnd)));
+        return secondEnd;
+    }
+
+    /**
+     * Numbered field of a Turkish driving license ("1. SURNAME", "2. Name") at the given
+     * position. The value is the shortest run of letters and whitespace that is followed
+     * by a line break, the next field number or the end of the text.
+     */
+    private static String matchNumberedField(String text, int i, char nextFieldNumber) {
+        int length = text.length();
+        int p = i + 1;
+        if (p < length && text.charAt(p) == '.') {
+            p++;
+        }
+        while (p < length && isWhitespace(text.charAt(p))) {
+            p++;
+        }
+        if (p >= length || !isUpper(text.charAt(p))) {
+            return null;
+        }
+
+        int valueStart = p++;
+        while (p < length) {
+            char c = text.charAt(p);
+            if (!isUpper(c) && !isLower(c) && !isWhitespace(c)) {
+                return null;
+            }
+            p++;
+            if (isFieldEnd(text, p, nextFieldNumber)) {
+                return text.substring(valueStart, p).trim();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFieldEnd(String text, int p, char nextFieldNumber) {
+        int length = text.length();
+        int q = p;
+        while (q < length && isWhitespace(text.charAt(q))) {
+            if (text.charAt(q) == '\n') {
+                return true;
+            }
+            q++;
+        }
+        if (q + 1 < length && text.charAt(q) == nextFieldNumber && text.charAt(q + 1) == '.') {
+            return true;
+        }
+        return isEndOfInput(text, p);
+    }
+
+    // '$' without MULTILINE: end of input, or just before a final line terminator
+    private static boolean isEndOfInput(String text, int p) {
+        int remaining = text.length() - p;
+        if (remaining == 0) {
+            return true;
+        }
+        if (remaining == 1) {
+            return isLineTerminator(text.charAt(p));
+        }
+        return remaining == 2 && text.charAt(p) == '\r' && text.charAt(p + 1) == '\n';
+    }
+
+    private static boolean isDigitRun(String text, int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            if (!isAsciiDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '.' || c == '/';
+    }
+
+    private static boolean isUpper(char c) {
+        return c < 256 ? UPPER[c] : c == 'Ğ' || c == 'İ' || c == 'Ş';
+    }
+
+    private static boolean isLower(char c) {
+        return c < 256 ? LOWER[c] : c == 'ğ' || c == 'ı' || c == 'ş';
+    }
+
+    // Same set as \s in java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * All candidates found in one OCR text, in order of appearance
+     */
+    public static class Extraction {
+        private final List<String> identityNumbers = new ArrayList<>();
+        private final List<String> licenseNumbers = new ArrayList<>();
+        private final List<String> passportNumbers = new ArrayList<>();
+        private final List<String> dates = new ArrayList<>();
+        private final List<NameCandidate> namePairs = new ArrayList<>();
+        private String licenseSurname;
+        private String licenseFirstName;
+        private boolean hasElevenDigitRun;
+        private boolean hasCapitalizedWord;
+        private boolean singleLine = true;
+
+        public List<String> getIdentityNumbers() { return Collections.unmodifiableList(identityNumbers); }
+        public List<String> getLicenseNumbers() { return Collections.unmodifiableList(licenseNumbers); }
+        public List<String> getPassportNumbers() { return Collections.unmodifiableList(passportNumbers); }
+        public List<String> getDates() { return Collections.unmodifiableList(dates); }
+        public List<NameCandidate> getNamePairs() { return Collections.unmodifiableList(namePairs); }
+
+        // "1." field of a Turkish driving license
+        public String getLicenseSurname() { return licenseSurname; }
+        // "2." field of a Turkish driving license
+        public String getLicenseFirstName() { return licenseFirstName; }
+
+        // Any 11 consecutive digits, even inside a longer number
+        public boolean hasElevenDigitRun() { return hasElevenDigitRun; }
+        // Any uppercase letter directly followed by a lowercase one
+        public boolean hasCapitalizedWord() { return hasCapitalizedWord; }
+        public boolean hasDate() { return !dates.isEmpty(); }
+        // No line terminators anywhere in the text
+        public boolean isSingleLine() { return singleLine; }
+
+        public String firstIdentityNumber() { return first(identityNumbers); }
+        public String firstLicenseNumber() { return first(licenseNumbers); }
+        public String firstPassportNumber() { return first(passportNumbers); }
+        public NameCandidate firstNamePair() { return namePairs.isEmpty() ? null : namePairs.get(0); }
+
+        private static String first(List<String> values) {
+            return values.isEmpty() ? null : values.get(0);
+        }
+    }
+
+    /**
+     * Two consecutive capitalized words
+     */
+    public static class NameCandidate {
+        private final String firstName;
+        private final String lastName;
+
+        public NameCandidate(String firstName, String lastName) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+
+        @Override
+        public String toString() {
+            return firstName + " " + lastName;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rentesla.mobilebackend.service;
+
+/**
+ * Table-driven Turkish case folding and transliteration.
+ * Folds text to upper-case ASCII with single spaces between words: Ç→C, Ğ→G, ı/i/İ→I,
+ * Ö→O, Ş→S, Ü→U. Lookups go through a precomputed table instead of locale-dependent
+ * toUpperCase() and regular expressions, so folding is a single pass over the input.
+ */
+public final class TurkishTextNormalizer {
+
+    // Table entries: 0 = drop, ' ' = word separator, anything else = folded character
+    private static final int TABLE_SIZE = 0x0180;
+    private static final char DROP = 0;
+    private static final char SEPARATOR = ' ';
+
+    private static final char[] LETTERS = new char[TABLE_SIZE];
+    private static final char[] LETTERS_AND_DIGITS = new char[TABLE_SIZE];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            LETTERS[c] = c;
+            LETTERS[Character.toLowerCase(c)] = c;
+        }
+        String turkish = "ÇçĞğİıÖöŞşÜü";
+        String ascii   = "CCGGIIOOSSUU";
+        for (int i = 0; i < turkish.length(); i++) {
+            LETTERS[turkish.charAt(i)] = ascii.charAt(i);
+        }
+        for (char c : new char[] {' ', '\t', '\n', '\r', '\f', '-', '/'}) {
+            LETTERS[c] = SEPARATOR;
+        }
+
+        System.arraycopy(LETTERS, 0, LETTERS_AND_DIGITS, 0, TABLE_SIZE);
+        for (char c = '0'; c <= '9'; c++) {
+            LETTERS_AND_DIGITS[c] = c;
+        }
+    }
+
+    private TurkishTextNormalizer() {
+    }
+
+    /**
+     * Fold to upper-case ASCII letters and single spaces; everything else is dropped
+     */
+    public static String fold(CharSequence text) {
+        return fold(text, LETTERS);
+    }
+
+    /**
+     * Like fold(), but digits are kept as well: the form of vehicle names, models, makes and
+     * colors in {@link VehicleSearchIndex} ("Model 3", "Model Y 2023")
+     */
+    public static String foldForSearch(CharSequence text) {
+        return fold(text, LETTERS_AND_DIGITS);
+    }
+
+    private static String fold(CharSequence text, char[] table) {
+        if (text == null) {
+            return "";
+        }
+
+        int length = text.length();
+        StringBuilder folded = new StringBuilder(length);
+        boolean pendingSeparator = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char mapped = c < TABLE_SIZE ? table[c] : (Character.isWhitespace(c) ? SEPARATOR : DROP);
+
+            if (mapped == SEPARATOR) {
+                pendingSeparator = folded.length() > 0;
+            } else if (mapped != DROP) {
+                if (pendingSeparator) {
+                    folded.append(SEPARATOR);
+                    pendingSeparator = false;
+                }
+                folded.append(mapped);
+            }
+        }
+
+        return folded.toString();
+    }
+}
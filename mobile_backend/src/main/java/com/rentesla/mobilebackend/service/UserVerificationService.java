@@ -0,0 +1,144 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import com.rentesla.mobilebackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user document verification status.
+ * users.document_verified is the durable source: it is recomputed whenever a user's documents
+ * change status and read through a local cache everywhere else. A node that changes the flag
+ * invalidates its own cache after commit; other nodes pick the change up from
+ * users.verification_updated_at on their next sync, and every entry also expires after ttl-seconds.
+ *
+ * The change is stamped with the database clock when the row is written, but only becomes visible
+ * at commit, so each sync looks back sync-overlap (the transaction timeout by default) to catch
+ * transactions that were still open during the previous sync.
+ */
+@Service
+public class UserVerificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserVerificationService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Value("${app.verification.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.verification.cache.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${app.verification.cache.sync-overlap:60s}")
+    private Duration syncOverlap;
+
+    private final Map<Long, CachedStatus> cache = new ConcurrentHashMap<>();
+
+    // Database time of the last sync; null until the first one
+    private volatile LocalDateTime lastSync;
+
+    /**
+     * Whether the user may book: has at least one approved document (or is an admin verified by hand)
+     */
+    @Transactional(readOnly = true)
+    public boolean isVerified(Long userId) {
+        CachedStatus cached = cache.get(userId);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.loadedAt < ttlSeconds * 1000) {
+            return cached.verified;
+        }
+
+        boolean verified = userRepository.findDocumentVerifiedById(userId).orElse(false);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+        cache.put(userId, new CachedStatus(verified, now));
+        return verified;
+    }
+
+    /**
+     * Recompute documentVerified for the given users from their approved documents and store it.
+     * Returns the users that just became verified (for the verification-complete notification).
+     */
+    @Transactional
+    public List<Long> refresh(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> withApprovedDocument = new HashSet<>(documentRepository.findUserIdsWithApprovedDocument(userIds));
+        Set<Long> currentlyVerified = new HashSet<>(userRepository.findVerifiedIds(userIds));
+
+        List<Long> changed = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (withApprovedDocument.contains(userId) != currentlyVerified.contains(userId)) {
+                changed.add(userId);
+            }
+        }
+        if (changed.isEmpty()) {
+            return List.of();
+        }
+
+        // Only the users whose flag actually flips are written
+        List<Long> newlyVerified = changed.stream().filter(withApprovedDocument::contains).toList();
+        List<Long> noLongerVerified = changed.stream().filter(userId -> !withApprovedDocument.contains(userId)).toList();
+        int updated = 0;
+        if (!newlyVerified.isEmpty()) {
+            updated += userRepository.updateDocumentVerified(newlyVerified, true);
+        }
+        if (!noLongerVerified.isEmpty()) {
+            updated += userRepository.updateDocumentVerified(noLongerVerified, false);
+        }
+
+        invalidateAfterCommit(changed);
+        logger.info("🔐 Verification status changed for {} user(s), newly verified: {}", updated, newlyVerified);
+        return newlyVerified;
+    }
+
+    /**
+     * Drop cached entries of users whose verification changed on any node since the last sync
+     */
+    @Scheduled(fixedDelayString = "${app.verification.cache.sync-interval-ms:2000}")
+    @Transactional(readOnly = true)
+    public void syncChanges() {
+        LocalDateTime syncStartedAt = userRepository.currentDatabaseTime();
+        if (lastSync != null) {
+            List<Long> changed = userRepository.findIdsWithVerificationChangedSince(lastSync.minus(syncOverlap));
+            changed.forEach(cache::remove);
+        }
+        lastSync = syncStartedAt;
+    }
+
+    private void invalidateAfterCommit(List<Long> userIds) {
+        TransactionCallbacks.afterCommit(() -> userIds.forEach(cache::remove));
+    }
+
+    private static class CachedStatus {
+        private final boolean verified;
+        private final long loadedAt;
+
+        CachedStatus(boolean verified, long loadedAt) {
+            this.verified = verified;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
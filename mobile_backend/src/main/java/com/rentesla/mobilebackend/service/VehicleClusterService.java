@@ -0,0 +1,203 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.dto.VehicleCluster;
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zoom-dependent clustering of available vehicles for the map.
+ * At zoom z the world is cut into tiles of 360 / 2^z degrees (both axes), and every tile into
+ * cells-per-tile x cells-per-tile cells; the vehicles of a cell become one cluster at their centroid.
+ * Clusters are computed per tile from {@link VehicleLocationIndex} and cached per (zoom, tile);
+ * a vehicle entering, leaving or moving evicts the tiles of its old and new position at every zoom.
+ */
+@Service
+public class VehicleClusterService {
+
+    public static final int MAX_ZOOM = 20;
+
+    @Autowired
+    private VehicleLocationIndex vehicleLocationIndex;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${app.vehicles.clusters.cells-per-tile:8}")
+    private int cellsPerTile;
+
+    @Value("${app.vehicles.clusters.max-tiles-per-request:64}")
+    private int maxTilesPerRequest;
+
+    @Value("${app.vehicles.clusters.cache.max-entries:20000}")
+    private int maxCacheEntries;
+
+    private final Map<TileKey, List<VehicleCluster>> tileCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initialize() {
+        vehicleLocationIndex.addChangeListener((oldLatitude, oldLongitude, newLatitude, newLongitude) -> {
+            for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+                if (oldLatitude != null) {
+                    tileCache.remove(TileKey.of(zoom, oldLatitude, oldLongitude));
+                }
+                if (newLatitude != null) {
+                    tileCache.remove(TileKey.of(zoom, newLatitude, newLongitude));
+                }
+            }
+        });
+    }
+
+    /**
+     * Clusters of the tiles overlapping the viewport at the given zoom
+     */
+    @Transactional(readOnly = true)
+    public List<VehicleCluster> getClusters(double minLat, double maxLat, double minLng, double maxLng, int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + MAX_ZOOM);
+        }
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Bounds are not ordered (min > max)");
+        }
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLng = Math.max(-180, minLng);
+        maxLng = Math.min(180, maxLng);
+
+        TileKey first = TileKey.of(zoom, minLat, minLng);
+        TileKey last = TileKey.of(zoom, maxLat, maxLng);
+        long tiles = (long) (last.x - first.x + 1) * (last.y - first.y + 1);
+        if (tiles > maxTilesPerRequest) {
+            throw new IllegalArgumentException("Viewport covers " + tiles + " tiles at zoom " + zoom
+                + ", at most " + maxTilesPerRequest + " are allowed; use a lower zoom");
+        }
+
+        List<VehicleCluster> clusters = new ArrayList<>();
+        for (int y = first.y; y <= last.y; y++) {
+            for (int x = first.x; x <= last.x; x++) {
+                clusters.addAll(getTile(new TileKey(zoom, x, y)));
+            }
+        }
+        return clusters;
+    }
+
+    private List<VehicleCluster> getTile(TileKey key) {
+        if (!vehicleLocationIndex.isLoaded()) {
+            // Not cached: the change listener only runs for positions the index has seen
+            return computeTile(key, false);
+        }
+
+        List<VehicleCluster> cached = tileCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = vehicleLocationIndex.getVersion();
+        List<VehicleCluster> clusters = computeTile(key, true);
+        if (tileCache.size() >= maxCacheEntries) {
+            tileCache.clear();
+        }
+        tileCache.put(key, clusters);
+        if (vehicleLocationIndex.getVersion() != version) {
+            // A vehicle changed while the tile was computed; its eviction may have run before the put
+            tileCache.remove(key);
+        }
+        return clusters;
+    }
+
+    private List<VehicleCluster> computeTile(TileKey key, boolean fromIndex) {
+        double tileSize = TileKey.tileSize(key.zoom);
+        double south = key.y * tileSize - 90;
+        double west = key.x * tileSize - 180;
+        double cellSize = tileSize / cellsPerTile;
+
+        Map<Integer, CellAccumulator> cells = new LinkedHashMap<>();
+        VehicleLocationIndex.PositionVisitor accumulate = (uuid, latitude, longitude) -> {
+            // Points on the north/east edge belong to the next tile
+            if (latitude >= south + tileSize || longitude >= west + tileSize) {
+                return;
+            }
+            int row = Math.min(cellsPerTile - 1, (int) ((latitude - south) / cellSize));
+            int column = Math.min(cellsPerTile - 1, (int) ((longitude - west) / cellSize));
+            cells.computeIfAbsent(row * cellsPerTile + column, cell -> new CellAccumulator()).add(uuid, latitude, longitude);
+        };
+
+        if (fromIndex) {
+            vehicleLocationIndex.forEachInBox(south, south + tileSize, west, west + tileSize, accumulate);
+        } else {
+            for (Object[] row : vehicleRepository.findAvailableVehiclePositionsInBounds(south, south + tileSize, west, west + tileSize)) {
+                accumulate.visit((String) row[0], ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue());
+            }
+        }
+
+        List<VehicleCluster> clusters = new ArrayList<>(cells.size());
+        for (CellAccumulator cell : cells.values()) {
+            clusters.add(cell.toCluster());
+        }
+        return List.copyOf(clusters);
+    }
+
+    private static class CellAccumulator {
+        private double latitudeSum;
+        private double longitudeSum;
+        private int count;
+        private String uuid;
+
+        void add(String uuid, double latitude, double longitude) {
+            latitudeSum += latitude;
+            longitudeSum += longitude;
+            count++;
+            this.uuid = uuid;
+        }
+
+        VehicleCluster toCluster() {
+            return new VehicleCluster(latitudeSum / count, longitudeSum / count, count, count == 1 ? uuid : null);
+        }
+    }
+
+    private static final class TileKey {
+        private final int zoom;
+        private final int x;
+        private final int y;
+
+        TileKey(int zoom, int x, int y) {
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+        }
+
+        static double tileSize(int zoom) {
+            return 360.0 / (1L << zoom);
+        }
+
+        static TileKey of(int zoom, double latitude, double longitude) {
+            double tileSize = tileSize(zoom);
+            int x = (int) Math.floor((longitude + 180) / tileSize);
+            int y = (int) Math.floor((latitude + 90) / tileSize);
+            return new TileKey(zoom, x, y);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof TileKey)) {
+                return false;
+            }
+            TileKey key = (TileKey) other;
+            return zoom == key.zoom && x == key.x && y == key.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return (zoom * 31 + x) * 31 + y;
+        }
+    }
+}
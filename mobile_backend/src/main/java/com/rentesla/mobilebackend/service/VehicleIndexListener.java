@@ -0,0 +1,47 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA listener that passes every vehicle insert, update and delete, whichever service makes it,
+ * on to the in-memory vehicle indexes ({@link VehicleLocationIndex}, {@link VehicleSearchIndex}).
+ * The indexes apply the change once the transaction commits.
+ */
+public class VehicleIndexListener {
+
+    // Lazy: Hibernate creates the listener before the index beans exist
+    @Autowired
+    private ObjectProvider<VehicleLocationIndex> locationIndex;
+
+    @Autowired
+    private ObjectProvider<VehicleSearchIndex> searchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Vehicle vehicle) {
+        notifyIndexes(index -> index.onVehicleChanged(vehicle), index -> index.onVehicleChanged(vehicle));
+    }
+
+    @PostRemove
+    public void onRemove(Vehicle vehicle) {
+        String uuid = vehicle.getUuid();
+        notifyIndexes(index -> index.onVehicleRemoved(uuid), index -> index.onVehicleRemoved(uuid));
+    }
+
+    // Providers are null when Hibernate instantiates the listener outside Spring
+    private void notifyIndexes(Consumer<VehicleLocationIndex> location, Consumer<VehicleSearchIndex> search) {
+        if (locationIndex != null) {
+            locationIndex.ifAvailable(location);
+        }
+        if (searchIndex != null) {
+            searchIndex.ifAvailable(search);
+        }
+    }
+}
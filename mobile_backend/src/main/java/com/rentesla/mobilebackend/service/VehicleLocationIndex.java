@@ -0,0 +1,438 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory grid index over the positions of rentable vehicles (available, status AVAILABLE,
+ * with a location). The map is cut into cells of cell-size-degrees; a radius search only looks at
+ * the cells overlapping the query's bounding box and computes the exact Haversine distance for
+ * the vehicles found there.
+ *
+ * Kept in sync by {@link VehicleIndexListener} after every committed vehicle change on
+ * this node, and fully reloaded on a schedule to pick up changes made by other instances.
+ */
+@Service
+public class VehicleLocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleLocationIndex.class);
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+    // Same sphere as haversineKm, so a bounding box never cuts into the search circle
+    private static final double KM_PER_DEGREE_LAT = Math.toRadians(EARTH_RADIUS_KM);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${app.vehicles.index.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    // Writers are serialized (synchronized); readers go lock-free over the concurrent maps
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    private final List<PositionChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean loaded;
+    private volatile long version;
+
+    /**
+     * Vehicle found by a search, with its great-circle distance from the query point
+     */
+    public static class Hit {
+        private final String uuid;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceKm;
+
+        Hit(String uuid, double latitude, double longitude, double distanceKm) {
+            this.uuid = uuid;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceKm = distanceKm;
+        }
+
+        public String getUuid() { return uuid; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+
+    private static class Position {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        Position(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Incremented on every change of an indexed position
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Called (under the index's write lock) whenever a vehicle enters, leaves or moves within the index.
+     * Old or new coordinates are null when the vehicle was not / is no longer indexed.
+     */
+    public interface PositionChangeListener {
+        void positionChanged(Double oldLatitude, Double oldLongitude, Double newLatitude, Double newLongitude);
+    }
+
+    public void addChangeListener(PositionChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Rentable vehicles within radiusKm of the point, nearest first. A circle crossing the
+     * antimeridian is searched as two boxes, one on each side.
+     */
+    public List<Hit> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = latitudeDelta(radiusKm);
+        double lngDelta = longitudeDelta(latitude, radiusKm);
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        double minLng = longitude - lngDelta;
+        double maxLng = longitude + lngDelta;
+
+        List<Hit> hits = new ArrayList<>();
+        PositionVisitor withinRadius = (uuid, lat, lng) -> {
+            double distance = haversineKm(latitude, longitude, lat, lng);
+            if (distance <= radiusKm) {
+                hits.add(new Hit(uuid, lat, lng, distance));
+            }
+        };
+        if (lngDelta >= 180) {
+            forEachInBox(minLat, maxLat, -180, 180, withinRadius);
+        } else if (minLng < -180) {
+            forEachInBox(minLat, maxLat, -180, maxLng, withinRadius);
+            forEachInBox(minLat, maxLat, minLng + 360, 180, withinRadius);
+        } else if (maxLng > 180) {
+            forEachInBox(minLat, maxLat, minLng, 180, withinRadius);
+            forEachInBox(minLat, maxLat, -180, maxLng - 360, withinRadius);
+        } else {
+            forEachInBox(minLat, maxLat, minLng, maxLng, withinRadius);
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits;
+    }
+
+    /**
+     * The k rentable vehicles closest to the point and at most maxRadiusKm away, nearest first.
+     * Cells are scanned in square rings around the point's cell (only the ring's perimeter, wrapping
+     * across the antimeridian) while a max-heap keeps the best k; the search stops as soon as nothing
+     * outside the scanned rings can beat the k-th distance. Rings stop at maxRadiusKm worth of rows;
+     * where that does not settle it (longitude cells shrink towards the poles) the radius search finishes.
+     */
+    public List<Hit> findNearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Hit::getDistanceKm).reversed());
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        int columns = columnCount();
+        int maxRing = (int) Math.ceil(maxRadiusKm / (cellSizeDegrees * KM_PER_DEGREE_LAT)) + 1;
+
+        for (int ring = 0; ring <= maxRing && 2 * ring + 1 <= columns; ring++) {
+            int minRow = centerRow - ring;
+            int maxRow = centerRow + ring;
+            int minColumn = centerColumn - ring;
+            int maxColumn = centerColumn + ring;
+
+            if (ring == 0) {
+                collectNearest(centerRow, centerColumn, latitude, longitude, k, maxRadiusKm, best);
+            } else {
+                // Top and bottom edges, then the sides without their corners
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    collectNearest(minRow, column, latitude, longitude, k, maxRadiusKm, best);
+                    collectNearest(maxRow, column, latitude, longitude, k, maxRadiusKm, best);
+                }
+                for (int row = minRow + 1; row < maxRow; row++) {
+                    collectNearest(row, minColumn, latitude, longitude, k, maxRadiusKm, best);
+                    collectNearest(row, maxColumn, latitude, longitude, k, maxRadiusKm, best);
+                }
+            }
+
+            // Closest any vehicle outside the scanned square can be
+            double outside = distanceToOutside(latitude, longitude,
+                minRow * cellSizeDegrees - 90, (maxRow + 1) * cellSizeDegrees - 90,
+                minColumn * cellSizeDegrees - 180, (maxColumn + 1) * cellSizeDegrees - 180);
+            if (outside > maxRadiusKm || (best.size() == k && best.peek().getDistanceKm() <= outside)) {
+                List<Hit> hits = new ArrayList<>(best);
+                hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+                return hits;
+            }
+        }
+
+        List<Hit> hits = findWithinRadius(latitude, longitude, maxRadiusKm);
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    private void collectNearest(int row, int column, double latitude, double longitude, int k, double maxRadiusKm,
+                                PriorityQueue<Hit> best) {
+        if (row < 0 || row >= rowCount()) {
+            return;
+        }
+        collectNearest(cells.get(cellKey(row, Math.floorMod(column, columnCount()))), latitude, longitude, k, maxRadiusKm, best);
+    }
+
+    private void collectNearest(Set<String> members, double latitude, double longitude, int k, double maxRadiusKm,
+                                PriorityQueue<Hit> best) {
+        if (members == null) {
+            return;
+        }
+        for (String uuid : members) {
+            Position position = positions.get(uuid);
+            if (position == null) {
+                continue;
+            }
+            double distance = haversineKm(latitude, longitude, position.latitude, position.longitude);
+            if (distance > maxRadiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Hit(uuid, position.latitude, position.longitude, distance));
+            } else if (distance < best.peek().getDistanceKm()) {
+                best.poll();
+                best.add(new Hit(uuid, position.latitude, position.longitude, distance));
+            }
+        }
+    }
+
+    /**
+     * Lower bound of the distance from the point to anything outside the given box: the nearest
+     * parallel edge, or the nearest meridian edge (great-circle distance to a meridian)
+     */
+    private static double distanceToOutside(double latitude, double longitude,
+                                            double southEdge, double northEdge, double westEdge, double eastEdge) {
+        double toParallel = Math.min(latitude - southEdge, northEdge - latitude);
+        double toMeridian = Math.min(longitude - westEdge, eastEdge - longitude);
+        double parallelKm = Math.toRadians(toParallel) * EARTH_RADIUS_KM;
+        double meridianKm = toMeridian >= 90 ? Double.MAX_VALUE
+            : EARTH_RADIUS_KM * Math.asin(Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(toMeridian)));
+        return Math.min(parallelKm, meridianKm);
+    }
+
+    /**
+     * Apply a committed vehicle change: index it when rentable with a location, drop it otherwise
+     */
+    public void onVehicleChanged(Vehicle vehicle) {
+        String uuid = vehicle.getUuid();
+        boolean rentable = Boolean.TRUE.equals(vehicle.getIsAvailable())
+            && vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE
+            && vehicle.getLocationLat() != null && vehicle.getLocationLng() != null;
+        Double latitude = vehicle.getLocationLat();
+        Double longitude = vehicle.getLocationLng();
+
+        TransactionCallbacks.afterCommit(() -> {
+            if (rentable) {
+                put(uuid, latitude, longitude);
+            } else {
+                remove(uuid);
+            }
+        });
+    }
+
+    public void onVehicleRemoved(String uuid) {
+        TransactionCallbacks.afterCommit(() -> remove(uuid));
+    }
+
+    /**
+     * Reload all rentable vehicle positions from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.vehicles.index.refresh-interval-ms:60000}",
+               initialDelayString = "${app.vehicles.index.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = vehicleRepository.findAvailableVehiclePositions();
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        for (Object[] row : rows) {
+            String uuid = (String) row[0];
+            put(uuid, ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue());
+            seen.add(uuid);
+        }
+        for (String uuid : new ArrayList<>(positions.keySet())) {
+            if (!seen.contains(uuid)) {
+                remove(uuid);
+            }
+        }
+
+        if (!loaded) {
+            logger.info("🗺️ Vehicle location index loaded - {} vehicle(s) in {} cell(s), {}ms",
+                positions.size(), cells.size(), System.currentTimeMillis() - startTime);
+        }
+        loaded = true;
+    }
+
+    private synchronized void put(String uuid, double latitude, double longitude) {
+        Position previous = positions.get(uuid);
+        if (previous != null && previous.latitude == latitude && previous.longitude == longitude) {
+            return;
+        }
+        long cell = cellOf(latitude, longitude);
+        positions.put(uuid, new Position(latitude, longitude, cell));
+        if (previous != null && previous.cell != cell) {
+            removeFromCell(previous.cell, uuid);
+        }
+        cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(uuid);
+        changed(previous, latitude, longitude);
+    }
+
+    private synchronized void remove(String uuid) {
+        Position previous = positions.remove(uuid);
+        if (previous != null) {
+            removeFromCell(previous.cell, uuid);
+            changed(previous, null, null);
+        }
+    }
+
+    private void changed(Position previous, Double latitude, Double longitude) {
+        version++;
+        Double oldLatitude = previous != null ? previous.latitude : null;
+        Double oldLongitude = previous != null ? previous.longitude : null;
+        for (PositionChangeListener listener : changeListeners) {
+            listener.positionChanged(oldLatitude, oldLongitude, latitude, longitude);
+        }
+    }
+
+    private void removeFromCell(long cell, String uuid) {
+        Set<String> members = cells.get(cell);
+        if (members != null) {
+            members.remove(uuid);
+            if (members.isEmpty()) {
+                cells.remove(cell, members);
+            }
+        }
+    }
+
+    public interface PositionVisitor {
+        void visit(String uuid, double latitude, double longitude);
+    }
+
+    /**
+     * Visit every indexed vehicle inside the box (longitudes are not wrapped across the antimeridian)
+     */
+    public void forEachInBox(double minLat, double maxLat, double minLng, double maxLng, PositionVisitor visitor) {
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLng = Math.max(-180, minLng);
+        maxLng = Math.min(180, maxLng);
+
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minColumn = column(minLng);
+        int maxColumn = column(maxLng);
+
+        // Large boxes (low map zoom) cover more grid cells than there are occupied ones
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > cells.size()) {
+            for (Set<String> members : cells.values()) {
+                visitMembers(members, minLat, maxLat, minLng, maxLng, visitor);
+            }
+            return;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Set<String> members = cells.get(cellKey(row, column));
+                if (members != null) {
+                    visitMembers(members, minLat, maxLat, minLng, maxLng, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitMembers(Set<String> members, double minLat, double maxLat, double minLng, double maxLng,
+                              PositionVisitor visitor) {
+        for (String uuid : members) {
+            Position position = positions.get(uuid);
+            if (position != null
+                    && position.latitude >= minLat && position.latitude <= maxLat
+                    && position.longitude >= minLng && position.longitude <= maxLng) {
+                visitor.visit(uuid, position.latitude, position.longitude);
+            }
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return cellKey(row(latitude), column(longitude));
+    }
+
+    // Clamped so that latitude 90 and longitude 180 fall into the last row / column
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rowCount() - 1, (int) Math.floor((latitude + 90) / cellSizeDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.max(0, Math.min(columnCount() - 1, (int) Math.floor((longitude + 180) / cellSizeDegrees)));
+    }
+
+    private int rowCount() {
+        return (int) Math.ceil(180 / cellSizeDegrees);
+    }
+
+    private int columnCount() {
+        return (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Latitude span of radiusKm
+     */
+    static double latitudeDelta(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE_LAT;
+    }
+
+    /**
+     * Longitude span of a circle of radiusKm around a point at the given latitude: asin(sin(d) / cos(lat))
+     * for an angular radius d. The whole range (360) when the circle contains a pole.
+     */
+    static double longitudeDelta(double latitude, double radiusKm) {
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        if (Math.abs(latitude) + Math.toDegrees(angularRadius) >= 90) {
+            return 360;
+        }
+        return Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude))));
+    }
+
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,400 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory trigram index over the searchable text (display name, model, make, color) of available vehicles.
+ * Text is folded with {@link TurkishTextNormalizer#foldForSearch}, so "şehir", "Sehir" and "ŞEHİR" match alike.
+ *
+ * Matching keeps the semantics of the LIKE query it replaces: the whole query is one phrase that has to occur
+ * as a substring of a single field ("el" finds "Model S", "l s" too, "tesla beyaz" needs both words in one
+ * field), and every match is returned. The index only narrows the candidates: every word is indexed by its
+ * trigrams and by its one- and two-letter prefixes, the rarest word of the query picks the candidate set,
+ * and the phrase is then checked against the folded fields. A query made of one word shorter than three
+ * characters has no usable key and is checked against every vehicle. Results are ranked by where and how
+ * the phrase matched.
+ *
+ * Vehicle changes on this node reach it through {@link VehicleIndexListener} once they commit;
+ * changes from other instances show up with the next scheduled reload.
+ */
+@Service
+public class VehicleSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final String PREFIX_MARK = "^";
+
+    // Field order of Entry.fields, with the weight of a match in that field
+    private static final int DISPLAY_NAME = 0;
+    private static final int MODEL = 1;
+    private static final int MAKE = 2;
+    private static final int COLOR = 3;
+    private static final int[] FIELD_WEIGHTS = {4, 3, 2, 1};
+
+    // Match kinds, multiplied with the field weight
+    private static final int EXACT_WORD = 3;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 1;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    // Writers are serialized (synchronized); readers go lock-free over the concurrent maps
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    // Autocomplete: folded word -> folded field values containing it, and the values with their vehicle counts
+    private final NavigableMap<String, Set<String>> valuesByWord = new ConcurrentSkipListMap<>();
+    private final Map<String, Term> terms = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private static class Entry {
+        private final String[] fields;     // Folded, indexed by DISPLAY_NAME..COLOR
+        private final String[] originals;  // As entered, for autocomplete suggestions
+
+        Entry(String[] fields, String[] originals) {
+            this.fields = fields;
+            this.originals = originals;
+        }
+
+        Set<String> words() {
+            Set<String> words = new HashSet<>();
+            for (String field : fields) {
+                if (!field.isEmpty()) {
+                    words.addAll(Arrays.asList(field.split(" ")));
+                }
+            }
+            return words;
+        }
+    }
+
+    private static class Term {
+        private final String text;
+        private volatile int count;  // Written under the index lock, read without it
+
+        Term(String text) {
+            this.text = text;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * UUIDs of all available vehicles with a field containing the query, best match first
+     */
+    public List<String> search(String query) {
+        String phrase = TurkishTextNormalizer.foldForSearch(query);
+        if (phrase.isEmpty()) {
+            return List.of();
+        }
+
+        List<ScoredMatch> matches = new ArrayList<>();
+        for (String uuid : candidates(phrase)) {
+            Entry entry = entries.get(uuid);
+            if (entry == null) {
+                continue;
+            }
+            int score = score(entry, phrase);
+            if (score > 0) {
+                matches.add(new ScoredMatch(uuid, entry.fields[DISPLAY_NAME], score));
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((ScoredMatch match) -> match.score).reversed()
+            .thenComparing(match -> match.displayName));
+        return matches.stream().map(match -> match.uuid).toList();
+    }
+
+    /**
+     * Field values (as entered) with a word starting with the last word of the query,
+     * most common first; earlier words of the query must appear in the value as well
+     */
+    public List<String> autocomplete(String query, int limit) {
+        String folded = TurkishTextNormalizer.foldForSearch(query);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        String[] tokens = folded.split(" ");
+        String prefix = tokens[tokens.length - 1];
+
+        Set<String> values = new HashSet<>();
+        for (Set<String> withWord : valuesByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            values.addAll(withWord);
+        }
+
+        // Counts change under concurrent writes: sort a snapshot so the order stays consistent
+        List<Map.Entry<String, Integer>> suggestions = new ArrayList<>();
+        for (String value : values) {
+            Term term = terms.get(value);
+            if (term != null && containsAll(value, tokens, tokens.length - 1)) {
+                suggestions.add(Map.entry(term.text, term.count));
+            }
+        }
+        suggestions.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+            .thenComparing(Map.Entry.comparingByKey()));
+        return suggestions.stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Apply a committed vehicle change: index it when available, drop it otherwise
+     */
+    public void onVehicleChanged(Vehicle vehicle) {
+        String uuid = vehicle.getUuid();
+        boolean available = Boolean.TRUE.equals(vehicle.getIsAvailable())
+            && vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE;
+        String[] originals = {vehicle.getDisplayName(), vehicle.getModel(), vehicle.getMake(), vehicle.getColor()};
+
+        TransactionCallbacks.afterCommit(() -> {
+            if (available) {
+                put(uuid, originals);
+            } else {
+                remove(uuid);
+            }
+        });
+    }
+
+    public void onVehicleRemoved(String uuid) {
+        TransactionCallbacks.afterCommit(() -> remove(uuid));
+    }
+
+    /**
+     * Reload the searchable text of all available vehicles from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.vehicles.search.refresh-interval-ms:60000}",
+               initialDelayString = "${app.vehicles.search.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = vehicleRepository.findAvailableVehicleSearchFields();
+
+        Set<String> seen = new HashSet<>();
+        for (Object[] row : rows) {
+            String uuid = (String) row[0];
+            put(uuid, new String[]{(String) row[1], (String) row[2], (String) row[3], (String) row[4]});
+            seen.add(uuid);
+        }
+        for (String uuid : new ArrayList<>(entries.keySet())) {
+            if (!seen.contains(uuid)) {
+                remove(uuid);
+            }
+        }
+
+        if (!loaded) {
+            logger.info("🔎 Vehicle search index loaded - {} vehicle(s), {} posting list(s), {}ms",
+                entries.size(), postings.size(), System.currentTimeMillis() - startTime);
+        }
+        loaded = true;
+    }
+
+    private synchronized void put(String uuid, String[] originals) {
+        String[] fields = new String[originals.length];
+        for (int i = 0; i < originals.length; i++) {
+            fields[i] = TurkishTextNormalizer.foldForSearch(originals[i]);
+        }
+
+        Entry previous = entries.get(uuid);
+        if (previous != null && Arrays.equals(previous.fields, fields)) {
+            return;
+        }
+        if (previous != null) {
+            remove(uuid);
+        }
+
+        Entry entry = new Entry(fields, originals);
+        entries.put(uuid, entry);
+        for (String word : entry.words()) {
+            for (String key : keys(word)) {
+                postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+            }
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].isEmpty()) {
+                continue;
+            }
+            String text = originals[i].trim();
+            terms.computeIfAbsent(fields[i], value -> new Term(text)).count++;
+            for (String word : fields[i].split(" ")) {
+                valuesByWord.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(fields[i]);
+            }
+        }
+    }
+
+    private synchronized void remove(String uuid) {
+        Entry entry = entries.remove(uuid);
+        if (entry == null) {
+            return;
+        }
+        for (String word : entry.words()) {
+            for (String key : keys(word)) {
+                removeFrom(postings, key, uuid);
+            }
+        }
+        for (String field : entry.fields) {
+            Term term = terms.get(field);
+            if (term != null && --term.count == 0) {
+                terms.remove(field);
+                for (String word : field.split(" ")) {
+                    removeFrom(valuesByWord, word, field);
+                }
+            }
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String key, String member) {
+        Set<String> members = index.get(key);
+        if (members != null) {
+            members.remove(member);
+            if (members.isEmpty()) {
+                index.remove(key, members);
+            }
+        }
+    }
+
+    /**
+     * Posting keys of a word: its one- and two-letter prefixes and its trigrams
+     */
+    private static Set<String> keys(String word) {
+        Set<String> keys = new HashSet<>();
+        for (int length = 1; length < GRAM && length <= word.length(); length++) {
+            keys.add(PREFIX_MARK + word.substring(0, length));
+        }
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            keys.add(word.substring(i, i + GRAM));
+        }
+        return keys;
+    }
+
+    /**
+     * Vehicles that may contain the phrase: the smallest candidate set over its words. A word of three or
+     * more characters lies inside one field word, so all of its trigrams must be posted; a shorter word after
+     * a space starts a field word. A short first word can sit anywhere in a word, so it gives no candidates.
+     */
+    private Collection<String> candidates(String phrase) {
+        String[] words = phrase.split(" ");
+        Set<String> smallest = null;
+        for (int i = 0; i < words.length; i++) {
+            Set<String> candidates;
+            if (words[i].length() >= GRAM) {
+                candidates = trigramCandidates(words[i]);
+            } else if (i > 0) {
+                candidates = postings.getOrDefault(PREFIX_MARK + words[i], Set.of());
+            } else {
+                continue;
+            }
+            if (smallest == null || candidates.size() < smallest.size()) {
+                smallest = candidates;
+            }
+        }
+        return smallest != null ? smallest : entries.keySet();
+    }
+
+    /**
+     * Vehicles with a word containing every trigram of the word
+     */
+    private Set<String> trigramCandidates(String word) {
+        List<Set<String>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            Set<String> list = postings.get(word.substring(i, i + GRAM));
+            if (list == null) {
+                return Set.of();
+            }
+            lists.add(list);
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidates = new HashSet<>();
+        for (String uuid : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(uuid);
+            }
+            if (inAll) {
+                candidates.add(uuid);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Best weighted match of the phrase over the fields, 0 if it does not occur in any
+     */
+    private static int score(Entry entry, String phrase) {
+        int best = 0;
+        for (int i = 0; i < entry.fields.length; i++) {
+            best = Math.max(best, matchKind(entry.fields[i], phrase) * FIELD_WEIGHTS[i]);
+        }
+        return best;
+    }
+
+    private static int matchKind(String field, String token) {
+        int index = field.indexOf(token);
+        if (index < 0) {
+            return 0;
+        }
+        int kind = SUBSTRING;
+        for (; index >= 0; index = field.indexOf(token, index + 1)) {
+            boolean wordStart = index == 0 || field.charAt(index - 1) == ' ';
+            if (!wordStart) {
+                continue;
+            }
+            int end = index + token.length();
+            if (end == field.length() || field.charAt(end) == ' ') {
+                return EXACT_WORD;
+            }
+            kind = WORD_PREFIX;
+        }
+        return kind;
+    }
+
+    private static boolean containsAll(String value, String[] tokens, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!value.contains(tokens[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ScoredMatch {
+        private final String uuid;
+        private final String displayName;
+        private final int score;
+
+        ScoredMatch(String uuid, String displayName, int score) {
+            this.uuid = uuid;
+            this.displayName = displayName;
+            this.score = score;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.rentesla.mobilebackend.service;
 
+import com.rentesla.mobilebackend.dto.NearestVehicle;
 import com.rentesla.mobilebackend.entity.Vehicle;
 import com.rentesla.mobilebackend.repository.VehicleRepository;
 import org.slf4j.Logger;
@@ -9,7 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,12 +22,22 @@ public class VehicleService {
 
     private static final Logger logger = LoggerFactory.getLogger(VehicleService.class);
 
+    private static final double MAX_SEARCH_RADIUS_KM = 100;
+    private static final int MAX_NEAREST_VEHICLES = 50;
+    private static final int MAX_AUTOCOMPLETE_SUGGESTIONS = 20;
+
     @Autowired
     private VehicleRepository vehicleRepository;
 
     @Autowired
     private QRCodeService qrCodeService;
 
+    @Autowired
+    private VehicleLocationIndex vehicleLocationIndex;
+
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+
     /**
      * PRD: Find nearby vehicles within radius
      */
@@ -35,16 +49,103 @@ public class VehicleService {
             throw new IllegalArgumentException("Latitude, longitude, and radius are required");
         }
         
-        if (radiusKm <= 0 || radiusKm > 100) {
+        validateCoordinates(latitude, longitude);
+        
+        if (radiusKm <= 0 || radiusKm > MAX_SEARCH_RADIUS_KM) {
             throw new IllegalArgumentException("Radius must be between 1 and 100 km");
         }
         
-        List<Vehicle> nearbyVehicles = vehicleRepository.findNearbyVehicles(latitude, longitude, radiusKm);
+        if (!vehicleLocationIndex.isLoaded()) {
+            // Index is loaded once the application is ready; until then ask the database
+            double latDelta = VehicleLocationIndex.latitudeDelta(radiusKm);
+            double lngDelta = VehicleLocationIndex.longitudeDelta(latitude, radiusKm);
+            double minLng = longitude - lngDelta;
+            double maxLng = longitude + lngDelta;
+            if (minLng < -180 || maxLng > 180) {
+                // Circle crosses the antimeridian: the distance check alone does the filtering
+                minLng = -180;
+                maxLng = 180;
+            }
+            return vehicleRepository.findNearbyVehicles(latitude, longitude, radiusKm,
+                latitude - latDelta, latitude + latDelta, minLng, maxLng);
+        }
+        
+        List<Vehicle> nearbyVehicles = loadAvailableInOrder(uuidsOf(vehicleLocationIndex.findWithinRadius(latitude, longitude, radiusKm)));
         
         logger.info("Found {} vehicles within {} km radius", nearbyVehicles.size(), radiusKm);
         return nearbyVehicles;
     }
 
+    /**
+     * The k available vehicles closest to the user (within the nearby search's 100 km limit), nearest first
+     */
+    @Transactional(readOnly = true)
+    public List<NearestVehicle> findNearestVehicles(Double latitude, Double longitude, Integer k) {
+        logger.info("Finding {} nearest vehicles to lat: {}, lng: {}", k, latitude, longitude);
+        
+        if (latitude == null || longitude == null || k == null) {
+            throw new IllegalArgumentException("Latitude, longitude, and k are required");
+        }
+        
+        validateCoordinates(latitude, longitude);
+        
+        if (k < 1 || k > MAX_NEAREST_VEHICLES) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_NEAREST_VEHICLES);
+        }
+        
+        if (!vehicleLocationIndex.isLoaded()) {
+            return findNearbyVehicles(latitude, longitude, MAX_SEARCH_RADIUS_KM).stream()
+                .limit(k)
+                .map(vehicle -> new NearestVehicle(vehicle, VehicleLocationIndex.haversineKm(
+                    latitude, longitude, vehicle.getLocationLat(), vehicle.getLocationLng())))
+                .toList();
+        }
+        
+        List<VehicleLocationIndex.Hit> hits = vehicleLocationIndex.findNearest(latitude, longitude, k, MAX_SEARCH_RADIUS_KM);
+        Map<String, Double> distances = new HashMap<>();
+        hits.forEach(hit -> distances.put(hit.getUuid(), hit.getDistanceKm()));
+        
+        return loadAvailableInOrder(uuidsOf(hits)).stream()
+            .map(vehicle -> new NearestVehicle(vehicle, distances.get(vehicle.getUuid())))
+            .toList();
+    }
+
+    private static void validateCoordinates(double latitude, double longitude) {
+        // Written so that NaN fails too
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+    }
+
+    private static List<String> uuidsOf(List<VehicleLocationIndex.Hit> hits) {
+        return hits.stream().map(VehicleLocationIndex.Hit::getUuid).toList();
+    }
+
+    /**
+     * Load the vehicles found by an in-memory index by primary key, keeping the index order. Vehicles that
+     * stopped being available since the index last heard of them (another node) are left out.
+     */
+    private List<Vehicle> loadAvailableInOrder(List<String> uuids) {
+        if (uuids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<String, Vehicle> byUuid = new HashMap<>();
+        for (Vehicle vehicle : vehicleRepository.findAllById(uuids)) {
+            byUuid.put(vehicle.getUuid(), vehicle);
+        }
+        
+        List<Vehicle> vehicles = new ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            Vehicle vehicle = byUuid.get(uuid);
+            if (vehicle != null && Boolean.TRUE.equals(vehicle.getIsAvailable())
+                    && vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE) {
+                vehicles.add(vehicle);
+            }
+        }
+        return vehicles;
+    }
+
     /**
      * PRD: Find vehicles in geographical bounds (alternative approach for better performance)
      */
@@ -195,7 +296,27 @@ public class VehicleService {
             return getAvailableVehicles();
         }
         
-        return vehicleRepository.searchAvailableVehicles(searchTerm.trim());
+        if (!vehicleSearchIndex.isLoaded()) {
+            return vehicleRepository.searchAvailableVehicles(searchTerm.trim());
+        }
+        
+        return loadAvailableInOrder(vehicleSearchIndex.search(searchTerm));
+    }
+
+    /**
+     * Search-as-you-type suggestions (display names, models, makes, colors) for a partial query
+     */
+    @Transactional(readOnly = true)
+    public List<String> autocompleteVehicles(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return List.of();
+        }
+        
+        if (limit < 1 || limit > MAX_AUTOCOMPLETE_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_AUTOCOMPLETE_SUGGESTIONS);
+        }
+        
+        return vehicleSearchIndex.autocomplete(query, limit);
     }
 
     /**
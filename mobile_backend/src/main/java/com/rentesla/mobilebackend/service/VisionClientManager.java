@@ -0,0 +1,296 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.api.gax.rpc.UnaryCallSettings;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.ImageAnnotatorSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the single long-lived Google Cloud Vision client shared by all OCR workers.
+ * Credentials are loaded once, the client (and its gRPC channel pool) is created at startup,
+ * and a broken client is transparently re-created on the next call.
+ */
+@Service
+public class VisionClientManager implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisionClientManager.class);
+
+    @Value("${app.ocr.mock.enabled:true}")
+    private boolean mockEnabled;
+
+    @Value("${google.cloud.vision.enabled:false}")
+    private boolean visionApiEnabled;
+
+    @Value("${google.cloud.vision.channel-pool-size:2}")
+    private int channelPoolSize;
+
+    // Deadline of one batchAnnotateImages call; below app.ocr.timeout.seconds so a hanging
+    // provider comes back to the provider guard as DEADLINE_EXCEEDED before the jobs time out
+    @Value("${app.ocr.provider.call-timeout-ms:20000}")
+    private long callTimeoutMs;
+
+    @Value("${app.ocr.timeout.seconds:30}")
+    private int ocrTimeoutSeconds;
+
+    @Value("${google.cloud.credentials.location:classpath:vision/rentesla-464421-677259788a1d.json}")
+    private String credentialsPath;
+
+    private final Object lock = new Object();
+
+    private volatile GoogleCredentials credentials;
+    private volatile ImageAnnotatorClient client;
+    private volatile LocalDateTime clientCreatedAt;
+    private volatile String lastError;
+    private volatile int recreateCount;
+
+    /**
+     * A call against the shared Vision client
+     */
+    @FunctionalInterface
+    public interface VisionCall<T> {
+        T execute(ImageAnnotatorClient client) throws IOException;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (callTimeoutMs <= 0 || callTimeoutMs >= ocrTimeoutSeconds * 1000L) {
+            long adjusted = ocrTimeoutSeconds * 1000L * 2 / 3;
+            logger.warn("⚠️ Vision call timeout {}ms not below the OCR timeout of {}s, using {}ms",
+                callTimeoutMs, ocrTimeoutSeconds, adjusted);
+            callTimeoutMs = adjusted;
+        }
+
+        if (mockEnabled || !visionApiEnabled) {
+            logger.info("ℹ️ Google Cloud Vision client not created (mock: {}, vision enabled: {})", mockEnabled, visionApiEnabled);
+            return;
+        }
+
+        try {
+            getClient();
+        } catch (IOException e) {
+            // Not fatal: the client is created lazily on the first OCR call
+            logger.warn("⚠️ Could not create Google Cloud Vision client at startup: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (lock) {
+            closeQuietly(client);
+            client = null;
+        }
+    }
+
+    /**
+     * Run a call with the shared client. If the call fails because the client or its
+     * channel is broken, the client is re-created and the call retried once.
+     */
+    public <T> T execute(VisionCall<T> call) throws IOException {
+        ImageAnnotatorClient current = getClient();
+        try {
+            T result = call.execute(current);
+            lastError = null;
+            return result;
+        } catch (ApiException e) {
+            if (!isChannelFailure(e)) {
+                throw e;
+            }
+            logger.warn("🔁 Vision call failed with {}, re-creating client and retrying", e.getStatusCode().getCode());
+            invalidate(current, e.getMessage());
+            T result = call.execute(getClient());
+            lastError = null;
+            return result;
+        } catch (IllegalStateException e) {
+            // Raised by gRPC when the channel has been shut down underneath us
+            logger.warn("🔁 Vision client unusable ({}), re-creating client and retrying", e.getMessage());
+            invalidate(current, e.getMessage());
+            T result = call.execute(getClient());
+            lastError = null;
+            return result;
+        }
+    }
+
+    /**
+     * Get the shared client, creating it if it does not exist or is no longer usable
+     */
+    public ImageAnnotatorClient getClient() throws IOException {
+        ImageAnnotatorClient current = client;
+        if (isUsable(current)) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (isUsable(client)) {
+                return client;
+            }
+            closeQuietly(client);
+            client = createClient();
+            clientCreatedAt = LocalDateTime.now();
+            return client;
+        }
+    }
+
+    /**
+     * Vision client state, in the "ocr" health group. Never DOWN: OCR jobs wait in the queue while
+     * Vision is unreachable, so the application itself stays healthy. Without a usable client the
+     * status is UNKNOWN (which does not lower the aggregate status); a usable client is UP, with
+     * the last call error as a detail.
+     */
+    @Override
+    public Health health() {
+        if (mockEnabled || !visionApiEnabled) {
+            return Health.unknown()
+                .withDetail("reason", "Google Cloud Vision disabled (mock OCR in use)")
+                .build();
+        }
+
+        ImageAnnotatorClient current = client;
+        boolean usable = isUsable(current);
+        Health.Builder builder = usable ? Health.up() : Health.unknown();
+        builder.withDetail("clientUsable", usable)
+               .withDetail("clientCreatedAt", String.valueOf(clientCreatedAt))
+               .withDetail("channelPoolSize", channelPoolSize)
+               .withDetail("recreateCount", recreateCount);
+        if (lastError != null) {
+            builder.withDetail("lastError", lastError);
+        }
+        return builder.build();
+    }
+
+    private ImageAnnotatorClient createClient() throws IOException {
+        logger.info("🔐 Creating Google Cloud Vision client (channel pool size: {})", channelPoolSize);
+
+        try {
+            ImageAnnotatorClient created = ImageAnnotatorClient.create(clientSettings());
+            logger.info("✅ Google Cloud Vision client created successfully");
+            return created;
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * Settings for a new client: the Vision endpoint over a statically sized channel pool.
+     * Tests override this to talk to an in-process stand-in.
+     */
+    ImageAnnotatorSettings clientSettings() throws IOException {
+        InstantiatingGrpcChannelProvider transport = ImageAnnotatorSettings.defaultGrpcTransportProviderBuilder()
+            .setChannelPoolSettings(ChannelPoolSettings.staticallySized(channelPoolSize))
+            .build();
+
+        ImageAnnotatorSettings.Builder builder = ImageAnnotatorSettings.newBuilder()
+            .setCredentialsProvider(FixedCredentialsProvider.create(getCredentials()))
+            .setTransportChannelProvider(transport);
+        applyCallTimeout(builder);
+        return builder.build();
+    }
+
+    /**
+     * One attempt per batchAnnotateImages call, bounded by call-timeout-ms. Retries are left to
+     * the job queue, which backs off and knows about the circuit breaker.
+     */
+    void applyCallTimeout(ImageAnnotatorSettings.Builder builder) {
+        UnaryCallSettings.Builder<BatchAnnotateImagesRequest, BatchAnnotateImagesResponse> batchSettings =
+            builder.batchAnnotateImagesSettings();
+        batchSettings.setRetrySettings(batchSettings.getRetrySettings().toBuilder()
+            .setLogicalTimeout(org.threeten.bp.Duration.ofMillis(callTimeoutMs))
+            .setMaxAttempts(1)
+            .build());
+    }
+
+    private void invalidate(ImageAnnotatorClient broken, String reason) {
+        synchronized (lock) {
+            lastError = reason;
+            if (client == broken) {
+                closeQuietly(client);
+                client = null;
+                recreateCount++;
+            }
+        }
+    }
+
+    private boolean isUsable(ImageAnnotatorClient candidate) {
+        return candidate != null && !candidate.isShutdown() && !candidate.isTerminated();
+    }
+
+    private boolean isChannelFailure(ApiException e) {
+        StatusCode.Code code = e.getStatusCode().getCode();
+        return code == StatusCode.Code.UNAVAILABLE || code == StatusCode.Code.UNAUTHENTICATED;
+    }
+
+    private void closeQuietly(ImageAnnotatorClient candidate) {
+        if (candidate == null) {
+            return;
+        }
+        try {
+            candidate.shutdown();
+            candidate.awaitTermination(5, TimeUnit.SECONDS);
+            candidate.close();
+            logger.info("🔐 Google Cloud Vision client closed");
+        } catch (Exception e) {
+            logger.warn("Warning: Failed to close Vision client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load Google Cloud credentials from the service account file once and cache them.
+     * GoogleCredentials refreshes its access token on its own.
+     */
+    private GoogleCredentials getCredentials() throws IOException {
+        GoogleCredentials cached = credentials;
+        if (cached != null) {
+            return cached;
+        }
+
+        logger.info("🔐 Loading service account credentials from: {}", credentialsPath);
+        try {
+            String path = credentialsPath;
+            if (path.startsWith("classpath:")) {
+                path = path.substring("classpath:".length());
+                ClassPathResource resource = new ClassPathResource(path);
+
+                if (!resource.exists()) {
+                    throw new IOException("Service account key file not found: " + path);
+                }
+
+                try (InputStream credentialsStream = resource.getInputStream()) {
+                    credentials = GoogleCredentials.fromStream(credentialsStream);
+                }
+            } else {
+                // Handle file system path
+                try (InputStream credentialsStream = new FileInputStream(path)) {
+                    credentials = GoogleCredentials.fromStream(credentialsStream);
+                }
+            }
+            logger.info("✅ Successfully loaded service account credentials");
+            return credentials;
+        } catch (Exception e) {
+            logger.error("❌ Failed to load service account credentials: {}", e.getMessage());
+            lastError = e.getMessage();
+            throw new IOException("Failed to load credentials: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- V10: Persistent OCR job queue
+-- Jobs are claimed with FOR UPDATE SKIP LOCKED under a lease; failed attempts back off, then go DEAD
+
+CREATE TABLE IF NOT EXISTS ocr_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    document_id BIGINT NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_ocr_jobs_status CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'DEAD'))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_ocr_jobs_document_id ON ocr_jobs(document_id);
+CREATE INDEX IF NOT EXISTS idx_ocr_jobs_status_next_attempt ON ocr_jobs(status, next_attempt_at);
+
+-- Documents still waiting for OCR when this migration runs
+INSERT INTO ocr_jobs (document_id, user_id, status, attempts, next_attempt_at)
+SELECT d.id, d.user_id, 'QUEUED', 0, CURRENT_TIMESTAMP
+FROM documents d
+WHERE d.status = 'PENDING'
+  AND NOT EXISTS (SELECT 1 FROM ocr_jobs j WHERE j.document_id = d.id);
+
+COMMENT ON TABLE ocr_jobs IS 'Durable OCR work queue shared by all backend instances';
+COMMENT ON COLUMN ocr_jobs.lease_owner IS 'Node currently running the job; the lease is claimable again after lease_expires_at';
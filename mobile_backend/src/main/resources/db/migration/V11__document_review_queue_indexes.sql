@@ -0,0 +1,7 @@
+-- V11: Keyset pagination for the admin review queues
+-- Queues are read as: WHERE status = ? AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?
+
+CREATE INDEX IF NOT EXISTS idx_documents_status_created_id ON documents(status, created_at, id);
+
+-- Superseded by the composite index above (status is its leading column)
+DROP INDEX IF EXISTS idx_documents_status;
@@ -0,0 +1,17 @@
+-- V12: users.document_verified becomes the durable verification status read by bookings and profiles
+-- verification_updated_at lets every backend instance invalidate its cached status when it changes
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS verification_updated_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_users_verification_updated_at ON users(verification_updated_at)
+    WHERE verification_updated_at IS NOT NULL;
+
+-- Backfill: verified = has at least one approved document (the flag was never cleared before).
+-- Admins are verified without documents and are left alone.
+UPDATE users u
+SET document_verified = EXISTS (SELECT 1 FROM documents d WHERE d.user_id = u.id AND d.status = 'APPROVED'),
+    verification_updated_at = CURRENT_TIMESTAMP
+WHERE u.role <> 'ADMIN'
+  AND u.document_verified <> EXISTS (SELECT 1 FROM documents d WHERE d.user_id = u.id AND d.status = 'APPROVED');
+
+COMMENT ON COLUMN users.verification_updated_at IS 'Last change of document_verified, polled to invalidate verification caches';
@@ -0,0 +1,20 @@
+-- V13: Priority classes for the OCR job queue
+-- Workers claim per class (WHERE priority = ? AND status ... ORDER BY next_attempt_at, id) and share capacity by weight
+
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS priority VARCHAR(30) NOT NULL DEFAULT 'FIRST_SIGNUP';
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS queued_at TIMESTAMP;
+
+UPDATE ocr_jobs SET queued_at = created_at WHERE queued_at IS NULL;
+ALTER TABLE ocr_jobs ALTER COLUMN queued_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE ocr_jobs ALTER COLUMN queued_at SET NOT NULL;
+
+ALTER TABLE ocr_jobs ADD CONSTRAINT chk_ocr_jobs_priority
+    CHECK (priority IN ('ACTIVE_RESERVATION', 'FIRST_SIGNUP', 'REUPLOAD', 'ADMIN_RERUN'));
+
+CREATE INDEX IF NOT EXISTS idx_ocr_jobs_priority_status_next_attempt ON ocr_jobs(priority, status, next_attempt_at);
+
+-- Superseded by the per-class index above
+DROP INDEX IF EXISTS idx_ocr_jobs_status_next_attempt;
+
+COMMENT ON COLUMN ocr_jobs.priority IS 'Scheduling class; classes share OCR capacity by weight (app.ocr.jobs.priority.weights)';
+COMMENT ON COLUMN ocr_jobs.queued_at IS 'When the job was last queued; start of the per-class OCR latency';
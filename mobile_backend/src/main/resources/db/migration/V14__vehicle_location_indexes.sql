@@ -0,0 +1,15 @@
+-- V14: Index the location searches over rentable vehicles
+-- /vehicles/nearby and /vehicles/in-bounds read: WHERE is_available = true AND status = 'AVAILABLE'
+--   AND location_lat BETWEEN ? AND ? AND location_lng BETWEEN ? AND ?
+-- The nearby query computes its bounding box from the radius before the exact distance check,
+-- so both can range-scan this partial index instead of reading the whole table.
+-- (A plain B-tree is used: cube/earthdistance and PostGIS need extensions the deployment does not have.)
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_available_location ON vehicles(location_lat, location_lng)
+    WHERE is_available = true AND status = 'AVAILABLE'
+      AND location_lat IS NOT NULL AND location_lng IS NOT NULL;
+
+-- Listings by availability and status (findByIsAvailableTrueAndStatus, counts)
+CREATE INDEX IF NOT EXISTS idx_vehicles_status_available ON vehicles(status, is_available);
+
+ANALYZE vehicles;
@@ -0,0 +1,7 @@
+-- V16: When a queued OCR job was first handed to a worker
+-- Jobs put back without using an attempt (provider limit reached, waiting for the other face) keep it,
+-- so ocr.job.queued is recorded once per queuing
+
+ALTER TABLE ocr_jobs ADD COLUMN IF NOT EXISTS dispatched_at TIMESTAMP;
+
+COMMENT ON COLUMN ocr_jobs.dispatched_at IS 'First dispatch to a worker since queued_at; end of the per-class queue wait';
@@ -0,0 +1,12 @@
+-- V7: Move document images out of the documents table into the content-addressed blob store
+-- Images are stored on disk keyed by SHA-256; the row only keeps key, size (file_size) and mime type (file_type)
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS image_key VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_documents_image_key ON documents(image_key);
+
+COMMENT ON COLUMN documents.image_key IS 'SHA-256 key of the document image in the blob store';
+
+-- Existing image_base64 rows are moved to the blob store at startup by DocumentImageMigrationRunner
+-- (app.storage.documents.migrate-legacy=true). Once no row has image_base64 left, drop the column:
+-- ALTER TABLE documents DROP COLUMN image_base64;
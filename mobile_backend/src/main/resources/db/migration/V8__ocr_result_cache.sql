@@ -0,0 +1,21 @@
+-- V8: Cache of OCR results so re-uploaded images skip the Vision call
+-- Keyed by user, document type and SHA-256 of the image; perceptual_hash (64-bit dHash) matches near-duplicates
+
+CREATE TABLE IF NOT EXISTS ocr_result_cache (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    document_type VARCHAR(50) NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    perceptual_hash BIGINT,
+    result_json TEXT NOT NULL,
+    hit_count INTEGER NOT NULL DEFAULT 0,
+    last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ocr_result_cache_key UNIQUE (user_id, document_type, content_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ocr_result_cache_last_used ON ocr_result_cache(last_used_at);
+
+COMMENT ON TABLE ocr_result_cache IS 'OCR results reused when a user uploads the same image again';
+COMMENT ON COLUMN ocr_result_cache.perceptual_hash IS 'Difference hash of the image for near-duplicate matching';
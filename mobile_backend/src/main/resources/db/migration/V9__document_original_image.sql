@@ -0,0 +1,10 @@
+-- V9: Uploaded images are pre-processed (rotated, downscaled, recompressed) before OCR
+-- image_key points at the pre-processed image; original_image_key keeps the upload as received
+-- when app.storage.documents.keep-original is enabled
+
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS original_image_key VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_documents_original_image_key ON documents(original_image_key)
+    WHERE original_image_key IS NOT NULL;
+
+COMMENT ON COLUMN documents.original_image_key IS 'Blob key of the upload before pre-processing (only when originals are kept)';
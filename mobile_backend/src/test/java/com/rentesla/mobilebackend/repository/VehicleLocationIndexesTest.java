@@ -0,0 +1,136 @@
+package com.rentesla.mobilebackend.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies V14 to a real PostgreSQL and checks that the planner picks its indexes for the SQL the
+ * vehicle location queries in {@link VehicleRepository} translate to.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class VehicleLocationIndexesTest {
+
+    private static final String LOCATION_INDEX = "idx_vehicles_available_location";
+    private static final String STATUS_INDEX = "idx_vehicles_status_available";
+
+    // Rentable-vehicle predicate shared by the location queries
+    private static final String RENTABLE = "location_lat IS NOT NULL AND location_lng IS NOT NULL "
+        + "AND is_available = true AND status = 'AVAILABLE'";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @BeforeAll
+    static void createSchema() throws SQLException, IOException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // The columns of the Hibernate-generated table that the queries touch, plus the wide QR column
+            statement.execute("CREATE TABLE vehicles ("
+                + "uuid VARCHAR(36) PRIMARY KEY, "
+                + "vin VARCHAR(255) NOT NULL UNIQUE, "
+                + "display_name VARCHAR(255) NOT NULL, "
+                + "status VARCHAR(255) NOT NULL, "
+                + "is_available BOOLEAN NOT NULL, "
+                + "location_lat DOUBLE PRECISION, "
+                + "location_lng DOUBLE PRECISION, "
+                + "qr_code_image TEXT)");
+
+            // 50k vehicles around Turkey: 10% rentable, 1% in maintenance, the rest rented
+            statement.execute("INSERT INTO vehicles (uuid, vin, display_name, status, is_available, "
+                + "location_lat, location_lng, qr_code_image) "
+                + "SELECT md5(i::text), 'VIN' || i, 'Tesla ' || i, "
+                + "CASE WHEN i % 10 = 0 THEN 'AVAILABLE' WHEN i % 100 = 1 THEN 'MAINTENANCE' ELSE 'RENTED' END, "
+                + "i % 10 = 0, 36 + random() * 6, 26 + random() * 19, repeat('x', 500) "
+                + "FROM generate_series(1, 50000) AS i");
+
+            statement.execute(migration("V14__vehicle_location_indexes.sql"));
+        }
+    }
+
+    @Test
+    void nearbySearchUsesLocationIndex() throws SQLException {
+        // findNearbyVehicles: 5 km around Taksim, with the bounding box in front of the distance check
+        double lat = 41.0369;
+        double lng = 28.9850;
+        String distance = String.format(Locale.ROOT, "(6371 * acos(cos(radians(%1$f)) * cos(radians(location_lat)) * "
+            + "cos(radians(location_lng) - radians(%2$f)) + sin(radians(%1$f)) * sin(radians(location_lat))))", lat, lng);
+        String sql = String.format(Locale.ROOT, "SELECT * FROM vehicles WHERE %s "
+            + "AND location_lat BETWEEN %f AND %f AND location_lng BETWEEN %f AND %f "
+            + "AND %s <= 5 ORDER BY %s",
+            RENTABLE, lat - 0.045, lat + 0.045, lng - 0.06, lng + 0.06, distance, distance);
+
+        assertUsesIndex(sql, LOCATION_INDEX);
+    }
+
+    @Test
+    void inBoundsSearchUsesLocationIndex() throws SQLException {
+        // findVehiclesInBounds: a city-sized map viewport
+        String sql = "SELECT * FROM vehicles WHERE " + RENTABLE
+            + " AND location_lat BETWEEN 40.95 AND 41.10 AND location_lng BETWEEN 28.85 AND 29.10";
+
+        assertUsesIndex(sql, LOCATION_INDEX);
+    }
+
+    @Test
+    void positionsInBoundsUseLocationIndex() throws SQLException {
+        // findAvailableVehiclePositionsInBounds: cluster tiles before the in-memory index has loaded
+        String sql = "SELECT uuid, location_lat, location_lng FROM vehicles WHERE " + RENTABLE
+            + " AND location_lat BETWEEN 40.95 AND 41.10 AND location_lng BETWEEN 28.85 AND 29.10";
+
+        assertUsesIndex(sql, LOCATION_INDEX);
+    }
+
+    @Test
+    void statusCountUsesStatusIndex() throws SQLException {
+        // countByStatus for a rare status
+        assertUsesIndex("SELECT count(*) FROM vehicles WHERE status = 'MAINTENANCE'", STATUS_INDEX);
+    }
+
+    @Test
+    void uncoveredQueryDoesNotUseLocationIndex() throws SQLException {
+        // Sanity check of the plan inspection: rented vehicles are outside the partial index
+        String plan = explain("SELECT * FROM vehicles WHERE status = 'RENTED' "
+            + "AND location_lat BETWEEN 40.95 AND 41.10 AND location_lng BETWEEN 28.85 AND 29.10");
+
+        assertFalse(plan.contains(LOCATION_INDEX), plan);
+    }
+
+    private static void assertUsesIndex(String sql, String index) throws SQLException {
+        String plan = explain(sql);
+        assertTrue(plan.contains(index), "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static String migration(String name) throws IOException {
+        return new ClassPathResource("db/migration/" + name).getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,176 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+import com.rentesla.mobilebackend.entity.Document.DocumentStatus;
+import com.rentesla.mobilebackend.repository.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentStatisticsServiceTest {
+
+    // What the GROUP BY query returns: [status, autoApproved, count]
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private DocumentRepository documentRepository;
+    private DocumentStatisticsService statistics;
+    private DocumentStatisticsListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        when(documentRepository.countGroupedByStatusAndAutoApproved()).thenAnswer(invocation -> new ArrayList<>(rows));
+
+        statistics = new DocumentStatisticsService();
+        ReflectionTestUtils.setField(statistics, "documentRepository", documentRepository);
+
+        ObjectProvider<DocumentStatisticsService> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(statistics);
+        listener = new DocumentStatisticsListener();
+        ReflectionTestUtils.setField(listener, "statisticsService", provider);
+
+        rows.add(new Object[]{DocumentStatus.PENDING, null, 2L});
+        rows.add(new Object[]{DocumentStatus.APPROVED, true, 3L});
+        statistics.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void listenerCountsPersistUpdateAndRemove() {
+        Document document = new Document(1L, Document.DocumentType.IDENTITY_CARD, "key");
+        document.setStatus(DocumentStatus.PENDING);
+        listener.onPersist(document);
+        assertCounts(6, 3, 3, 3);
+
+        document.setStatus(DocumentStatus.APPROVED);
+        document.setAutoApproved(false);
+        listener.onUpdate(document);
+        assertCounts(6, 2, 4, 3);
+        assertEquals(1, statistics.getStatistics().getManuallyReviewedCount());
+
+        // Saved again without a status change
+        listener.onUpdate(document);
+        assertCounts(6, 2, 4, 3);
+
+        listener.onRemove(document);
+        assertCounts(5, 2, 3, 3);
+        assertEquals(0, statistics.getStatistics().getManuallyReviewedCount());
+    }
+
+    @Test
+    void countsChangeOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = pendingDocument();
+
+        document.setStatus(DocumentStatus.REJECTED);
+        listener.onUpdate(document);
+        assertCounts(5, 2, 3, 3);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertCounts(5, 1, 3, 3);
+        assertEquals(1, statistics.getStatistics().getRejectedDocuments());
+    }
+
+    @Test
+    void ignoresRolledBackChange() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = pendingDocument();
+
+        document.setStatus(DocumentStatus.REJECTED);
+        listener.onUpdate(document);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertCounts(5, 2, 3, 3);
+        assertEquals(0, statistics.getStatistics().getRejectedDocuments());
+    }
+
+    @Test
+    void reconcileSkipsWhileChangeIsUncommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = pendingDocument();
+        document.setStatus(DocumentStatus.APPROVED);
+        document.setAutoApproved(true);
+        listener.onUpdate(document);
+
+        // Committed in the database, but this node has not counted it yet
+        commitInDatabase();
+        statistics.reconcile();
+        assertCounts(5, 2, 3, 3);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertCounts(5, 1, 4, 4);
+
+        statistics.reconcile();
+        assertCounts(5, 1, 4, 4);
+    }
+
+    @Test
+    void changeCommittedDuringQueryIsNotCountedTwice() {
+        when(documentRepository.countGroupedByStatusAndAutoApproved()).thenAnswer(invocation -> {
+            // Another request approves a document and commits while the query runs; its after-commit
+            // callback has not run yet when the query returns
+            TransactionSynchronizationManager.initSynchronization();
+            Document document = pendingDocument();
+            document.setStatus(DocumentStatus.APPROVED);
+            document.setAutoApproved(true);
+            listener.onUpdate(document);
+            commitInDatabase();
+            return new ArrayList<>(rows);
+        }).thenAnswer(invocation -> new ArrayList<>(rows));
+
+        statistics.reconcile();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertCounts(5, 1, 4, 4);
+    }
+
+    private Document pendingDocument() {
+        Document document = new Document(1L, Document.DocumentType.IDENTITY_CARD, "key");
+        document.setStatus(DocumentStatus.PENDING);
+        document.markPersistedState();
+        return document;
+    }
+
+    // The database side of approving one PENDING document automatically
+    private void commitInDatabase() {
+        rows.clear();
+        rows.add(new Object[]{DocumentStatus.PENDING, null, 1L});
+        rows.add(new Object[]{DocumentStatus.APPROVED, true, 4L});
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private void assertCounts(long total, long pending, long approved, long autoApproved) {
+        DocumentService.DocumentStatsResponse stats = statistics.getStatistics();
+        assertEquals(total, stats.getTotalDocuments(), "total");
+        assertEquals(pending, stats.getPendingDocuments(), "pending");
+        assertEquals(approved, stats.getApprovedDocuments(), "approved");
+        assertEquals(autoApproved, stats.getAutoApprovedCount(), "auto-approved");
+    }
+}
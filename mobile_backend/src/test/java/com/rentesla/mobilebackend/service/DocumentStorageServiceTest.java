@@ -0,0 +1,115 @@
+package com.rentesla.mobilebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentStorageServiceTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(60);
+
+    @TempDir
+    Path storageRoot;
+
+    private DocumentStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new DocumentStorageService();
+        ReflectionTestUtils.setField(storage, "storagePath", storageRoot.toString());
+        ReflectionTestUtils.setField(storage, "maxUploadBytes", 1024L * 1024);
+        storage.initialize();
+    }
+
+    @Test
+    void scheduledBlobStaysReadableUntilCollected() throws IOException {
+        String key = store("front");
+
+        storage.scheduleDelete(key);
+        storage.scheduleDelete(key);
+
+        assertTrue(storage.exists(key));
+        assertEquals(List.of(key), storage.listScheduledDeletes());
+    }
+
+    @Test
+    void deletesIdleUnreferencedBlob() throws IOException {
+        String key = store("front");
+        age(key);
+        storage.scheduleDelete(key);
+
+        assertTrue(storage.deleteIfIdle(key, GRACE, () -> false));
+
+        assertFalse(storage.exists(key));
+        assertTrue(storage.listScheduledDeletes().isEmpty());
+    }
+
+    @Test
+    void keepsBlobStoredWithinGracePeriod() throws IOException {
+        String key = store("front");
+        storage.scheduleDelete(key);
+
+        assertFalse(storage.deleteIfIdle(key, GRACE, () -> false));
+
+        assertTrue(storage.exists(key));
+        assertEquals(List.of(key), storage.listScheduledDeletes());
+    }
+
+    @Test
+    void storingSameContentAgainDefersCollection() throws IOException {
+        String key = store("front");
+        age(key);
+        storage.scheduleDelete(key);
+
+        // Concurrent upload of the same image, its document row not committed yet
+        assertEquals(key, store("front"));
+
+        assertFalse(storage.deleteIfIdle(key, GRACE, () -> false));
+        assertTrue(storage.exists(key));
+    }
+
+    @Test
+    void referencedBlobIsKeptAndUnscheduled() throws IOException {
+        String key = store("front");
+        age(key);
+        storage.scheduleDelete(key);
+
+        assertFalse(storage.deleteIfIdle(key, GRACE, () -> true));
+
+        assertTrue(storage.exists(key));
+        assertTrue(storage.listScheduledDeletes().isEmpty());
+    }
+
+    @Test
+    void missingBlobIsUnscheduled() throws IOException {
+        String key = store("front");
+        age(key);
+        storage.scheduleDelete(key);
+        assertTrue(storage.deleteIfIdle(key, GRACE, () -> false));
+        storage.scheduleDelete(key);
+
+        assertFalse(storage.deleteIfIdle(key, GRACE, () -> false));
+        assertTrue(storage.listScheduledDeletes().isEmpty());
+    }
+
+    private String store(String content) throws IOException {
+        return storage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "image/jpeg").getKey();
+    }
+
+    private void age(String key) throws IOException {
+        Files.setLastModifiedTime(storage.resolve(key), FileTime.from(Instant.now().minus(GRACE.multipliedBy(2))));
+    }
+}
@@ -0,0 +1,58 @@
+package com.rentesla.mobilebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImagePreprocessingServiceTest {
+
+    private DocumentStorageService storage;
+    private ImagePreprocessingService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = mock(DocumentStorageService.class);
+        service = new ImagePreprocessingService();
+        ReflectionTestUtils.setField(service, "documentStorageService", storage);
+    }
+
+    @Test
+    void subsamplesPhoneCameraPhotoBelowTarget() throws IOException {
+        // 12 MP phone photo: less than twice the target, still decoded at half size
+        store("photo", 4032, 3024);
+
+        ImagePreprocessingService.DecodedImage decoded = service.decode("photo", 2048);
+
+        assertEquals(4032, decoded.getSourceWidth());
+        assertEquals(3024, decoded.getSourceHeight());
+        assertEquals(2016, decoded.getImage().getWidth());
+        assertEquals(1512, decoded.getImage().getHeight());
+    }
+
+    @Test
+    void decodesSmallImageInFull() throws IOException {
+        store("scan", 1600, 1200);
+
+        ImagePreprocessingService.DecodedImage decoded = service.decode("scan", 2048);
+
+        assertEquals(1600, decoded.getImage().getWidth());
+        assertEquals(1200, decoded.getImage().getHeight());
+    }
+
+    private void store(String key, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        byte[] bytes = out.toByteArray();
+        when(storage.openStream(key)).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+    }
+}
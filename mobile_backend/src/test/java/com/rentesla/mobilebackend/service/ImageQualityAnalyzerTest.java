@@ -0,0 +1,234 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.service.ImageQualityAnalyzer.QualityIssue;
+import com.rentesla.mobilebackend.service.ImageQualityAnalyzer.QualityReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageQualityAnalyzerTest {
+
+    private static final int WIDTH = 1200;
+    private static final int HEIGHT = 800;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageQualityAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        analyzer = new ImageQualityAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(analyzer, "enabled", true);
+        ReflectionTestUtils.setField(analyzer, "analysisDimension", 512);
+        ReflectionTestUtils.setField(analyzer, "minShortSide", 600);
+        ReflectionTestUtils.setField(analyzer, "minLongSide", 800);
+        ReflectionTestUtils.setField(analyzer, "minSharpness", 40.0);
+        ReflectionTestUtils.setField(analyzer, "clipLevel", 250);
+        ReflectionTestUtils.setField(analyzer, "maxClippedRatio", 0.12);
+        analyzer.initialize();
+    }
+
+    @Test
+    void acceptsSharpDocument() {
+        QualityReport report = analyzer.analyze(gray(document()), WIDTH, HEIGHT);
+
+        assertTrue(report.isAcceptable(), report.getMessage());
+        assertTrue(report.getSharpness() > 40.0);
+        assertEquals(0.0, report.getClippedRatio());
+    }
+
+    @Test
+    void rejectsBlurredDocument() {
+        QualityReport report = analyzer.analyze(gray(defocus(document(), 6)), WIDTH, HEIGHT);
+
+        assertEquals(QualityIssue.BLURRY, report.getIssue());
+        assertTrue(report.getSharpness() < 40.0);
+        assertEquals(1.0, rejected(QualityIssue.BLURRY));
+    }
+
+    @Test
+    void acceptsSlightlySoftDocument() {
+        assertTrue(analyzer.analyze(gray(defocus(document(), 1)), WIDTH, HEIGHT).isAcceptable());
+    }
+
+    @Test
+    void rejectsUniformImageAsBlurry() {
+        int[] flat = new int[WIDTH * HEIGHT];
+        Arrays.fill(flat, 128);
+
+        QualityReport report = analyzer.analyze(gray(flat), WIDTH, HEIGHT);
+
+        assertEquals(QualityIssue.BLURRY, report.getIssue());
+        assertEquals(0.0, report.getSharpness());
+    }
+
+    @Test
+    void rejectsGlare() {
+        int[] pixels = document();
+        // Flash reflection over the left third of the card
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH / 3; x++) {
+                pixels[y * WIDTH + x] = 255;
+            }
+        }
+
+        QualityReport report = analyzer.analyze(gray(pixels), WIDTH, HEIGHT);
+
+        assertEquals(QualityIssue.GLARE, report.getIssue());
+        assertTrue(report.getClippedRatio() > 0.3 && report.getClippedRatio() < 0.36, "ratio " + report.getClippedRatio());
+        assertEquals(1.0, rejected(QualityIssue.GLARE));
+    }
+
+    @Test
+    void acceptsSmallBrightAreasBelowClipLimit() {
+        int[] pixels = document();
+        for (int y = 0; y < HEIGHT / 4; y++) {
+            for (int x = 0; x < WIDTH / 4; x++) {
+                pixels[y * WIDTH + x] = 255;
+            }
+        }
+
+        assertTrue(analyzer.analyze(gray(pixels), WIDTH, HEIGHT).isAcceptable());
+    }
+
+    @Test
+    void rejectsSmallImageBeforeDecodingPixels() {
+        QualityReport report = analyzer.analyze(gray(document()), 640, 480);
+
+        assertEquals(QualityIssue.TOO_SMALL, report.getIssue());
+        assertEquals(1.0, rejected(QualityIssue.TOO_SMALL));
+        assertEquals(0.0, rejected(QualityIssue.BLURRY));
+    }
+
+    @Test
+    void checksBothSidesForResolution() {
+        assertEquals(QualityIssue.TOO_SMALL, analyzer.analyze(gray(document()), 1200, 590).getIssue());
+        assertEquals(QualityIssue.TOO_SMALL, analyzer.analyze(gray(document()), 790, 790).getIssue());
+        assertNull(analyzer.analyze(gray(document()), 800, 600).getIssue());
+    }
+
+    @Test
+    void colourRasterMatchesGrayRaster() {
+        int[] pixels = document();
+        QualityReport fromGray = analyzer.analyze(gray(pixels), WIDTH, HEIGHT);
+        QualityReport fromBgr = analyzer.analyze(colour(pixels, BufferedImage.TYPE_3BYTE_BGR), WIDTH, HEIGHT);
+        QualityReport fromRgb = analyzer.analyze(colour(pixels, BufferedImage.TYPE_INT_RGB), WIDTH, HEIGHT);
+
+        assertEquals(fromGray.getSharpness(), fromBgr.getSharpness(), 1e-9);
+        assertEquals(fromGray.getSharpness(), fromRgb.getSharpness(), 1e-9);
+        assertEquals(fromGray.getClippedRatio(), fromBgr.getClippedRatio(), 1e-9);
+    }
+
+    @Test
+    void laplacianVarianceOfKnownPattern() {
+        // 10x10 reduced to 5x5 by 2x2 box samples: one bright pixel in the centre of a black image,
+        // so the interior Laplacians are -400 once and 100 four times
+        int[] pixels = new int[100];
+        for (int y = 4; y < 6; y++) {
+            for (int x = 4; x < 6; x++) {
+                pixels[y * 10 + x] = 100;
+            }
+        }
+        double variance = ImageQualityAnalyzer.LuminanceBuffer.of(gray(pixels, 10, 10), 5).laplacianVariance();
+
+        double mean = (-400 + 4 * 100) / 9.0;
+        double expected = (160000 + 4 * 10000) / 9.0 - mean * mean;
+        assertEquals(expected, variance, 1e-9);
+    }
+
+    private double rejected(QualityIssue issue) {
+        return meterRegistry.get("image.quality.rejected").tag("reason", issue.name()).counter().count();
+    }
+
+    /**
+     * Light card with dark text-like strokes
+     */
+    private static int[] document() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean textLine = (y / 24) % 2 == 1;
+                boolean stroke = (x % 14) < 4 || (y % 24) < 3;
+                pixels[y * WIDTH + x] = textLine && stroke ? 30 : 210;
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Out-of-focus approximation: three box blur passes (close to a Gaussian)
+     */
+    private static int[] defocus(int[] pixels, int radius) {
+        int[] blurred = pixels;
+        for (int pass = 0; pass < 3; pass++) {
+            blurred = boxBlur(blurred, radius);
+        }
+        return blurred;
+    }
+
+    private static int[] boxBlur(int[] pixels, int radius) {
+        int[] horizontal = new int[pixels.length];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dx = -radius; dx <= radius; dx++) {
+                    int sx = x + dx;
+                    if (sx >= 0 && sx < WIDTH) {
+                        sum += pixels[y * WIDTH + sx];
+                        count++;
+                    }
+                }
+                horizontal[y * WIDTH + x] = sum / count;
+            }
+        }
+        int[] blurred = new int[pixels.length];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dy = -radius; dy <= radius; dy++) {
+                    int sy = y + dy;
+                    if (sy >= 0 && sy < HEIGHT) {
+                        sum += horizontal[sy * WIDTH + x];
+                        count++;
+                    }
+                }
+                blurred[y * WIDTH + x] = sum / count;
+            }
+        }
+        return blurred;
+    }
+
+    private static BufferedImage gray(int[] pixels) {
+        return gray(pixels, WIDTH, HEIGHT);
+    }
+
+    private static BufferedImage gray(int[] pixels, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            data[i] = (byte) pixels[i];
+        }
+        return image;
+    }
+
+    private static BufferedImage colour(int[] pixels, int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int v = pixels[y * WIDTH + x];
+                image.setRGB(x, y, (v << 16) | (v << 8) | v);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,111 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorGrpc;
+import com.google.cloud.vision.v1.ImageAnnotatorSettings;
+import com.google.cloud.vision.v1.TextAnnotation;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process gRPC stand-in for the Cloud Vision ImageAnnotator service: answers every image
+ * with a fixed text annotation, or with a given error status once.
+ */
+class InProcessVisionServer implements AutoCloseable {
+
+    static final String TEXT = "TÜRKİYE CUMHURİYETİ KİMLİK KARTI\nSOYADI YILMAZ\nADI AHMET";
+
+    private final String name = InProcessServerBuilder.generateName();
+    private final Server server;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<Status> failNext = new AtomicReference<>();
+    private final List<ManagedChannel> channels = new CopyOnWriteArrayList<>();
+
+    InProcessVisionServer() throws IOException {
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(new ImageAnnotatorGrpc.ImageAnnotatorImplBase() {
+                @Override
+                public void batchAnnotateImages(BatchAnnotateImagesRequest request,
+                                                StreamObserver<BatchAnnotateImagesResponse> responseObserver) {
+                    calls.incrementAndGet();
+                    Status failure = failNext.getAndSet(null);
+                    if (failure != null) {
+                        responseObserver.onError(failure.asRuntimeException());
+                        return;
+                    }
+                    BatchAnnotateImagesResponse.Builder response = BatchAnnotateImagesResponse.newBuilder();
+                    for (AnnotateImageRequest ignored : request.getRequestsList()) {
+                        response.addResponses(AnnotateImageResponse.newBuilder()
+                            .setFullTextAnnotation(TextAnnotation.newBuilder().setText(TEXT)));
+                    }
+                    responseObserver.onNext(response.build());
+                    responseObserver.onCompleted();
+                }
+            })
+            .build()
+            .start();
+    }
+
+    /**
+     * Client settings over a new channel to this server (like a new client would open a new channel).
+     * The channel is closed with the server.
+     */
+    ImageAnnotatorSettings newClientSettings() throws IOException {
+        ManagedChannel channel = openChannel();
+        channels.add(channel);
+        return settingsFor(channel);
+    }
+
+    /**
+     * A new channel to this server; the caller closes it
+     */
+    ManagedChannel openChannel() {
+        return InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    static ImageAnnotatorSettings settingsFor(ManagedChannel channel) throws IOException {
+        return ImageAnnotatorSettings.newBuilder()
+            .setTransportChannelProvider(FixedTransportChannelProvider.create(GrpcTransportChannel.create(channel)))
+            .setCredentialsProvider(NoCredentialsProvider.create())
+            .build();
+    }
+
+    void failNextCall(Status status) {
+        failNext.set(status);
+    }
+
+    int getCalls() {
+        return calls.get();
+    }
+
+    int getChannelsOpened() {
+        return channels.size();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow();
+        }
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
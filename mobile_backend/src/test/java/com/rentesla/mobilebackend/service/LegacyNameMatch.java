@@ -0,0 +1,65 @@
+package com.rentesla.mobilebackend.service;
+
+/**
+ * The name matching DocumentService used before {@link NameMatcher} (regex cleaning, full-matrix
+ * Levenshtein), kept as the reference for the corpus test and the benchmark.
+ */
+final class LegacyNameMatch {
+
+    private LegacyNameMatch() {
+    }
+
+    static boolean isNameMatch(String extractedName, String registeredName) {
+        if (extractedName == null || registeredName == null) {
+            return false;
+        }
+
+        String cleaned1 = cleanName(extractedName);
+        String cleaned2 = cleanName(registeredName);
+
+        if (cleaned1.equals(cleaned2)) {
+            return true;
+        }
+        if (cleaned1.contains(cleaned2) || cleaned2.contains(cleaned1)) {
+            return true;
+        }
+        return calculateSimilarity(cleaned1, cleaned2) > 0.8;
+    }
+
+    static String cleanName(String name) {
+        return name.toUpperCase()
+                  .replaceAll("[ÇçĞğIıİiÖöŞşÜü]", "")
+                  .replaceAll("[^A-Z ]", "")
+                  .replaceAll("\\s+", " ")
+                  .trim();
+    }
+
+    static double calculateSimilarity(String s1, String s2) {
+        int maxLength = Math.max(s1.length(), s2.length());
+        if (maxLength == 0) return 1.0;
+
+        return (maxLength - levenshteinDistance(s1, s2)) / (double) maxLength;
+    }
+
+    static int levenshteinDistance(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+
+        for (int i = 0; i <= s1.length(); i++) {
+            for (int j = 0; j <= s2.length(); j++) {
+                if (i == 0) {
+                    dp[i][j] = j;
+                } else if (j == 0) {
+                    dp[i][j] = i;
+                } else {
+                    dp[i][j] = Math.min(Math.min(
+                        dp[i - 1][j] + 1,
+                        dp[i][j - 1] + 1),
+                        dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1)
+                    );
+                }
+            }
+        }
+
+        return dp[s1.length()][s2.length()];
+    }
+}
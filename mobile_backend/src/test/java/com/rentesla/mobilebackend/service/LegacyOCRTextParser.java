@@ -0,0 +1,153 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex parsing GoogleCloudVisionOCRService used before {@link OCRTextExtractor} (patterns
+ * compiled per call, a separate find-all pass per field), kept as the reference for the corpus
+ * test and the benchmark. Logging is left out; the find-all passes that only fed it are kept.
+ */
+final class LegacyOCRTextParser {
+
+    static final String ID = "\\b(\\d{11})\\b";
+    static final String LICENSE = "\\b([A-Z]{1,2}\\d{6,8})\\b";
+    static final String PASSPORT = "\\b([A-Z]\\d{8})\\b";
+    static final String DATE = "(\\d{2}[./]\\d{2}[./]\\d{4})";
+    static final String NAME_PAIR = "([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)\\s+([A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+)";
+    static final String LICENSE_SURNAME = "1\\.?\\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\\s]+?)(?=\\s*\\n|\\s*2\\.|$)";
+    static final String LICENSE_FIRST_NAME = "2\\.?\\s*([A-ZÇĞIİÖŞÜ][A-ZÇĞIİÖŞÜa-zçğıiöşü\\s]+?)(?=\\s*\\n|\\s*3\\.|$)";
+
+    private LegacyOCRTextParser() {
+    }
+
+    static GoogleCloudVisionOCRService.OCRResult parse(String text, Document.DocumentType documentType) {
+        GoogleCloudVisionOCRService.OCRResult result = new GoogleCloudVisionOCRService.OCRResult();
+        result.setFullText(text);
+        result.setConfidence(calculateConfidence(text));
+
+        switch (documentType) {
+            case DRIVING_LICENSE:
+                parseDrivingLicenseText(text, result);
+                break;
+            case IDENTITY_CARD:
+                parseIdentityCardText(text, result);
+                break;
+            case PASSPORT:
+                parsePassportText(text, result);
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Every non-overlapping match of a pattern, group 1 (or "group1 group2" for two groups)
+     */
+    static List<String> findAll(String regex, String text) {
+        List<String> matches = new ArrayList<>();
+        Matcher matcher = Pattern.compile(regex).matcher(text);
+        while (matcher.find()) {
+            matches.add(matcher.groupCount() > 1 ? matcher.group(1) + " " + matcher.group(2) : matcher.group(1));
+        }
+        return matches;
+    }
+
+    private static void parseDrivingLicenseText(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Pattern idPattern = Pattern.compile(ID);
+        Matcher idMatcher = idPattern.matcher(text);
+        countAll(idPattern.matcher(text));
+        if (idMatcher.find()) {
+            result.setIdentityNumber(idMatcher.group(1));
+        }
+
+        Matcher licenseMatcher = Pattern.compile(LICENSE).matcher(text);
+        if (licenseMatcher.find()) {
+            result.setLicenseNumber(licenseMatcher.group(1));
+        }
+
+        extractTurkishLicenseNames(text, result);
+        extractDatesFromText(text, result);
+    }
+
+    private static void extractTurkishLicenseNames(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Matcher surnameMatcher = Pattern.compile(LICENSE_SURNAME).matcher(text);
+        if (surnameMatcher.find()) {
+            result.setLastName(surnameMatcher.group(1).trim());
+        }
+
+        Matcher firstNameMatcher = Pattern.compile(LICENSE_FIRST_NAME).matcher(text);
+        if (firstNameMatcher.find()) {
+            result.setFirstName(firstNameMatcher.group(1).trim());
+        }
+
+        if (result.getFirstName() == null || result.getLastName() == null) {
+            extractNamesFromText(text, result);
+        }
+    }
+
+    private static void parseIdentityCardText(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Matcher idMatcher = Pattern.compile(ID).matcher(text);
+        if (idMatcher.find()) {
+            result.setIdentityNumber(idMatcher.group(1));
+        }
+        extractNamesFromText(text, result);
+        extractDatesFromText(text, result);
+    }
+
+    private static void parsePassportText(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Matcher passportMatcher = Pattern.compile(PASSPORT).matcher(text);
+        if (passportMatcher.find()) {
+            result.setPassportNumber(passportMatcher.group(1));
+        }
+        extractNamesFromText(text, result);
+        extractDatesFromText(text, result);
+    }
+
+    private static void extractNamesFromText(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Pattern namePattern = Pattern.compile(NAME_PAIR);
+        Matcher nameMatcher = namePattern.matcher(text);
+        countAll(namePattern.matcher(text));
+        if (nameMatcher.find()) {
+            result.setFirstName(nameMatcher.group(1));
+            result.setLastName(nameMatcher.group(2));
+        }
+    }
+
+    private static void extractDatesFromText(String text, GoogleCloudVisionOCRService.OCRResult result) {
+        Pattern datePattern = Pattern.compile(DATE);
+        Matcher dateMatcher = datePattern.matcher(text);
+        countAll(datePattern.matcher(text));
+        if (dateMatcher.find()) {
+            result.setBirthDate(dateMatcher.group(1));
+        }
+        if (dateMatcher.find()) {
+            result.setExpiryDate(dateMatcher.group(1));
+        }
+    }
+
+    private static double calculateConfidence(String text) {
+        double confidence = 0.6;
+
+        if (text.length() > 100) confidence += 0.15;
+        if (text.length() > 200) confidence += 0.1;
+
+        if (text.matches(".*\\d{11}.*")) confidence += 0.1;
+        if (text.matches(".*[A-ZÇĞIİÖŞÜ][a-zçğıiöşü]+.*")) confidence += 0.05;
+        if (text.matches(".*\\d{2}[./]\\d{2}[./]\\d{4}.*")) confidence += 0.05;
+
+        return Math.min(confidence, 0.98);
+    }
+
+    // The debug passes that logged every match
+    private static int countAll(Matcher matcher) {
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.rentesla.mobilebackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCR name matching: the old regex cleaning and full-matrix Levenshtein against {@link NameMatcher},
+ * over the same pairs of OCR readings and registered names (each pair once per invocation).
+ * Run with {@code main}, from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameMatcherBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    private String[] extracted;
+    private String[] registered;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        String alphabet = "ABCDEFGHIJKLMNOPRSTUVYZ";
+        extracted = new String[PAIRS];
+        registered = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            String name = NameMatcherTest.NAMES[random.nextInt(NameMatcherTest.NAMES.length)];
+            String other = NameMatcherTest.NAMES[random.nextInt(NameMatcherTest.NAMES.length)];
+            // OCR reading: upper case, sometimes with an error, sometimes of a different person
+            String reading = (random.nextInt(4) == 0 ? other : name).toUpperCase(Locale.forLanguageTag("tr"));
+            extracted[i] = random.nextBoolean() ? NameMatcherTest.mutate(random, reading, alphabet, 1) : reading;
+            registered[i] = name;
+        }
+    }
+
+    @Benchmark
+    public int legacyIsNameMatch() {
+        int matches = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (LegacyNameMatch.isNameMatch(extracted[i], registered[i])) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int nameMatcher() {
+        int matches = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (NameMatcher.matches(extracted[i], registered[i])) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(NameMatcherBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.rentesla.mobilebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameMatcherTest {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+
+    // Registered names as users type them, with Turkish letters
+    static final String[] NAMES = {
+        "Ahmet", "Mehmet", "Mustafa", "Ayşe", "Fatma", "Emine", "Hatice", "Zeynep", "Elif", "Hüseyin",
+        "İbrahim", "İsmail", "Ömer", "Özlem", "Şükrü", "Çağlar", "Gülşen", "Ilgın", "Işıl", "Ümit",
+        "Yılmaz", "Kaya", "Demir", "Şahin", "Çelik", "Yıldız", "Yıldırım", "Öztürk", "Aydın", "Özdemir",
+        "Arslan", "Doğan", "Kılıç", "Aslan", "Çetin", "Kara", "Koç", "Kurt", "Özkan", "Şimşek",
+        "Mehmet Ali", "Ayşe Nur", "Ali Rıza", "Hasan Hüseyin", "Fatma Zehra", "Karaca", "Güneş", "Erdoğan"
+    };
+
+    @Test
+    void matchesOcrSpellingsOfTheSameName() {
+        for (String name : NAMES) {
+            // ID cards print upper case with Turkish letters; OCR often loses the dots and cedillas
+            assertTrue(NameMatcher.matches(name.toUpperCase(TURKISH), name), name);
+            assertTrue(NameMatcher.matches(TurkishTextNormalizer.fold(name), name), name);
+            assertTrue(NameMatcher.matches(" " + name.toLowerCase(TURKISH) + ". ", name), name);
+        }
+    }
+
+    @Test
+    void agreesWithLevenshteinThresholdOnFoldedNames() {
+        // Every pair of corpus names: same decision as the old 80% similarity rule applied to the folded
+        // names (single words), or to each word in turn (compound names)
+        for (String a : NAMES) {
+            for (String b : NAMES) {
+                String foldedA = TurkishTextNormalizer.fold(a);
+                String foldedB = TurkishTextNormalizer.fold(b);
+                if (foldedA.contains(" ") || foldedB.contains(" ")) {
+                    continue;
+                }
+                boolean expected = LegacyNameMatch.calculateSimilarity(foldedA, foldedB) > 0.8;
+                assertEquals(expected, NameMatcher.matches(a, b), a + " / " + b);
+            }
+        }
+    }
+
+    @Test
+    void toleratesOneOcrErrorInLongerNames() {
+        assertTrue(NameMatcher.matches("HUSEY1N", "Hüseyin"));
+        assertTrue(NameMatcher.matches("YILDIRlM", "Yıldırım"));
+        assertTrue(NameMatcher.matches("OZDEMIP", "Özdemir"));
+        assertTrue(NameMatcher.matches("MUSTAFA", "Mustafa"));
+        // Too short for an error: 1 of 5 letters is exactly 80%, not above it
+        assertFalse(NameMatcher.matches("AYSF", "Ayşe"));
+        assertFalse(NameMatcher.matches("KAYE", "Kaya"));
+        assertFalse(NameMatcher.matches("AHMET", "Mehmet"));
+    }
+
+    @Test
+    void matchesCompoundNamesWordByWord() {
+        assertTrue(NameMatcher.matches("MEHMET ALİ", "Mehmet Ali Kaya"));
+        assertTrue(NameMatcher.matches("Ahmet", "Ahmet Can"));
+        assertTrue(NameMatcher.matches("CAN AHMET", "Ahmet"));
+        assertTrue(NameMatcher.matches("HASAN HUSEY1N", "Hasan Hüseyin"));
+        assertFalse(NameMatcher.matches("ALI", "KALIN"));
+        assertFalse(NameMatcher.matches("ALI MEHMET", "Mehmet Ali"));
+        assertFalse(NameMatcher.matches("AYŞE NUR", "Ayşe Gül"));
+    }
+
+    @Test
+    void rejectsMissingOrEmptyNames() {
+        assertFalse(NameMatcher.matches(null, "Ahmet"));
+        assertFalse(NameMatcher.matches("Ahmet", null));
+        assertFalse(NameMatcher.matches("", "Ahmet"));
+        assertFalse(NameMatcher.matches("12345", "Ahmet"));
+        assertFalse(NameMatcher.matches("...", "..."));
+    }
+
+    @Test
+    void fixesTheOldCleaningOfTurkishLetters() {
+        // The old cleanName removed Ç Ğ I İ Ö Ş Ü (and i) altogether
+        assertEquals("SMAL", LegacyNameMatch.cleanName("İsmail"));
+        assertFalse(LegacyNameMatch.isNameMatch("ŞİMŞEK", "Simsek"));
+        assertTrue(NameMatcher.matches("ŞİMŞEK", "Simsek"));
+        // ... and what was left could be found inside an unrelated name
+        assertTrue(LegacyNameMatch.isNameMatch("IŞIK", "Ilık"));
+        assertFalse(NameMatcher.matches("IŞIK", "Ilık"));
+        assertTrue(LegacyNameMatch.isNameMatch("", "Ahmet"));
+        assertFalse(NameMatcher.matches("", "Ahmet"));
+    }
+
+    @Test
+    void agreesWithOldMatcherOnPlainAsciiNames() {
+        // Where the old cleaning was harmless (A-Z without I, one word, neither name containing the other)
+        // the decisions are the same
+        Random random = new Random(3);
+        String alphabet = "ABCDEFGHJKLMNOPRSTUVYZ";
+        for (int n = 0; n < 20000; n++) {
+            String a = randomWord(random, alphabet, 3 + random.nextInt(10));
+            String b = mutate(random, a, alphabet, random.nextInt(4));
+            if (a.contains(b) || b.contains(a)) {
+                continue;
+            }
+            assertEquals(LegacyNameMatch.isNameMatch(a, b), NameMatcher.matches(a, b), a + " / " + b);
+        }
+    }
+
+    @Test
+    void boundedDistanceMatchesFullLevenshtein() {
+        Random random = new Random(5);
+        for (int n = 0; n < 20000; n++) {
+            String s = randomWord(random, "ABCD", random.nextInt(12));
+            String t = random.nextBoolean() ? randomWord(random, "ABCD", random.nextInt(12))
+                : mutate(random, s, "ABCD", random.nextInt(4));
+            int maxDistance = random.nextInt(5);
+            int full = LegacyNameMatch.levenshteinDistance(s, t);
+            assertEquals(Math.min(full, maxDistance + 1), NameMatcher.boundedDistance(s, t, maxDistance),
+                s + " / " + t + " within " + maxDistance);
+        }
+    }
+
+    static String randomWord(Random random, String alphabet, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Apply edits (substitution, insertion or deletion at random positions)
+     */
+    static String mutate(Random random, String word, String alphabet, int edits) {
+        StringBuilder mutated = new StringBuilder(word);
+        for (int e = 0; e < edits; e++) {
+            int kind = mutated.length() == 0 ? 1 : random.nextInt(3);
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            if (kind == 0) {
+                mutated.setCharAt(random.nextInt(mutated.length()), c);
+            } else if (kind == 1) {
+                mutated.insert(random.nextInt(mutated.length() + 1), c);
+            } else {
+                mutated.deleteCharAt(random.nextInt(mutated.length()));
+            }
+        }
+        return mutated.toString();
+    }
+}
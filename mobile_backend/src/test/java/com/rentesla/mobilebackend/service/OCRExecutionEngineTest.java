@@ -0,0 +1,112 @@
+package com.rentesla.mobilebackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OCRExecutionEngineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OCRExecutionEngine engine;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new OCRExecutionEngine();
+        ReflectionTestUtils.setField(engine, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(engine, "workerCount", 1);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 4);
+        ReflectionTestUtils.setField(engine, "overflowPolicy", OCRExecutionEngine.OverflowPolicy.REJECT);
+        ReflectionTestUtils.setField(engine, "ocrTimeoutSeconds", 1);
+        ReflectionTestUtils.setField(engine, "callbackCount", 2);
+        engine.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        engine.shutdown();
+    }
+
+    @Test
+    void completesWithResult() throws Exception {
+        assertEquals("text", engine.submit(1L, () -> "text").get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("ocr.jobs.completed").count());
+    }
+
+    @Test
+    void timeoutFailsFutureWhileWorkerIgnoresInterrupt() {
+        CompletableFuture<String> future = engine.submit(1L, this::blockIgnoringInterrupts);
+
+        long start = System.nanoTime();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertInstanceOf(GoogleCloudVisionOCRService.OCRTimeoutException.class, error.getCause());
+        assertTrue(waitedMs < 3000, "waited " + waitedMs + "ms");
+        assertEquals(1.0, meterRegistry.counter("ocr.jobs.timeout").count());
+    }
+
+    @Test
+    void lateResultAfterTimeoutIsDropped() throws Exception {
+        CompletableFuture<String> future = engine.submit(1L, this::blockIgnoringInterrupts);
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        // The worker is free again once the late call returns
+        assertEquals("next", engine.submit(2L, () -> "next").get(5, TimeUnit.SECONDS));
+
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(1.0, meterRegistry.counter("ocr.jobs.completed").count());
+        assertEquals(0.0, meterRegistry.counter("ocr.jobs.failed").count());
+    }
+
+    @Test
+    void slowCallbackDoesNotHoldUpOtherTimeouts() throws Exception {
+        ReflectionTestUtils.setField(engine, "workerCount", 2);
+        engine.shutdown();
+        engine.initialize();
+
+        CountDownLatch callbackBlocked = new CountDownLatch(1);
+        CompletableFuture<String> first = engine.submit(1L, this::blockIgnoringInterrupts);
+        CompletableFuture<String> firstHandled = first.whenComplete((value, error) -> {
+            assertFalse(Thread.currentThread().getName().startsWith("ocr-timeout-"));
+            callbackBlocked.countDown();
+            blockIgnoringInterrupts(); // e.g. stuck in a notification call
+        });
+        CompletableFuture<String> second = engine.submit(2L, this::blockIgnoringInterrupts);
+        assertTrue(callbackBlocked.await(5, TimeUnit.SECONDS));
+
+        // The second deadline still fires on time while the first callback is stuck
+        long start = System.nanoTime();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GoogleCloudVisionOCRService.OCRTimeoutException.class, error.getCause());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3000);
+        assertFalse(firstHandled.isDone());
+    }
+
+    /**
+     * Stand-in for a provider call stuck in IO that does not react to interrupts
+     */
+    private String blockIgnoringInterrupts() {
+        while (true) {
+            try {
+                if (release.await(10, TimeUnit.SECONDS)) {
+                    return "late";
+                }
+            } catch (InterruptedException ignored) {
+                // keep blocking
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.OCRJob;
+import com.rentesla.mobilebackend.entity.OCRJob.JobPriority;
+import com.rentesla.mobilebackend.repository.OCRJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OCRJobServiceTest {
+
+    private final List<OCRJob> jobs = new ArrayList<>();
+    // Rows another node holds: counted as backlog, skipped by SKIP LOCKED
+    private final Set<Long> lockedElsewhere = new HashSet<>();
+
+    private OCRJobRepository repository;
+    private OCRJobService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OCRJobRepository.class);
+        when(repository.countRunnableByPriority(any())).thenAnswer(invocation -> countQueued());
+        when(repository.lockRunnableJobs(anyString(), any(), anyInt())).thenAnswer(invocation ->
+            lockQueued(JobPriority.valueOf(invocation.getArgument(0)), invocation.getArgument(2)));
+
+        service = new OCRJobService();
+        ReflectionTestUtils.setField(service, "jobRepository", repository);
+        ReflectionTestUtils.setField(service, "configuredNodeId", "node-a");
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 120);
+        ReflectionTestUtils.setField(service, "backoffBaseSeconds", 10);
+        ReflectionTestUtils.setField(service, "backoffMaxSeconds", 600);
+        ReflectionTestUtils.setField(service, "activeReservationWeight", 8);
+        ReflectionTestUtils.setField(service, "firstSignupWeight", 4);
+        ReflectionTestUtils.setField(service, "reuploadWeight", 2);
+        ReflectionTestUtils.setField(service, "adminRerunWeight", 1);
+        service.initialize();
+    }
+
+    @Test
+    void splitsSlotsByWeight() {
+        for (JobPriority priority : JobPriority.values()) {
+            queue(priority, 100);
+        }
+
+        Map<JobPriority, Integer> claimed = countByPriority(service.claim(15).getRunnable());
+
+        assertEquals(Map.of(JobPriority.ACTIVE_RESERVATION, 8, JobPriority.FIRST_SIGNUP, 4,
+            JobPriority.REUPLOAD, 2, JobPriority.ADMIN_RERUN, 1), claimed);
+    }
+
+    @Test
+    void keepsWeightedShareAcrossSingleSlotClaims() {
+        for (JobPriority priority : JobPriority.values()) {
+            queue(priority, 100);
+        }
+
+        List<OCRJob> claimed = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            claimed.addAll(service.claim(1).getRunnable());
+        }
+
+        assertEquals(Map.of(JobPriority.ACTIVE_RESERVATION, 24, JobPriority.FIRST_SIGNUP, 12,
+            JobPriority.REUPLOAD, 6, JobPriority.ADMIN_RERUN, 3), countByPriority(claimed));
+    }
+
+    @Test
+    void lowestClassIsNotStarvedByAFlood() {
+        queue(JobPriority.ACTIVE_RESERVATION, 1000);
+        queue(JobPriority.FIRST_SIGNUP, 1000);
+        queue(JobPriority.ADMIN_RERUN, 1);
+
+        // Weights with work sum to 13: within 13 single-slot claims every class gets one
+        int claims = 0;
+        boolean adminRerunClaimed = false;
+        while (!adminRerunClaimed && claims < 13) {
+            adminRerunClaimed = service.claim(1).getRunnable().stream()
+                .anyMatch(job -> job.getPriority() == JobPriority.ADMIN_RERUN);
+            claims++;
+        }
+
+        assertTrue(adminRerunClaimed, "ADMIN_RERUN job not claimed within 13 claims");
+    }
+
+    @Test
+    void idleClassBuildsUpNoCredit() {
+        queue(JobPriority.ACTIVE_RESERVATION, 100);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, service.claim(1).getRunnable().size());
+        }
+
+        queue(JobPriority.ADMIN_RERUN, 100);
+        Map<JobPriority, Integer> claimed = countByPriority(service.claim(9).getRunnable());
+
+        assertEquals(Map.of(JobPriority.ACTIVE_RESERVATION, 8, JobPriority.ADMIN_RERUN, 1), claimed);
+    }
+
+    @Test
+    void givesSlotsOfClassesLockedElsewhereToOthers() {
+        List<OCRJob> reservations = queue(JobPriority.ACTIVE_RESERVATION, 20);
+        queue(JobPriority.FIRST_SIGNUP, 20);
+        // Another node holds all but 2 of the reservation jobs
+        reservations.subList(0, 18).forEach(job -> lockedElsewhere.add(job.getId()));
+
+        List<OCRJob> claimed = service.claim(12).getRunnable();
+
+        assertEquals(12, claimed.size());
+        assertEquals(12, claimed.stream().map(OCRJob::getId).distinct().count());
+        assertEquals(Map.of(JobPriority.ACTIVE_RESERVATION, 2, JobPriority.FIRST_SIGNUP, 10), countByPriority(claimed));
+        assertTrue(claimed.stream().noneMatch(job -> lockedElsewhere.contains(job.getId())));
+    }
+
+    @Test
+    void shortfallMovesOnUntilNoClassHasWork() {
+        queue(JobPriority.ACTIVE_RESERVATION, 5).forEach(job -> lockedElsewhere.add(job.getId()));
+        List<OCRJob> signups = queue(JobPriority.FIRST_SIGNUP, 3);
+        signups.subList(0, 2).forEach(job -> lockedElsewhere.add(job.getId()));
+        queue(JobPriority.ADMIN_RERUN, 2);
+
+        List<OCRJob> claimed = service.claim(10).getRunnable();
+
+        assertEquals(Map.of(JobPriority.FIRST_SIGNUP, 1, JobPriority.ADMIN_RERUN, 2), countByPriority(claimed));
+        assertTrue(claimed.stream().allMatch(job -> job.getStatus() == OCRJob.JobStatus.RUNNING
+            && "node-a".equals(job.getLeaseOwner()) && job.getAttempts() == 1));
+    }
+
+    @Test
+    void recordsOutcomesOnlyUnderTheClaimedLease() {
+        OCRJob job = queue(JobPriority.FIRST_SIGNUP, 1).get(0);
+        service.claim(1);
+        when(repository.completeHeld(eq(job.getId()), eq("node-a"), eq(1), any())).thenReturn(1);
+
+        assertTrue(service.markSucceeded(job));
+
+        // Reclaimed after the lease expired: the update matches no row
+        when(repository.completeHeld(eq(job.getId()), eq("node-a"), eq(1), any())).thenReturn(0);
+        assertFalse(service.markSucceeded(job));
+    }
+
+    @Test
+    void retriesUnderTheClaimedLease() {
+        OCRJob job = queue(JobPriority.FIRST_SIGNUP, 1).get(0);
+        service.claim(1);
+        when(repository.retryHeld(eq(job.getId()), eq("node-a"), eq(1), any(), eq("boom"), any())).thenReturn(1);
+
+        assertFalse(service.markFailed(job, "boom"));
+
+        verify(repository).retryHeld(eq(job.getId()), eq("node-a"), eq(1), any(), eq("boom"), any());
+        verify(repository, never()).deadLetterHeld(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void deadLettersOnlyUnderTheClaimedLease() {
+        OCRJob job = queue(JobPriority.FIRST_SIGNUP, 1).get(0);
+        job.setAttempts(2);
+        service.claim(1);
+        assertEquals(3, job.getAttempts());
+
+        when(repository.deadLetterHeld(eq(job.getId()), eq("node-a"), eq(3), eq("boom"), any())).thenReturn(1);
+        assertTrue(service.markFailed(job, "boom"));
+
+        // Lost lease: not dead-lettered, so the caller does not give up on the document
+        when(repository.deadLetterHeld(eq(job.getId()), eq("node-a"), eq(3), eq("boom"), any())).thenReturn(0);
+        assertFalse(service.markFailed(job, "boom"));
+    }
+
+    @Test
+    void releasedJobKeepsItsFirstDispatch() {
+        OCRJob job = queue(JobPriority.FIRST_SIGNUP, 1).get(0);
+        service.claim(1);
+
+        service.markDispatched(List.of(job));
+        LocalDateTime dispatchedAt = job.getDispatchedAt();
+        assertNotNull(dispatchedAt);
+        verify(repository).markDispatched(eq(List.of(job.getId())), eq(dispatchedAt));
+
+        // Put back without using an attempt and claimed again: still dispatched
+        job.setStatus(OCRJob.JobStatus.QUEUED);
+        job.setAttempts(0);
+        assertEquals(List.of(job), service.claim(1).getRunnable());
+        assertEquals(dispatchedAt, job.getDispatchedAt());
+    }
+
+    private List<OCRJob> queue(JobPriority priority, int count) {
+        List<OCRJob> queued = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = jobs.size() + 1;
+            OCRJob job = new OCRJob(id, id, priority);
+            job.setId(id);
+            job.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+            jobs.add(job);
+            queued.add(job);
+        }
+        return queued;
+    }
+
+    private List<Object[]> countQueued() {
+        Map<JobPriority, Long> counts = new EnumMap<>(JobPriority.class);
+        for (OCRJob job : jobs) {
+            if (job.getStatus() == OCRJob.JobStatus.QUEUED) {
+                counts.merge(job.getPriority(), 1L, Long::sum);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((priority, count) -> rows.add(new Object[]{priority.name(), count}));
+        return rows;
+    }
+
+    private List<OCRJob> lockQueued(JobPriority priority, int limit) {
+        return jobs.stream()
+            .filter(job -> job.getPriority() == priority && job.getStatus() == OCRJob.JobStatus.QUEUED)
+            .filter(job -> !lockedElsewhere.contains(job.getId()))
+            .limit(limit)
+            .toList();
+    }
+
+    private static Map<JobPriority, Integer> countByPriority(List<OCRJob> claimed) {
+        Map<JobPriority, Integer> counts = new EnumMap<>(JobPriority.class);
+        claimed.forEach(job -> counts.merge(job.getPriority(), 1, Integer::sum));
+        return counts;
+    }
+}
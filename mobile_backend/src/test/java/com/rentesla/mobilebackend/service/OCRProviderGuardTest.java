@@ -0,0 +1,335 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.rentesla.mobilebackend.service.OCRProviderGuard.BreakerState;
+import com.rentesla.mobilebackend.service.OCRProviderGuard.Outcome;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.NoSuchFileException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OCRProviderGuardTest {
+
+    private static final long OPEN_DURATION_MS = 30_000;
+
+    private MutableClock clock;
+    private OCRProviderGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        guard = new OCRProviderGuard();
+        ReflectionTestUtils.setField(guard, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(guard, "clock", clock);
+        ReflectionTestUtils.setField(guard, "initialLimit", 4);
+        ReflectionTestUtils.setField(guard, "minLimit", 1);
+        ReflectionTestUtils.setField(guard, "maxLimit", 8);
+        ReflectionTestUtils.setField(guard, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(guard, "slowCallMs", 10_000L);
+        ReflectionTestUtils.setField(guard, "windowSize", 10);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 4);
+        ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(guard, "openDurationMs", OPEN_DURATION_MS);
+        ReflectionTestUtils.setField(guard, "halfOpenProbes", 2);
+        guard.initialize();
+    }
+
+    @Test
+    void limitGrowsOnlyWhileSaturated() {
+        call(Outcome.SUCCESS);
+        assertEquals(4.0, guard.getLimit());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(guard.tryAcquire());
+        }
+        assertFalse(guard.tryAcquire());
+        assertEquals(0, guard.availablePermits());
+
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(4.25, guard.getLimit(), 1e-9);
+        guard.release(Outcome.SUCCESS, 10);
+        guard.release(Outcome.SUCCESS, 10);
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(4.25, guard.getLimit(), 1e-9);
+        assertEquals(0, guard.getInFlight());
+    }
+
+    @Test
+    void limitNeverExceedsMax() {
+        ReflectionTestUtils.setField(guard, "limit", 7.99);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(guard.tryAcquire());
+        }
+        guard.release(Outcome.SUCCESS, 10);
+
+        assertEquals(8.0, guard.getLimit());
+    }
+
+    @Test
+    void limitBacksOffMultiplicativelyDownToMin() {
+        call(Outcome.FAILURE);
+        assertEquals(2.0, guard.getLimit());
+        call(Outcome.FAILURE);
+        assertEquals(1.0, guard.getLimit());
+        call(Outcome.FAILURE);
+        assertEquals(1.0, guard.getLimit());
+    }
+
+    @Test
+    void slowSuccessBacksOff() {
+        assertTrue(guard.tryAcquire());
+        guard.release(Outcome.SUCCESS, 10_001);
+
+        assertEquals(2.0, guard.getLimit());
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() {
+        call(Outcome.SUCCESS);
+        call(Outcome.SUCCESS);
+        call(Outcome.FAILURE);
+        assertEquals(BreakerState.CLOSED, guard.getState());
+
+        // 2 of 4 calls failed: 50% reaches the threshold
+        call(Outcome.FAILURE);
+
+        assertEquals(BreakerState.OPEN, guard.getState());
+        assertEquals(1.0, guard.getLimit());
+        assertEquals(0, guard.availablePermits());
+        assertFalse(guard.tryAcquire());
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        call(Outcome.FAILURE);
+        call(Outcome.FAILURE);
+        call(Outcome.FAILURE);
+
+        assertEquals(BreakerState.CLOSED, guard.getState());
+    }
+
+    @Test
+    void failuresSlideOutOfWindow() {
+        repeat(4, Outcome.SUCCESS);
+        repeat(3, Outcome.FAILURE);
+        repeat(9, Outcome.SUCCESS);
+        repeat(4, Outcome.FAILURE);
+
+        // The last 10 calls hold 4 failures; the 3 earlier ones have slid out
+        assertEquals(BreakerState.CLOSED, guard.getState());
+
+        call(Outcome.FAILURE);
+        assertEquals(BreakerState.OPEN, guard.getState());
+    }
+
+    @Test
+    void halfOpensAfterOpenDuration() {
+        open();
+
+        clock.advance(OPEN_DURATION_MS - 1);
+        assertEquals(BreakerState.OPEN, guard.getState());
+
+        clock.advance(1);
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+        assertEquals(2, guard.availablePermits());
+        assertTrue(guard.tryAcquire());
+        assertTrue(guard.tryAcquire());
+        assertFalse(guard.tryAcquire());
+    }
+
+    @Test
+    void closesWhenAllProbesSucceed() {
+        halfOpen();
+        assertTrue(guard.tryAcquire());
+        assertTrue(guard.tryAcquire());
+
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(BreakerState.CLOSED, guard.getState());
+
+        // Window starts empty again: one failure does not reopen
+        call(Outcome.FAILURE);
+        assertEquals(BreakerState.CLOSED, guard.getState());
+    }
+
+    @Test
+    void reopensWhenAProbeFails() {
+        halfOpen();
+        assertTrue(guard.tryAcquire());
+        assertTrue(guard.tryAcquire());
+
+        guard.release(Outcome.SUCCESS, 10);
+        guard.release(Outcome.FAILURE, 10);
+
+        assertEquals(BreakerState.OPEN, guard.getState());
+        clock.advance(OPEN_DURATION_MS - 1);
+        assertEquals(BreakerState.OPEN, guard.getState());
+        clock.advance(1);
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+    }
+
+    @Test
+    void ignoredOutcomeGivesHalfOpenProbeBack() {
+        halfOpen();
+        assertTrue(guard.tryAcquire());
+        assertTrue(guard.tryAcquire());
+        assertEquals(0, guard.availablePermits());
+
+        guard.release(Outcome.IGNORED, 10);
+
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+        assertEquals(1, guard.availablePermits());
+        assertTrue(guard.tryAcquire());
+
+        // Closing still takes two successful probes
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+        guard.release(Outcome.SUCCESS, 10);
+        assertEquals(BreakerState.CLOSED, guard.getState());
+    }
+
+    @Test
+    void ignoredOutcomeLeavesLimitAndBreakerAlone() {
+        for (int i = 0; i < 20; i++) {
+            call(Outcome.IGNORED);
+        }
+
+        assertEquals(BreakerState.CLOSED, guard.getState());
+        assertEquals(4.0, guard.getLimit());
+        assertEquals(0, guard.getInFlight());
+    }
+
+    @Test
+    void acquireWaitsForAReleasedPermit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(guard.tryAcquire());
+        }
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> acquire(5_000));
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+
+        guard.release(Outcome.SUCCESS, 10);
+
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(4, guard.getInFlight());
+    }
+
+    @Test
+    void acquireGivesUpAfterMaxWait() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(guard.tryAcquire());
+        }
+
+        assertFalse(guard.acquire(20));
+        assertEquals(4, guard.getInFlight());
+    }
+
+    @Test
+    void acquireFailsRightAwayWhileOpen() throws InterruptedException {
+        open();
+
+        long start = System.nanoTime();
+        assertFalse(guard.acquire(5_000));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void onlyProviderErrorsAndTimeoutsAreFailures() {
+        assertEquals(Outcome.SUCCESS, OCRProviderGuard.outcomeOf(null));
+
+        assertEquals(Outcome.FAILURE, OCRProviderGuard.outcomeOf(
+            new GoogleCloudVisionOCRService.OCRTimeoutException("timeout")));
+        assertEquals(Outcome.FAILURE, OCRProviderGuard.outcomeOf(
+            new CompletionException(Status.UNAVAILABLE.asRuntimeException())));
+        assertEquals(Outcome.FAILURE, OCRProviderGuard.outcomeOf(
+            ApiExceptionFactory.createException(null, GrpcStatusCode.of(Status.Code.RESOURCE_EXHAUSTED), true)));
+        assertEquals(Outcome.FAILURE, OCRProviderGuard.outcomeOf(
+            ApiExceptionFactory.createException(null, GrpcStatusCode.of(Status.Code.DEADLINE_EXCEEDED), true)));
+
+        // The request's fault, not the provider's
+        assertEquals(Outcome.IGNORED, OCRProviderGuard.outcomeOf(Status.INVALID_ARGUMENT.asRuntimeException()));
+        assertEquals(Outcome.IGNORED, OCRProviderGuard.outcomeOf(
+            ApiExceptionFactory.createException(null, GrpcStatusCode.of(Status.Code.INVALID_ARGUMENT), false)));
+
+        // Local errors
+        assertEquals(Outcome.IGNORED, OCRProviderGuard.outcomeOf(new GoogleCloudVisionOCRService.OCRProcessingException(
+            "OCR processing failed", new NoSuchFileException("blob"))));
+        assertEquals(Outcome.IGNORED, OCRProviderGuard.outcomeOf(new IllegalArgumentException("unparseable date")));
+        assertEquals(Outcome.IGNORED, OCRProviderGuard.outcomeOf(
+            new OCRExecutionEngine.OCRRejectedException("queue full")));
+    }
+
+    private boolean acquire(long maxWaitMs) {
+        try {
+            return guard.acquire(maxWaitMs);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void call(Outcome outcome) {
+        assertTrue(guard.tryAcquire());
+        guard.release(outcome, 10);
+    }
+
+    private void repeat(int times, Outcome outcome) {
+        for (int i = 0; i < times; i++) {
+            call(outcome);
+        }
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(Outcome.FAILURE);
+        }
+        assertEquals(BreakerState.OPEN, guard.getState());
+    }
+
+    private void halfOpen() {
+        open();
+        clock.advance(OPEN_DURATION_MS);
+        assertEquals(BreakerState.HALF_OPEN, guard.getState());
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rentesla.mobilebackend.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.rentesla.mobilebackend.entity.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCR text parsing: the old per-call regexes against {@link OCRTextExtractor} plus the parsers'
+ * field selection, over the sample document texts of {@link OCRTextExtractorTest} (each text once
+ * per document type per invocation). Parser logging is switched off so only parsing is timed.
+ * Run with {@code main}, from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OCRTextExtractorBenchmark {
+
+    private static final Document.DocumentType[] TYPES = Document.DocumentType.values();
+
+    private String[] texts;
+    private GoogleCloudVisionOCRService service;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(GoogleCloudVisionOCRService.class)).setLevel(Level.OFF);
+        texts = OCRTextExtractorTest.SAMPLES;
+        service = new GoogleCloudVisionOCRService();
+    }
+
+    @Benchmark
+    public void legacyRegexParse(Blackhole blackhole) {
+        for (String text : texts) {
+            for (Document.DocumentType type : TYPES) {
+                blackhole.consume(LegacyOCRTextParser.parse(text, type));
+            }
+        }
+    }
+
+    @Benchmark
+    public void extractorParse(Blackhole blackhole) {
+        for (String text : texts) {
+            for (Document.DocumentType type : TYPES) {
+                blackhole.consume(service.parseDocumentText(text, type));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(OCRTextExtractorBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,179 @@
+package com.rentesla.mobilebackend.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.rentesla.mobilebackend.entity.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OCRTextExtractorTest {
+
+    // Vision output as it comes back for Turkish documents: several lines, mixed case, labels
+    static final String[] SAMPLES = {
+        // Driving license, front
+        "TÜRKİYE CUMHURİYETİ\nSÜRÜCÜ BELGESİ\nDRIVING LICENCE\n1. YILMAZ\n2. MEHMET ALİ\n3. 15.03.1985 ANKARA\n"
+            + "4a. 12.06.2015\n4b. 12.06.2025\n4c. Ankara Emniyet Müdürlüğü\n4d. 12345678901\n5. AB123456\n9. B",
+        // Driving license, back
+        "9. 10. 11. 12.\nAM\nA1\nB 12.06.2015 12.06.2025\nBE\nC1\n12. 01\nMehmet Ali Yılmaz",
+        // Driving license with dotless OCR and the number fields run together
+        "SURUCU BELGESI\n1.OZTURK\n2.AYSE NUR\n3.01/02/1990\n4d.98765432109\n5.C1234567",
+        // Identity card, front
+        "TÜRKİYE CUMHURİYETİ KİMLİK KARTI\nREPUBLIC OF TURKEY IDENTITY CARD\nT.C. Kimlik No / TR Identity No\n"
+            + "10000000146\nSoyadı / Surname\nŞAHİN\nAdı / Given Name(s)\nZeynep\nDoğum Tarihi / Date of Birth\n"
+            + "21.05.1988\nSeri No / Document No\nA12B34567\nSon Geçerlilik / Valid Until\n21.05.2031",
+        // Identity card, back
+        "Anne Adı / Mother's Name Fatma\nBaba Adı / Father's Name Hüseyin\nVeren Makam / Issued By\nİstanbul\n"
+            + "I<TURA12B345670<10000000146<<<\n8805213F3105212TUR<<<<<<<<<<<6\nSAHIN<<ZEYNEP<<<<<<<<<<<<<<<<<",
+        // Passport data page
+        "PASAPORT PASSPORT\nTip/Type P Ülke Kodu/Code TUR Pasaport No/Passport No U12345678\nSoyadı/Surname ÇELİK\n"
+            + "Adı/Given Name(s) Elif Su\nDoğum Tarihi/Date of birth 03/11/1992\nGeçerlilik Tarihi/Date of expiry 02/08/2032\n"
+            + "P<TURCELIK<<ELIF<SU<<<<<<<<<<<<<<<<<<<<<<<<<\nU123456786TUR9211037F3208025<<<<<<<<<<<<<<08",
+        // Single-line texts: the only ones the confidence bonuses ever applied to
+        "Ahmet Kaya 12345678901 01.01.1980",
+        "Ayşe Demir born 02/03/1991 ID 123456789012345 license AB1234567 passport Z12345678 and some more text to pass "
+            + "the hundred character mark, then padding padding padding padding padding padding padding padding padding",
+        "ONLY UPPER CASE 1234567890",
+        // Windows and odd line endings, trailing terminators before '$'
+        "1. KARA\r\n2. Emine\r\n3. 05.05.1975\r\n",
+        "1. DOĞAN 2. Hatice 3. x",
+        "1. KILIÇ\u20282. Ömer\u0085 12.12.2012",
+        "2. ÇAĞLAR\n",
+        "",
+        "1.\n2.\n",
+        "_12345678901_ A12345678 9AB123456 AB1234567C x12345678901",
+        "Ğ1234567 Ş12345678 İ12345678 AB123456789 ABC123456 ÇA1234567",
+        "12.34/5678 12/34.56789 1.01.2000 01.01.20 99.99.9999.99.99.9999",
+        "Name  Surname\tTab\nNext Line Çağrı Işık Ömer Ünal",
+    };
+
+    private static final Document.DocumentType[] TYPES = Document.DocumentType.values();
+
+    private static Level previousLevel;
+
+    private final GoogleCloudVisionOCRService service = new GoogleCloudVisionOCRService();
+
+    @BeforeAll
+    static void silenceParserLogging() {
+        // parseDocumentText logs the whole text and every selected field at INFO
+        Logger logger = (Logger) LoggerFactory.getLogger(GoogleCloudVisionOCRService.class);
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.OFF);
+    }
+
+    @AfterAll
+    static void restoreParserLogging() {
+        ((Logger) LoggerFactory.getLogger(GoogleCloudVisionOCRService.class)).setLevel(previousLevel);
+    }
+
+    @Test
+    void parsesSamplesLikeTheRegexParser() {
+        for (String text : SAMPLES) {
+            for (Document.DocumentType type : TYPES) {
+                assertSameResult(text, type);
+            }
+        }
+    }
+
+    @Test
+    void findsTheSameCandidatesAsTheRegexes() {
+        for (String text : SAMPLES) {
+            assertSameCandidates(text);
+        }
+    }
+
+    @Test
+    void parsesRandomTextsLikeTheRegexParser() {
+        Random random = new Random(5);
+        for (int i = 0; i < 20_000; i++) {
+            String text = randomText(random, 1 + random.nextInt(120));
+            assertSameCandidates(text);
+            assertSameResult(text, TYPES[i % TYPES.length]);
+        }
+    }
+
+    @Test
+    void keepsConfidenceBonusesSingleLineOnly() {
+        String fields = "Ahmet Kaya 12345678901 01.01.1980";
+        double singleLine = service.parseDocumentText(fields, Document.DocumentType.IDENTITY_CARD).getConfidence();
+        double multiLine = service.parseDocumentText(fields + "\n", Document.DocumentType.IDENTITY_CARD).getConfidence();
+
+        assertEquals(0.8, singleLine, 1e-9);
+        assertEquals(0.6, multiLine, 1e-9);
+    }
+
+    @Test
+    void readsTurkishLicenseFields() {
+        GoogleCloudVisionOCRService.OCRResult result =
+            service.parseDocumentText(SAMPLES[0], Document.DocumentType.DRIVING_LICENSE);
+
+        assertEquals("YILMAZ", result.getLastName());
+        assertEquals("MEHMET ALİ", result.getFirstName());
+        assertEquals("12345678901", result.getIdentityNumber());
+        assertEquals("AB123456", result.getLicenseNumber());
+        assertEquals("15.03.1985", result.getBirthDate());
+        assertEquals("12.06.2015", result.getExpiryDate());
+    }
+
+    private void assertSameResult(String text, Document.DocumentType type) {
+        GoogleCloudVisionOCRService.OCRResult expected = LegacyOCRTextParser.parse(text, type);
+        GoogleCloudVisionOCRService.OCRResult actual = service.parseDocumentText(text, type);
+        String label = type + " " + quote(text);
+
+        assertEquals(expected.getIdentityNumber(), actual.getIdentityNumber(), label);
+        assertEquals(expected.getFirstName(), actual.getFirstName(), label);
+        assertEquals(expected.getLastName(), actual.getLastName(), label);
+        assertEquals(expected.getBirthDate(), actual.getBirthDate(), label);
+        assertEquals(expected.getExpiryDate(), actual.getExpiryDate(), label);
+        assertEquals(expected.getLicenseNumber(), actual.getLicenseNumber(), label);
+        assertEquals(expected.getPassportNumber(), actual.getPassportNumber(), label);
+        assertEquals(expected.getConfidence(), actual.getConfidence(), label);
+    }
+
+    private static void assertSameCandidates(String text) {
+        OCRTextExtractor.Extraction extraction = OCRTextExtractor.extract(text);
+        String label = quote(text);
+
+        assertEquals(LegacyOCRTextParser.findAll(LegacyOCRTextParser.ID, text), extraction.getIdentityNumbers(), label);
+        assertEquals(LegacyOCRTextParser.findAll(LegacyOCRTextParser.LICENSE, text), extraction.getLicenseNumbers(), label);
+        assertEquals(LegacyOCRTextParser.findAll(LegacyOCRTextParser.PASSPORT, text), extraction.getPassportNumbers(), label);
+        assertEquals(LegacyOCRTextParser.findAll(LegacyOCRTextParser.DATE, text), extraction.getDates(), label);
+        assertEquals(LegacyOCRTextParser.findAll(LegacyOCRTextParser.NAME_PAIR, text),
+            extraction.getNamePairs().stream().map(OCRTextExtractor.NameCandidate::toString).toList(), label);
+        assertEquals(firstTrimmed(LegacyOCRTextParser.LICENSE_SURNAME, text), extraction.getLicenseSurname(), label);
+        assertEquals(firstTrimmed(LegacyOCRTextParser.LICENSE_FIRST_NAME, text), extraction.getLicenseFirstName(), label);
+    }
+
+    private static String firstTrimmed(String regex, String text) {
+        List<String> matches = LegacyOCRTextParser.findAll(regex, text);
+        return matches.isEmpty() ? null : matches.get(0).trim();
+    }
+
+    // Fragments that sit on the edges of the patterns: digit runs around 11, letter prefixes,
+    // date separators, Turkish letters, numbered license fields and every kind of line break
+    private static final String[] FRAGMENTS = {
+        "0", "1", "2", "3", "9", "12", "123456", "1234567890", "12345678901", "123456789012",
+        "A", "B", "AB", "ABC", "Z", "x", "a", "Ç", "Ğ", "İ", "I", "Ö", "Ş", "Ü", "ç", "ğ", "ı", "i", "ö", "ş", "ü", "é", "ß",
+        "Ahmet", "AYŞE", "Işık", "Öz", "Çelik", "mehmet", "ALİ",
+        ".", "/", "-", "_", "<", ",", ":", "1.", "2.", "3.", "4d.",
+        " ", " ", " ", "  ", "\t", "\n", "\n", "\r", "\r\n", "\u0085", "\u2028", "\u000B", "\f", "\u00A0"
+    };
+
+    static String randomText(Random random, int fragments) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String quote(String text) {
+        return "'" + text.replace("\n", "\\n").replace("\r", "\\r") + "'";
+    }
+}
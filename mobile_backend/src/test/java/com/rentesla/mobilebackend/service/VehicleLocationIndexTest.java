@@ -0,0 +1,285 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleLocationIndexTest {
+
+    private static final double ISTANBUL_LAT = 41.0082;
+    private static final double ISTANBUL_LNG = 28.9784;
+
+    private VehicleRepository vehicleRepository;
+    private VehicleLocationIndex index;
+
+    // What the index should contain: uuid -> {lat, lng}
+    private final Map<String, double[]> expected = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository = mock(VehicleRepository.class);
+        index = new VehicleLocationIndex();
+        ReflectionTestUtils.setField(index, "vehicleRepository", vehicleRepository);
+        ReflectionTestUtils.setField(index, "cellSizeDegrees", 0.05);
+    }
+
+    @Test
+    void findsVehiclesWithinRadiusNearestFirst() {
+        add("far", ISTANBUL_LAT + 0.2, ISTANBUL_LNG);
+        add("near", ISTANBUL_LAT + 0.01, ISTANBUL_LNG);
+        add("middle", ISTANBUL_LAT, ISTANBUL_LNG + 0.05);
+        add("ankara", 39.9334, 32.8597);
+
+        List<VehicleLocationIndex.Hit> hits = index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, 30);
+
+        assertEquals(List.of("near", "middle", "far"), uuids(hits));
+        assertEquals(1.112, hits.get(0).getDistanceKm(), 0.001);
+        assertEquals(22.24, hits.get(2).getDistanceKm(), 0.01);
+    }
+
+    @Test
+    void matchesBruteForceAtAllLatitudes() {
+        Random random = new Random(42);
+        double[][] centers = {
+            {ISTANBUL_LAT, ISTANBUL_LNG}, {0, 0}, {-33.9, 18.4}, {60.2, 24.9}, {70.0, -150.0},
+            {78.2, 15.6}, {85.0, 100.0}, {-85.0, -60.0}, {-17.7, 179.9}, {65.0, -179.95}
+        };
+        int vehicle = 0;
+        for (double[] center : centers) {
+            // Points spread around the search circle's edge, where an undersized bounding box loses them
+            for (int i = 0; i < 300; i++) {
+                double[] point = destination(center[0], center[1], random.nextDouble() * 360, random.nextDouble() * 120);
+                add("v" + vehicle++, point[0], point[1]);
+            }
+        }
+
+        for (double[] center : centers) {
+            for (double radius : new double[] {1, 10, 50, 100}) {
+                assertEquals(bruteForce(center[0], center[1], radius),
+                    uuids(index.findWithinRadius(center[0], center[1], radius)),
+                    "radius " + radius + " around " + center[0] + "," + center[1]);
+            }
+        }
+    }
+
+    @Test
+    void keepsVehiclesAtTheRadiusAlongTheMeridian() {
+        double radius = 100;
+        double edge = Math.toDegrees((radius - 0.01) / VehicleLocationIndex.EARTH_RADIUS_KM);
+        add("north", ISTANBUL_LAT + edge, ISTANBUL_LNG);
+        add("south", ISTANBUL_LAT - edge, ISTANBUL_LNG);
+
+        assertEquals(2, index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, radius).size());
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        add("east", -17.70, 179.98);
+        add("west", -17.70, -179.97);
+        add("far-west", -17.70, -179.0);
+
+        List<VehicleLocationIndex.Hit> fromEast = index.findWithinRadius(-17.70, 179.99, 10);
+        List<VehicleLocationIndex.Hit> fromWest = index.findWithinRadius(-17.70, -179.99, 10);
+
+        assertEquals(List.of("east", "west"), uuids(fromEast));
+        assertEquals(List.of("west", "east"), uuids(fromWest));
+        assertEquals(4.24, fromEast.get(1).getDistanceKm(), 0.01);
+    }
+
+    @Test
+    void searchesAroundThePoles() {
+        add("across-north-pole", 89.95, 180);
+        add("north-pole", 90, -180);
+        add("beside", 89.96, 90);
+        add("south-pole", -90, 0);
+        add("near-south-pole", -89.99, -135);
+
+        assertEquals(List.of("north-pole", "beside", "across-north-pole"), uuids(index.findWithinRadius(89.99, 0, 15)));
+        assertEquals(List.of("south-pole", "near-south-pole"), uuids(index.findWithinRadius(-90, 45, 5)));
+        assertEquals(List.of("near-south-pole", "south-pole"), uuids(index.findWithinRadius(-89.993, -135, 5)));
+    }
+
+    @Test
+    void findsNearestFirstAndStopsAtMaxRadius() {
+        add("far", ISTANBUL_LAT + 0.2, ISTANBUL_LNG);
+        add("near", ISTANBUL_LAT + 0.01, ISTANBUL_LNG);
+        add("middle", ISTANBUL_LAT, ISTANBUL_LNG + 0.05);
+        add("ankara", 39.9334, 32.8597);
+
+        assertEquals(List.of("near", "middle"), uuids(index.findNearest(ISTANBUL_LAT, ISTANBUL_LNG, 2, 100)));
+        assertEquals(List.of("near", "middle", "far"), uuids(index.findNearest(ISTANBUL_LAT, ISTANBUL_LNG, 10, 100)));
+        assertEquals(List.of("near"), uuids(index.findNearest(ISTANBUL_LAT, ISTANBUL_LNG, 10, 2)));
+        assertTrue(index.findNearest(0, 0, 10, 100).isEmpty());
+    }
+
+    @Test
+    void nearestMatchesBruteForceAtAllLatitudes() {
+        Random random = new Random(7);
+        double[][] centers = {
+            {ISTANBUL_LAT, ISTANBUL_LNG}, {0, 0}, {60.2, 24.9}, {78.2, 15.6}, {89.9, 45.0}, {90, 0},
+            {-90, 180}, {-89.95, -60.0}, {-17.7, 179.98}, {65.0, -179.99}
+        };
+        int vehicle = 0;
+        for (double[] center : centers) {
+            for (int i = 0; i < 200; i++) {
+                double[] point = destination(center[0], center[1], random.nextDouble() * 360, random.nextDouble() * 150);
+                add("v" + vehicle++, point[0], point[1]);
+            }
+        }
+
+        for (double[] center : centers) {
+            for (int k : new int[] {1, 5, 50}) {
+                for (double maxRadius : new double[] {3, 30, 100}) {
+                    List<String> all = bruteForce(center[0], center[1], maxRadius);
+                    assertEquals(all.subList(0, Math.min(k, all.size())),
+                        uuids(index.findNearest(center[0], center[1], k, maxRadius)),
+                        "k " + k + " within " + maxRadius + " of " + center[0] + "," + center[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nearestWrapsAcrossTheAntimeridian() {
+        add("east", 10, 179.99);
+        add("west", 10, -179.9);
+        add("further-east", 10, 179.5);
+
+        assertEquals(List.of("east", "west", "further-east"), uuids(index.findNearest(10, -179.99, 3, 100)));
+    }
+
+    @Test
+    void followsVehicleChanges() {
+        Vehicle vehicle = vehicle("car", ISTANBUL_LAT, ISTANBUL_LNG);
+        index.onVehicleChanged(vehicle);
+        assertEquals(List.of("car"), uuids(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, 1)));
+
+        // Moved about 50 km east
+        vehicle.setLocationLng(ISTANBUL_LNG + 0.6);
+        index.onVehicleChanged(vehicle);
+        assertTrue(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, 1).isEmpty());
+        assertEquals(List.of("car"), uuids(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG + 0.6, 1)));
+        assertEquals(1, index.size());
+
+        vehicle.setStatus(Vehicle.VehicleStatus.RENTED);
+        index.onVehicleChanged(vehicle);
+        assertEquals(0, index.size());
+
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        index.onVehicleChanged(vehicle);
+        assertEquals(1, index.size());
+
+        vehicle.setIsAvailable(false);
+        index.onVehicleChanged(vehicle);
+        assertEquals(0, index.size());
+
+        vehicle.setIsAvailable(true);
+        vehicle.setLocationLat(null);
+        index.onVehicleChanged(vehicle);
+        assertEquals(0, index.size());
+
+        vehicle.setLocationLat(ISTANBUL_LAT);
+        index.onVehicleChanged(vehicle);
+        index.onVehicleRemoved("car");
+        assertEquals(0, index.size());
+        assertTrue(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG + 0.6, 1).isEmpty());
+    }
+
+    @Test
+    void reloadReplacesContentsAndCountsChanges() {
+        when(vehicleRepository.findAvailableVehiclePositions()).thenReturn(List.of(
+            new Object[] {"a", ISTANBUL_LAT, ISTANBUL_LNG},
+            new Object[] {"b", ISTANBUL_LAT + 0.001, ISTANBUL_LNG}));
+        assertFalse(index.isLoaded());
+
+        index.reload();
+        long version = index.getVersion();
+        assertTrue(index.isLoaded());
+        assertEquals(List.of("a", "b"), uuids(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, 1)));
+
+        // Unchanged rows are not counted as changes
+        index.reload();
+        assertEquals(version, index.getVersion());
+
+        when(vehicleRepository.findAvailableVehiclePositions()).thenReturn(List.<Object[]>of(
+            new Object[] {"b", ISTANBUL_LAT + 0.001, ISTANBUL_LNG}));
+        index.reload();
+        assertEquals(version + 1, index.getVersion());
+        assertEquals(List.of("b"), uuids(index.findWithinRadius(ISTANBUL_LAT, ISTANBUL_LNG, 1)));
+    }
+
+    @Test
+    void longitudeDeltaCoversTheWholeCircle() {
+        for (double latitude = 0; latitude < 89; latitude += 0.5) {
+            double delta = VehicleLocationIndex.longitudeDelta(latitude, 100);
+            // The point of the circle furthest east is on the parallel asin(sin(lat) / cos(d))
+            double d = 100 / VehicleLocationIndex.EARTH_RADIUS_KM;
+            double tangentLatitude = Math.toDegrees(Math.asin(Math.sin(Math.toRadians(latitude)) / Math.cos(d)));
+            if (delta < 360) {
+                double east = VehicleLocationIndex.haversineKm(latitude, 0, tangentLatitude, delta);
+                assertEquals(100, east, 1e-6, "latitude " + latitude);
+            }
+        }
+        assertEquals(360, VehicleLocationIndex.longitudeDelta(89.5, 100));
+        assertEquals(360, VehicleLocationIndex.longitudeDelta(-90, 1));
+    }
+
+    private void add(String uuid, double latitude, double longitude) {
+        index.onVehicleChanged(vehicle(uuid, latitude, longitude));
+        expected.put(uuid, new double[] {latitude, longitude});
+    }
+
+    private List<String> bruteForce(double latitude, double longitude, double radiusKm) {
+        List<Map.Entry<String, Double>> within = new ArrayList<>();
+        expected.forEach((uuid, position) -> {
+            double distance = VehicleLocationIndex.haversineKm(latitude, longitude, position[0], position[1]);
+            if (distance <= radiusKm) {
+                within.add(Map.entry(uuid, distance));
+            }
+        });
+        within.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+        return within.stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Point at distanceKm from the start along the initial bearing, longitude normalized to [-180, 180]
+     */
+    static double[] destination(double latitude, double longitude, double bearingDegrees, double distanceKm) {
+        double d = distanceKm / VehicleLocationIndex.EARTH_RADIUS_KM;
+        double lat1 = Math.toRadians(latitude);
+        double bearing = Math.toRadians(bearingDegrees);
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(d) + Math.cos(lat1) * Math.sin(d) * Math.cos(bearing));
+        double lng2 = Math.toRadians(longitude) + Math.atan2(Math.sin(bearing) * Math.sin(d) * Math.cos(lat1),
+            Math.cos(d) - Math.sin(lat1) * Math.sin(lat2));
+        double lng = Math.toDegrees(lng2);
+        lng = ((lng + 540) % 360) - 180;
+        return new double[] {Math.toDegrees(lat2), lng};
+    }
+
+    static Vehicle vehicle(String uuid, double latitude, double longitude) {
+        Vehicle vehicle = new Vehicle("VIN" + uuid, "Tesla " + uuid);
+        vehicle.setUuid(uuid);
+        vehicle.setIsAvailable(true);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        vehicle.setLocationLat(latitude);
+        vehicle.setLocationLng(longitude);
+        return vehicle;
+    }
+
+    private static List<String> uuids(List<VehicleLocationIndex.Hit> hits) {
+        return hits.stream().map(VehicleLocationIndex.Hit::getUuid).toList();
+    }
+}
@@ -0,0 +1,224 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.entity.Vehicle;
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleSearchIndexTest {
+
+    private VehicleRepository vehicleRepository;
+    private VehicleSearchIndex index;
+
+    // What the index should contain: uuid -> {display name, model, make, color}
+    private final Map<String, String[]> expected = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository = mock(VehicleRepository.class);
+        index = new VehicleSearchIndex();
+        ReflectionTestUtils.setField(index, "vehicleRepository", vehicleRepository);
+    }
+
+    @Test
+    void matchesSubstringsInsideAndAcrossWords() {
+        add("s", "Tesla Model S", "Model S", "Tesla", "Kırmızı");
+        add("y", "Tesla Model Y", "Model Y", "Tesla", "Beyaz");
+
+        assertEquals(List.of("s", "y"), index.search("el"));
+        assertEquals(List.of("s", "y"), index.search("e"));
+        assertEquals(List.of("s"), index.search("l s"));
+        assertEquals(List.of("s"), index.search("odel S"));
+        assertEquals(List.of("y"), index.search("eya"));
+        assertTrue(index.search("x").isEmpty());
+    }
+
+    @Test
+    void matchesTheWholeQueryInOneField() {
+        add("white-3", "Tesla Model 3", "Model 3", "Tesla", "Beyaz");
+
+        assertEquals(List.of("white-3"), index.search("model 3"));
+        assertEquals(List.of("white-3"), index.search("tesla model"));
+        // Words from different fields do not combine, as with the LIKE query
+        assertTrue(index.search("tesla beyaz").isEmpty());
+        assertTrue(index.search("3 model").isEmpty());
+    }
+
+    @Test
+    void foldsTurkishLettersCaseAndPunctuation() {
+        add("tour", "Şehir Turu İstanbul", "Model-3", "Tesla", "Gümüş");
+
+        assertEquals(List.of("tour"), index.search("şehir"));
+        assertEquals(List.of("tour"), index.search("SEHIR"));
+        assertEquals(List.of("tour"), index.search("istanbul"));
+        assertEquals(List.of("tour"), index.search("ıstanbul"));
+        assertEquals(List.of("tour"), index.search("gumus"));
+        assertEquals(List.of("tour"), index.search("model 3"));
+        assertTrue(index.search("  ...  ").isEmpty());
+    }
+
+    @Test
+    void ranksByFieldThenMatchKindThenName() {
+        add("remodel", "Remodel", "", "", "");              // substring in name: 1 x 4
+        add("modeller", "Modeller", "", "", "");            // word prefix in name: 2 x 4
+        add("model-field", "X", "Model", "", "");           // whole word in model: 3 x 3
+        add("model-s", "Model S", "", "", "");              // whole word in name: 3 x 4
+        add("b-model", "B Model", "", "", "");              // whole word in name, ties broken by name
+        add("colour", "Y", "", "", "Model");                // whole word in color: 3 x 1
+
+        assertEquals(List.of("b-model", "model-s", "model-field", "modeller", "remodel", "colour"),
+            index.search("model"));
+    }
+
+    @Test
+    void returnsEveryMatch() {
+        for (int i = 0; i < 250; i++) {
+            add("v" + i, "Tesla " + i, "Model 3", "Tesla", "Siyah");
+        }
+
+        assertEquals(250, index.search("tesla").size());
+        assertEquals(250, index.search("3").size());
+        // Tesla 1, Tesla 10..19, Tesla 100..199
+        assertEquals(111, index.search("tesla 1").size());
+    }
+
+    @Test
+    void matchesBruteForceSubstringSearch() {
+        String[] names = {"Tesla Model S", "Model 3 Long Range", "Şehir Aracı", "Gece Mavisi Y", "Performans X",
+            "Ekonomik 3", "Aile Aracı", "Kırmızı Şimşek", "Beyaz İnci", "Çöl Fırtınası"};
+        String[] models = {"Model S", "Model 3", "Model X", "Model Y", "Cybertruck"};
+        String[] colors = {"Beyaz", "Siyah", "Kırmızı", "Mavi", "Gümüş", "Gri"};
+        Random random = new Random(11);
+        for (int i = 0; i < 400; i++) {
+            add("v" + i, names[random.nextInt(names.length)] + " " + i, models[random.nextInt(models.length)],
+                random.nextBoolean() ? "Tesla" : "Tesla Motors", colors[random.nextInt(colors.length)]);
+        }
+
+        // Every substring of a sample of folded fields, plus some misses
+        List<String> queries = new ArrayList<>(List.of("zz", "q", "model z", "tesla siyah", "ss", "a a"));
+        for (String[] fields : new ArrayList<>(expected.values()).subList(0, 20)) {
+            String field = TurkishTextNormalizer.foldForSearch(fields[random.nextInt(fields.length)]);
+            for (int start = 0; start < field.length(); start++) {
+                for (int end = start + 1; end <= field.length(); end++) {
+                    queries.add(field.substring(start, end));
+                }
+            }
+        }
+
+        for (String query : queries) {
+            assertEquals(bruteForce(query), new HashSet<>(index.search(query)), "query '" + query + "'");
+        }
+    }
+
+    @Test
+    void followsVehicleChanges() {
+        Vehicle vehicle = vehicle("car", "Gece Mavisi", "Model 3", "Tesla", "Mavi");
+        index.onVehicleChanged(vehicle);
+        assertEquals(List.of("car"), index.search("gece"));
+
+        vehicle.setDisplayName("Gündüz Beyazı");
+        index.onVehicleChanged(vehicle);
+        assertTrue(index.search("gece").isEmpty());
+        assertEquals(List.of("car"), index.search("gunduz"));
+
+        vehicle.setStatus(Vehicle.VehicleStatus.MAINTENANCE);
+        index.onVehicleChanged(vehicle);
+        assertTrue(index.search("gunduz").isEmpty());
+        assertEquals(0, index.size());
+
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        index.onVehicleChanged(vehicle);
+        index.onVehicleRemoved("car");
+        assertTrue(index.search("gunduz").isEmpty());
+        assertTrue(index.autocomplete("gun", 10).isEmpty());
+    }
+
+    @Test
+    void reloadReplacesContents() {
+        when(vehicleRepository.findAvailableVehicleSearchFields()).thenReturn(List.of(
+            new Object[] {"a", "Tesla Model S", "Model S", "Tesla", "Siyah"},
+            new Object[] {"b", "Tesla Model Y", "Model Y", "Tesla", null}));
+        index.reload();
+        assertTrue(index.isLoaded());
+        assertEquals(List.of("a", "b"), index.search("tesla"));
+
+        when(vehicleRepository.findAvailableVehicleSearchFields()).thenReturn(List.<Object[]>of(
+            new Object[] {"b", "Tesla Model Y", "Model Y", "Tesla", null}));
+        index.reload();
+        assertEquals(List.of("b"), index.search("tesla"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void autocompletesWordPrefixesMostCommonFirst() {
+        add("1", "Tesla Model S", "Model S", "Tesla", "Siyah");
+        add("2", "Tesla Model Y", "Model Y", "Tesla", "Siyah");
+        add("3", "Şehir Turu", "Model S", "Tesla Motors", "Sarı");
+        add("4", "Gece", "Model 3", "Tesla", "Gümüş");
+
+        // "Model S" is the model of two vehicles, every other value belongs to one
+        assertEquals(List.of("Model S", "Model 3", "Model Y", "Tesla Model S", "Tesla Model Y"),
+            index.autocomplete("mod", 10));
+        assertEquals(List.of("Tesla", "Tesla Model S", "Tesla Model Y", "Tesla Motors"), index.autocomplete("tes", 10));
+        assertEquals(List.of("Tesla", "Tesla Model S"), index.autocomplete("TES", 2));
+        assertEquals(List.of("Model S", "Siyah", "Sarı"), index.autocomplete("ş", 3));
+        // Earlier words must appear in the suggestion
+        assertEquals(List.of("Model S", "Tesla Model S"), index.autocomplete("model s", 10));
+        assertEquals(List.of("Gümüş"), index.autocomplete("gumu", 10));
+        assertTrue(index.autocomplete("x", 10).isEmpty());
+    }
+
+    @Test
+    void autocompleteCountsFollowRemovals() {
+        add("1", "A", "Model S", "Tesla", "Siyah");
+        add("2", "B", "Model 3", "Tesla", "Siyah");
+        add("3", "C", "Model 3", "Tesla", "Siyah");
+        assertEquals(List.of("Model 3", "Model S"), index.autocomplete("model", 10));
+
+        index.onVehicleRemoved("2");
+        index.onVehicleRemoved("3");
+        assertEquals(List.of("Model S"), index.autocomplete("model", 10));
+    }
+
+    private void add(String uuid, String displayName, String model, String make, String color) {
+        index.onVehicleChanged(vehicle(uuid, displayName, model, make, color));
+        expected.put(uuid, new String[] {displayName, model, make, color});
+    }
+
+    private Set<String> bruteForce(String query) {
+        String phrase = TurkishTextNormalizer.foldForSearch(query);
+        Set<String> matches = new HashSet<>();
+        expected.forEach((uuid, fields) -> {
+            for (String field : fields) {
+                if (!phrase.isEmpty() && TurkishTextNormalizer.foldForSearch(field).contains(phrase)) {
+                    matches.add(uuid);
+                }
+            }
+        });
+        return matches;
+    }
+
+    private static Vehicle vehicle(String uuid, String displayName, String model, String make, String color) {
+        Vehicle vehicle = new Vehicle("VIN" + uuid, displayName);
+        vehicle.setUuid(uuid);
+        vehicle.setModel(model);
+        vehicle.setMake(make);
+        vehicle.setColor(color);
+        vehicle.setIsAvailable(true);
+        vehicle.setStatus(Vehicle.VehicleStatus.AVAILABLE);
+        return vehicle;
+    }
+}
@@ -0,0 +1,42 @@
+package com.rentesla.mobilebackend.service;
+
+import com.rentesla.mobilebackend.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class VehicleServiceTest {
+
+    private VehicleRepository vehicleRepository;
+    private VehicleLocationIndex vehicleLocationIndex;
+    private VehicleService vehicleService;
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository = mock(VehicleRepository.class);
+        vehicleLocationIndex = mock(VehicleLocationIndex.class);
+        vehicleService = new VehicleService();
+        ReflectionTestUtils.setField(vehicleService, "vehicleRepository", vehicleRepository);
+        ReflectionTestUtils.setField(vehicleService, "vehicleLocationIndex", vehicleLocationIndex);
+    }
+
+    @Test
+    void rejectsCoordinatesOutOfRange() {
+        double[][] invalid = {{95, 29}, {-90.5, 29}, {41, 181}, {41, -180.01}, {Double.NaN, 29}, {41, Double.NaN}};
+        for (double[] point : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> vehicleService.findNearestVehicles(point[0], point[1], 5));
+            assertThrows(IllegalArgumentException.class, () -> vehicleService.findNearbyVehicles(point[0], point[1], 10.0));
+        }
+        verifyNoInteractions(vehicleLocationIndex, vehicleRepository);
+    }
+
+    @Test
+    void acceptsTheEdgesOfTheRange() {
+        assertDoesNotThrow(() -> vehicleService.findNearestVehicles(90.0, 180.0, 5));
+        assertDoesNotThrow(() -> vehicleService.findNearestVehicles(-90.0, -180.0, 5));
+    }
+}
@@ -0,0 +1,79 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of creating a Vision client for every OCR call (the old behaviour) against
+ * reusing the shared client from {@link VisionClientManager}, over an in-process gRPC server.
+ * The in-process transport has no TLS handshake or token fetch, so this is a lower bound on the
+ * real gain. Run with {@code main}, from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisionClientBenchmark {
+
+    private InProcessVisionServer server;
+    private VisionClientManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new InProcessVisionServer();
+        manager = new VisionClientManagerTest.CountingVisionClientManager(server);
+        ReflectionTestUtils.setField(manager, "mockEnabled", false);
+        ReflectionTestUtils.setField(manager, "visionApiEnabled", true);
+        manager.getClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        manager.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public String clientPerCall() throws Exception {
+        ManagedChannel channel = server.openChannel();
+        try (ImageAnnotatorClient client = ImageAnnotatorClient.create(InProcessVisionServer.settingsFor(channel))) {
+            return VisionClientManagerTest.annotate(client);
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public String sharedClient() throws IOException {
+        return manager.execute(VisionClientManagerTest::annotate);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(VisionClientBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
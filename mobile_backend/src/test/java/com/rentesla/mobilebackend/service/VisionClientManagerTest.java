@@ -0,0 +1,158 @@
+package com.rentesla.mobilebackend.service;
+
+import com.google.api.gax.retrying.RetrySettings;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.Feature;
+import com.google.cloud.vision.v1.Image;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.ImageAnnotatorSettings;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionClientManagerTest {
+
+    private InProcessVisionServer server;
+    private CountingVisionClientManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new InProcessVisionServer();
+        manager = new CountingVisionClientManager(server);
+        ReflectionTestUtils.setField(manager, "mockEnabled", false);
+        ReflectionTestUtils.setField(manager, "visionApiEnabled", true);
+        ReflectionTestUtils.setField(manager, "channelPoolSize", 1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        manager.shutdown();
+        server.close();
+    }
+
+    @Test
+    void reusesOneClientAcrossCalls() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            assertEquals(InProcessVisionServer.TEXT, manager.execute(VisionClientManagerTest::annotate));
+        }
+
+        assertEquals(50, server.getCalls());
+        assertEquals(1, manager.clientsCreated.get());
+        assertEquals(1, server.getChannelsOpened());
+    }
+
+    @Test
+    void recreatesClientAndRetriesOnChannelFailure() throws IOException {
+        manager.execute(VisionClientManagerTest::annotate);
+        server.failNextCall(Status.UNAUTHENTICATED.withDescription("token expired"));
+
+        assertEquals(InProcessVisionServer.TEXT, manager.execute(VisionClientManagerTest::annotate));
+
+        assertEquals(3, server.getCalls());
+        assertEquals(2, manager.clientsCreated.get());
+        Health health = manager.health();
+        assertEquals(org.springframework.boot.actuate.health.Status.UP, health.getStatus());
+        assertEquals(1, health.getDetails().get("recreateCount"));
+    }
+
+    @Test
+    void doesNotRetryRequestErrors() throws IOException {
+        manager.execute(VisionClientManagerTest::annotate);
+        server.failNextCall(Status.INVALID_ARGUMENT.withDescription("bad image"));
+
+        ApiException e = assertThrows(ApiException.class, () -> manager.execute(VisionClientManagerTest::annotate));
+
+        assertEquals(StatusCode.Code.INVALID_ARGUMENT, e.getStatusCode().getCode());
+        assertEquals(2, server.getCalls());
+        assertEquals(1, manager.clientsCreated.get());
+    }
+
+    @Test
+    void recreatesClientThatWasShutDown() throws IOException {
+        ImageAnnotatorClient first = manager.getClient();
+        first.shutdown();
+
+        assertEquals(InProcessVisionServer.TEXT, manager.execute(VisionClientManagerTest::annotate));
+
+        assertNotSame(first, manager.getClient());
+        assertEquals(2, manager.clientsCreated.get());
+    }
+
+    @Test
+    void reportsLastErrorWithoutGoingDown() throws IOException {
+        manager.execute(VisionClientManagerTest::annotate);
+        ReflectionTestUtils.setField(manager, "lastError", "UNAVAILABLE: io exception");
+
+        Health health = manager.health();
+
+        assertEquals(org.springframework.boot.actuate.health.Status.UP, health.getStatus());
+        assertEquals("UNAVAILABLE: io exception", health.getDetails().get("lastError"));
+    }
+
+    @Test
+    void reportsUnknownWithoutUsableClient() throws IOException {
+        manager.getClient();
+        manager.shutdown();
+        ReflectionTestUtils.setField(manager, "lastError", "Failed to load credentials");
+
+        Health health = manager.health();
+
+        assertEquals(org.springframework.boot.actuate.health.Status.UNKNOWN, health.getStatus());
+        assertEquals(false, health.getDetails().get("clientUsable"));
+        assertEquals("Failed to load credentials", health.getDetails().get("lastError"));
+    }
+
+    @Test
+    void boundsBatchCallsByCallTimeout() throws IOException {
+        ReflectionTestUtils.setField(manager, "callTimeoutMs", 20_000L);
+        ImageAnnotatorSettings.Builder builder = InProcessVisionServer.settingsFor(server.openChannel()).toBuilder();
+
+        manager.applyCallTimeout(builder);
+
+        RetrySettings retrySettings = builder.batchAnnotateImagesSettings().getRetrySettings();
+        assertEquals(20_000, retrySettings.getTotalTimeout().toMillis());
+        assertEquals(20_000, retrySettings.getMaxRpcTimeout().toMillis());
+        assertEquals(1, retrySettings.getMaxAttempts());
+    }
+
+    static String annotate(ImageAnnotatorClient client) {
+        AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
+            .setImage(Image.newBuilder().setContent(ByteString.copyFromUtf8("image")))
+            .addFeatures(Feature.newBuilder().setType(Feature.Type.DOCUMENT_TEXT_DETECTION))
+            .build();
+        BatchAnnotateImagesResponse response = client.batchAnnotateImages(List.of(request));
+        return response.getResponses(0).getFullTextAnnotation().getText();
+    }
+
+    /**
+     * Manager whose clients talk to the in-process server, counting how many it creates
+     */
+    static class CountingVisionClientManager extends VisionClientManager {
+
+        private final InProcessVisionServer server;
+        final AtomicInteger clientsCreated = new AtomicInteger();
+
+        CountingVisionClientManager(InProcessVisionServer server) {
+            this.server = server;
+        }
+
+        @Override
+        ImageAnnotatorSettings clientSettings() throws IOException {
+            clientsCreated.incrementAndGet();
+            return server.newClientSettings();
+        }
+    }
+}
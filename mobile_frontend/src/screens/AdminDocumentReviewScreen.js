@@ -25,6 +25,8 @@ const AdminDocumentReviewScreen = ({ navigation }) => {
 
   const [stats, setStats] = useState(null);
   const [pendingDocuments, setPendingDocuments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [refreshing, setRefreshing] = useState(false);
   const [selectedDocument, setSelectedDocument] = useState(null);
@@ -57,7 +59,8 @@ const AdminDocumentReviewScreen = ({ navigation }) => {
       ]);
 
       setStats(statsData);
-      setPendingDocuments(documentsData);
+      setPendingDocuments(documentsData.items);
+      setNextCursor(documentsData.nextCursor);
     } catch (error) {
       console.error('Error loading admin data:', error);
       Alert.alert(t('common.error'), 'Veriler yüklenirken hata oluştu');
@@ -66,6 +69,24 @@ const AdminDocumentReviewScreen = ({ navigation }) => {
     }
   };
 
+  const loadMoreDocuments = async () => {
+    if (!nextCursor || loadingMore) {
+      return;
+    }
+
+    try {
+      setLoadingMore(true);
+      const page = await apiService.getDocumentsNeedingReview(nextCursor);
+      setPendingDocuments(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error loading more documents:', error);
+      Alert.alert(t('common.error'), 'Veriler yüklenirken hata oluştu');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const onRefresh = async () => {
     setRefreshing(true);
     await loadData();
@@ -199,6 +220,20 @@ const AdminDocumentReviewScreen = ({ navigation }) => {
           ) : (
             pendingDocuments.map(renderDocumentItem)
           )}
+
+          {nextCursor && (
+            <TouchableOpacity
+              style={styles.loadMoreButton}
+              onPress={loadMoreDocuments}
+              disabled={loadingMore}
+            >
+              {loadingMore ? (
+                <ActivityIndicator color="#E31E2E" />
+              ) : (
+                <Text style={styles.loadMoreText}>Daha fazla yükle</Text>
+              )}
+            </TouchableOpacity>
+          )}
         </View>
       </ScrollView>
 
@@ -380,6 +415,15 @@ const styles = StyleSheet.create({
     fontSize: 16,
     color: '#999',
   },
+  loadMoreButton: {
+    alignItems: 'center',
+    paddingVertical: 15,
+  },
+  loadMoreText: {
+    fontSize: 16,
+    color: '#E31E2E',
+    fontWeight: '600',
+  },
   modalOverlay: {
     flex: 1,
     backgroundColor: 'rgba(0, 0, 0, 0.5)',
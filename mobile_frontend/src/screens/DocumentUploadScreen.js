@@ -244,14 +244,14 @@ const DocumentUploadScreen = ({ route }) => {
         if (documentKey && !foundTypes.has(documentKey)) {
           foundTypes.add(documentKey);
           
-          // Store backend data without imageBase64
-          const { imageBase64, ...docWithoutImage } = doc;
+          // Store backend data without the thumbnail
+          const { thumbnailBase64, ...docWithoutImage } = doc;
           documentMap[documentKey] = docWithoutImage;
           
-          // Store imageBase64 separately if exists
-          if (imageBase64) {
-            console.log(`📸 Loading latest image for ${documentKey}, length: ${imageBase64.length}, docId: ${doc.id}`);
-            imageMap[documentKey] = imageBase64;
+          // Listing only carries a thumbnail; use it as the preview
+          if (thumbnailBase64) {
+            console.log(`📸 Loading latest thumbnail for ${documentKey}, length: ${thumbnailBase64.length}, docId: ${doc.id}`);
+            imageMap[documentKey] = thumbnailBase64;
           } else {
             console.log(`❌ No image data for latest ${documentKey}, docId: ${doc.id}`);
           }
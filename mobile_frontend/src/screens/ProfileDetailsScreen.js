@@ -54,20 +54,19 @@ const ProfileDetailsScreen = ({ route, navigation }) => {
         return acc;
       }, {});
       
-      // Convert back to array and ensure proper base64 format
+      // Convert back to array and ensure proper base64 format for thumbnails
       const docs = Object.values(latestDocs).map(doc => {
-        if (doc.imageBase64) {
-          // Ensure proper base64 format
-          doc.imageBase64 = doc.imageBase64.startsWith('data:image/') 
-            ? doc.imageBase64 
-            : `data:image/jpeg;base64,${doc.imageBase64}`;
+        if (doc.thumbnailBase64) {
+          doc.thumbnailBase64 = doc.thumbnailBase64.startsWith('data:image/') 
+            ? doc.thumbnailBase64 
+            : `data:image/jpeg;base64,${doc.thumbnailBase64}`;
         }
         return doc;
       });
       
       docs.forEach((doc, index) => {
-        const hasImage = doc.imageBase64 && doc.imageBase64.length > 0;
-        console.log(`   [${index}] Document ${doc.id}: Type=${doc.type}, Face=${doc.face}, Status=${doc.status}, HasImage=${hasImage}`);
+        const hasThumbnail = doc.thumbnailBase64 && doc.thumbnailBase64.length > 0;
+        console.log(`   [${index}] Document ${doc.id}: Type=${doc.type}, Face=${doc.face}, Status=${doc.status}, HasThumbnail=${hasThumbnail}`);
       });
       
       setProfile(user);
@@ -245,9 +244,10 @@ const ProfileDetailsScreen = ({ route, navigation }) => {
           <Text style={styles.noDocs}>{t('documents.statusNotUploaded')}</Text>
         ) : (
           documents.map(doc => (
-            <TouchableOpacity key={doc.id} style={styles.docCard} onPress={() => {
-              if (doc.imageBase64) {
-                setSelectedImage(doc.imageBase64);
+            <TouchableOpacity key={doc.id} style={styles.docCard} onPress={async () => {
+              if (doc.imageUrl) {
+                // Full image is only downloaded when the user opens it
+                setSelectedImage(await apiService.getDocumentImageSource(doc.id));
                 setImageViewerVisible(true);
               } else {
                 Alert.alert(
@@ -257,9 +257,9 @@ const ProfileDetailsScreen = ({ route, navigation }) => {
                 );
               }
             }}>
-              {doc.imageBase64 && doc.imageBase64.length > 0 ? (
+              {doc.thumbnailBase64 && doc.thumbnailBase64.length > 0 ? (
                 <Image 
-                  source={{ uri: doc.imageBase64 }} 
+                  source={{ uri: doc.thumbnailBase64 }} 
                   style={styles.docImage} 
                   resizeMode="cover"
                 />
@@ -284,9 +284,7 @@ const ProfileDetailsScreen = ({ route, navigation }) => {
           </TouchableOpacity>
           {selectedImage && (
             <Image 
-              source={{ 
-                uri: selectedImage.startsWith('data:image/') ? selectedImage : `data:image/jpeg;base64,${selectedImage}`
-              }} 
+              source={selectedImage} 
               style={styles.imageViewer}
               resizeMode="contain"
             />
@@ -329,20 +329,22 @@ export const apiService = {
     
     console.log(`📄 API Response - Found ${response.length} documents:`);
     response.forEach((doc, index) => {
-      const hasImage = doc.imageBase64 && doc.imageBase64.length > 0;
-      const imageLength = hasImage ? doc.imageBase64.length : 0;
-      console.log(`   [${index}] Document ${doc.id}: Type=${doc.type}, Face=${doc.face}, Status=${doc.status}, HasImage=${hasImage}, ImageLength=${imageLength}`);
-      
-      if (hasImage) {
-        console.log(`      📸 Image preview: ${doc.imageBase64.substring(0, 50)}...`);
-      } else {
-        console.log(`      ❌ No image data found`);
-      }
+      const hasThumbnail = doc.thumbnailBase64 && doc.thumbnailBase64.length > 0;
+      console.log(`   [${index}] Document ${doc.id}: Type=${doc.type}, Face=${doc.face}, Status=${doc.status}, HasThumbnail=${hasThumbnail}`);
     });
     
     return response;
   },
 
+  // Full document image is fetched on demand (listing only carries thumbnails)
+  getDocumentImageSource: async (documentId) => {
+    const token = await getAuthToken();
+    return {
+      uri: `${API_CONFIG.BASE_URL}/documents/${documentId}/image`,
+      headers: token ? { Authorization: `Bearer ${token}` } : {},
+    };
+  },
+
   getDocumentVerificationStatus: async (userId) => {
     return apiService.get(`/documents/user/${userId}/verification-status`);
   },
@@ -418,9 +420,14 @@ export const apiService = {
 
   // === ADMIN ENDPOINTS ===
   
-  // Get documents needing manual review
-  async getDocumentsNeedingReview() {
-    return this.get('/documents/admin/pending-review');
+  // Get documents needing manual review, one page at a time
+  // Returns { items, nextCursor, hasMore }; pass nextCursor back to get the following page
+  async getDocumentsNeedingReview(cursor = null, limit = 50) {
+    const params = { limit };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    return this.get('/documents/admin/pending-review', params);
   },
 
   // Get document processing statistics